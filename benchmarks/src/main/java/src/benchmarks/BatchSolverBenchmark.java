@@ -0,0 +1,72 @@
+package src.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.BatchSolver;
+import src.main.Grouping;
+import src.main.KarnaughMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  Measures {@code BatchSolver.solveAllMaps} on a batch of distinct maps
+ *  for each number of worker threads, so the speed up over one thread can
+ *  be read off directly.
+ *
+ *  @author Morgan Jones
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchSolverBenchmark {
+
+    private static final int MAPS = 1024;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"8x8", "32x32"})
+    public String size;
+
+    private BatchSolver solver;
+    private List<KarnaughMap> maps;
+
+    @Setup
+    public void setup() {
+        int[] dimensions = Maps.size(size);
+        solver = new BatchSolver(parallelism, 16);
+        maps = new ArrayList<>(MAPS);
+
+        // each map is seeded by its width, so vary the width of the array and crop it
+        for (int i = 0; i < MAPS; i++) {
+            boolean[][] cells = Maps.of(dimensions[0] + i, dimensions[1], "half");
+            KarnaughMap map = new KarnaughMap(dimensions[0], dimensions[1]);
+            for (int row = 0; row < dimensions[1]; row++)
+                for (int col = 0; col < dimensions[0]; col++) map.set(row, col, cells[row][col]);
+            maps.add(map);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        solver.close();
+    }
+
+    @Benchmark
+    public List<List<Grouping>> solveAllMaps() {
+        return solver.solveAllMaps(maps);
+    }
+}
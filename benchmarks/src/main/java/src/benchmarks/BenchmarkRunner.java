@@ -0,0 +1,26 @@
+package src.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *  Runs the benchmarks with the allocation profiler, so every result has
+ *  its bytes per operation alongside its operations per second. Takes the
+ *  usual JMH command line options, such as a benchmark name pattern.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+
+        new Runner(new OptionsBuilder()
+                .parent(options)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
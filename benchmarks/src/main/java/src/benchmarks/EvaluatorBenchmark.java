@@ -0,0 +1,107 @@
+package src.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.CompiledFunction;
+import src.main.CubeList;
+import src.main.GroupingAlgorithm;
+import src.main.KarnaughMap;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ *  Measures evaluating the solution of a map over many inputs, by a naive
+ *  evaluator that tests each literal of each term in turn and stops at the
+ *  first term that holds, by {@code CompiledFunction.evaluate} and by the
+ *  bit-sliced {@code CompiledFunction.evaluateAll}. Scores are per input.
+ *
+ *  @author Morgan Jones
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    private static final int INPUTS = 4096;
+
+    @Param({"4x4", "16x16", "64x64"})
+    public String size;
+
+    private CubeList cubes;
+    private CompiledFunction function;
+    private long[] inputs;
+    private long[] results;
+
+    @Setup
+    public void setup() {
+        int[] dimensions = Maps.size(size);
+        KarnaughMap map = KarnaughMap.of(Maps.of(dimensions[0], dimensions[1], "half"));
+
+        cubes = CubeList.fromGroupings(GroupingAlgorithm.findOptimalGroupings(map), dimensions[0], dimensions[1]);
+        function = new CompiledFunction(cubes);
+
+        Random random = new Random(19);
+        long all = -1L >>> (64 - cubes.getVariables());
+        inputs = new long[INPUTS];
+        for (int i = 0; i < INPUTS; i++) inputs[i] = random.nextLong() & all;
+        results = new long[INPUTS / 64];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public long[] naive() {
+        Arrays.fill(results, 0);
+        for (int i = 0; i < INPUTS; i++)
+            if (naive(cubes, inputs[i])) results[i >>> 6] |= 1L << i;
+
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public long[] branchFree() {
+        Arrays.fill(results, 0);
+        for (int i = 0; i < INPUTS; i++)
+            if (function.evaluate(inputs[i])) results[i >>> 6] |= 1L << i;
+
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public long[] bitSliced() {
+        function.evaluateAll(inputs, results);
+        return results;
+    }
+
+    private static boolean naive(CubeList cubes, long input) {
+        for (int t = 0; t < cubes.size(); t++) {
+            boolean holds = true;
+
+            for (int v = 0; v < cubes.getVariables(); v++) {
+                if ((cubes.getMask(t) >>> v & 1) != 0) continue;
+                if ((input >>> v & 1) != (cubes.getValue(t) >>> v & 1)) {
+                    holds = false;
+                    break;
+                }
+            }
+
+            if (holds) return true;
+        }
+
+        return false;
+    }
+}
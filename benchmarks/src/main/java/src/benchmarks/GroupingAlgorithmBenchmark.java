@@ -0,0 +1,57 @@
+package src.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.Grouping;
+import src.main.GroupingAlgorithm;
+import src.main.KarnaughMap;
+
+/**
+ *  Measures {@code GroupingAlgorithm.findOptimalGroupings} on small and
+ *  large maps of each density, from both a {@code boolean[][]} and a
+ *  packed {@code KarnaughMap}.
+ *
+ *  @author Morgan Jones
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupingAlgorithmBenchmark {
+
+    @Param({"2x2", "4x4", "64x64", "256x256"})
+    public String size;
+
+    @Param({"sparse", "half", "dense", "checkerboard", "ones"})
+    public String density;
+
+    private boolean[][] kmap;
+    private KarnaughMap map;
+
+    @Setup
+    public void setup() {
+        int[] dimensions = Maps.size(size);
+        kmap = Maps.of(dimensions[0], dimensions[1], density);
+        map = KarnaughMap.of(kmap);
+    }
+
+    @Benchmark
+    public Iterable<Grouping> findOptimalGroupings() {
+        return GroupingAlgorithm.findOptimalGroupings(kmap);
+    }
+
+    @Benchmark
+    public Iterable<Grouping> findOptimalGroupingsPacked() {
+        return GroupingAlgorithm.findOptimalGroupings(map);
+    }
+}
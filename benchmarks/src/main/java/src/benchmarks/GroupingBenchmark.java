@@ -0,0 +1,77 @@
+package src.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import src.main.Grouping;
+import src.main.KarnaughMap;
+import src.main.PrefixSumMatrix;
+
+import java.awt.Point;
+
+/**
+ *  Measures counting and listing the cells of one grouping, both a plain
+ *  grouping and one wrapping around both edges of the map, by
+ *  {@code Grouping.mapSection}, {@code Grouping.pointsInGroup} and
+ *  {@code PrefixSumMatrix.sumRegion}.
+ *
+ *  @author Morgan Jones
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupingBenchmark {
+
+    private static final int SIZE = 64;
+
+    @Param({"inside", "wrapped"})
+    public String placement;
+
+    private boolean[][] kmap;
+    private KarnaughMap map;
+    private PrefixSumMatrix sums;
+    private Grouping grouping;
+
+    @Setup
+    public void setup() throws Exception {
+        kmap = Maps.of(SIZE, SIZE, "half");
+        map = KarnaughMap.of(kmap);
+        sums = new PrefixSumMatrix(map);
+
+        // a 16 by 8 grouping, either within the map or across its corner
+        grouping = placement.equals("inside")
+                ? new Grouping(8, 8, 15, 23, SIZE, SIZE)
+                : new Grouping(60, 56, 3, 7, SIZE, SIZE);
+    }
+
+    @Benchmark
+    public int mapSection() {
+        return grouping.mapSection(kmap);
+    }
+
+    @Benchmark
+    public int mapSectionPacked() {
+        return grouping.mapSection(map);
+    }
+
+    @Benchmark
+    public void pointsInGroup(Blackhole blackhole) {
+        for (Point point : grouping.pointsInGroup()) blackhole.consume(point);
+    }
+
+    @Benchmark
+    public int sumRegion() {
+        return sums.sumRegion(grouping.getStartRow(), grouping.getStartCol(), grouping.getEndRow(), grouping.getEndCol());
+    }
+}
@@ -0,0 +1,63 @@
+package src.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.Grouping;
+import src.main.KarnaughMap;
+import src.main.LargeGridSolver;
+
+import java.util.List;
+
+/**
+ *  Measures {@code LargeGridSolver.solve} on one large map for each number
+ *  of worker threads, so the speed up over one thread can be read off
+ *  directly.
+ *
+ *  @author Morgan Jones
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeGridSolverBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"256x256", "1024x1024"})
+    public String size;
+
+    @Param({"half", "dense"})
+    public String density;
+
+    private LargeGridSolver solver;
+    private KarnaughMap map;
+
+    @Setup
+    public void setup() {
+        int[] dimensions = Maps.size(size);
+        solver = new LargeGridSolver(parallelism);
+        map = KarnaughMap.of(Maps.of(dimensions[0], dimensions[1], density));
+    }
+
+    @TearDown
+    public void tearDown() {
+        solver.close();
+    }
+
+    @Benchmark
+    public List<Grouping> solve() {
+        return solver.solve(map);
+    }
+}
@@ -0,0 +1,51 @@
+package src.benchmarks;
+
+import java.util.Random;
+
+/**
+ *  The {@code Maps} class makes the Karnaugh maps the benchmarks run on,
+ *  from a fixed seed so every run measures the same maps.
+ *
+ *  @author Morgan Jones
+ *
+ */
+final class Maps {
+
+    private Maps() {
+    }
+
+    /**
+     * Makes a map of a given fill
+     * @param width the width of the map
+     * @param height the height of the map
+     * @param density one of sparse, half, dense, checkerboard or ones
+     * @return the map
+     */
+    static boolean[][] of(int width, int height, String density) {
+        Random random = new Random(31L * width + height);
+        boolean[][] map = new boolean[height][width];
+
+        for (int row = 0; row < height; row++)
+            for (int col = 0; col < width; col++)
+                switch (density) {
+                    case "sparse": map[row][col] = random.nextDouble() < 0.1; break;
+                    case "half": map[row][col] = random.nextBoolean(); break;
+                    case "dense": map[row][col] = random.nextDouble() < 0.9; break;
+                    case "checkerboard": map[row][col] = (row + col) % 2 == 0; break;
+                    case "ones": map[row][col] = true; break;
+                    default: throw new IllegalArgumentException("Unknown density: " + density);
+                }
+
+        return map;
+    }
+
+    /**
+     * Reads a size such as 4x4 as a width and a height
+     * @param size the size, written as width x height
+     * @return the width and the height
+     */
+    static int[] size(String size) {
+        String[] parts = size.split("x");
+        return new int[] { Integer.parseInt(parts[0]), Integer.parseInt(parts[1]) };
+    }
+}
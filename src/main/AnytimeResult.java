@@ -0,0 +1,127 @@
+package src.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *  The {@code AnytimeResult} class holds the best cover found by an anytime
+ *  search when it stopped, together with the trajectory of covers it passed
+ *  through: the greedy cover it started from, and each improvement after.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class AnytimeResult {
+
+    private final List<Grouping> groupings;
+    private final boolean optimal;
+    private final List<Improvement> trajectory;
+
+    /**
+     * Initialises a new result
+     * @param groupings the groupings in the cover
+     * @param optimal True if no cover with fewer groupings exists
+     * @param trajectory the first cover and each improvement, in the order they were found
+     */
+    public AnytimeResult(List<Grouping> groupings, boolean optimal, List<Improvement> trajectory) {
+        this.groupings = Collections.unmodifiableList(groupings);
+        this.optimal = optimal;
+        this.trajectory = Collections.unmodifiableList(new ArrayList<>(trajectory));
+    }
+
+    /**
+     * Gets the groupings in the cover
+     * @return an unmodifiable list of groupings
+     */
+    public List<Grouping> getGroupings() {
+        return groupings;
+    }
+
+    /**
+     * Determines if the cover was proven to have the fewest groupings
+     * @return True if no cover with fewer groupings exists
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * Gets the first cover and each improvement on it, in the order they were found
+     * @return an unmodifiable list of improvements, each smaller or larger in area than the last
+     */
+    public List<Improvement> getTrajectory() {
+        return trajectory;
+    }
+
+    /**
+     * The number of groupings in the cover
+     * @return number of groupings
+     */
+    public int size() {
+        return groupings.size();
+    }
+
+    /**
+     * Generates a string representation of the result.
+     * @return The string representation
+     */
+    public String toString()
+    {return "AnytimeResult: " + groupings.size() + " groupings after " + trajectory.size() + " covers" + (optimal ? " (optimal)" : " (best found)");}
+
+    /**
+     *  The {@code Improvement} class describes a cover found by the search:
+     *  when it was found, its number of groupings, and the number of cells its
+     *  groupings cover counted with overlaps. Larger groupings have fewer
+     *  literals, so for the same number of groupings a larger area is better.
+     */
+    public static class Improvement {
+
+        private final long elapsedNanos;
+        private final int size;
+        private final long area;
+
+        /**
+         * Initialises a new improvement
+         * @param elapsedNanos the time from the start of the solve to when the cover was found
+         * @param size the number of groupings in the cover
+         * @param area the total area of the groupings
+         */
+        public Improvement(long elapsedNanos, int size, long area) {
+            this.elapsedNanos = elapsedNanos;
+            this.size = size;
+            this.area = area;
+        }
+
+        /**
+         * Gets the time from the start of the solve to when the cover was found
+         * @return time in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Gets the number of groupings in the cover
+         * @return number of groupings
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Gets the total area of the groupings in the cover
+         * @return number of cells, counted once for each grouping covering them
+         */
+        public long getArea() {
+            return area;
+        }
+
+        /**
+         * Generates a string representation of the improvement.
+         * @return The string representation
+         */
+        public String toString()
+        {return size + " groupings, area " + area + " at " + elapsedNanos / 1000 + " us";}
+    }
+}
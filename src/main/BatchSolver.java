@@ -0,0 +1,197 @@
+package src.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ *  The {@code BatchSolver} class solves many Karnaugh maps at once on its
+ *  own {@code ForkJoinPool}. Identical maps in a batch are solved once, the
+ *  distinct maps are split into chunks across the workers, and each worker
+ *  keeps its own {@code GroupingSolver} so its buffers are reused from one
+ *  map to the next. Results are returned in the order of the input, with
+ *  duplicate maps sharing one unmodifiable list.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class BatchSolver implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final ThreadLocal<GroupingSolver> solvers = ThreadLocal.withInitial(GroupingSolver::new);
+    private volatile SolverListener listener;
+
+    /**
+     * Initialises a batch solver using every available processor
+     */
+    public BatchSolver() {
+        this(Runtime.getRuntime().availableProcessors(), 64);
+    }
+
+    /**
+     * Initialises a batch solver
+     * @param parallelism the number of worker threads
+     * @param chunkSize the most maps solved by one task
+     */
+    public BatchSolver(int parallelism, int chunkSize) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism was 0 or less: " + parallelism);
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize was 0 or less: " + chunkSize);
+
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Finds the simplest set of groupings for each Karnaugh map.
+     * @param kmaps the Karnaugh maps
+     * @return the groupings of each map, in the order of the input
+     */
+    public List<List<Grouping>> solveAll(List<boolean[][]> kmaps) {
+        if (kmaps == null) throw new IllegalArgumentException("Karnaugh map list was null");
+
+        ArrayList<KarnaughMap> maps = new ArrayList<>(kmaps.size());
+        for (boolean[][] kmap : kmaps) maps.add(KarnaughMap.of(kmap));
+
+        return solveAllMaps(maps);
+    }
+
+    /**
+     * Finds the simplest set of groupings for each packed Karnaugh map.
+     * @param maps the Karnaugh maps
+     * @return the groupings of each map, in the order of the input
+     */
+    public List<List<Grouping>> solveAllMaps(List<KarnaughMap> maps) {
+        if (maps == null) throw new IllegalArgumentException("Karnaugh map list was null");
+
+        // solve each distinct map once
+        HashMap<KarnaughMap, Integer> seen = new HashMap<>();
+        ArrayList<KarnaughMap> distinct = new ArrayList<>();
+        int[] slot = new int[maps.size()];
+
+        for (int i = 0; i < maps.size(); i++) {
+            KarnaughMap map = maps.get(i);
+            if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+
+            Integer index = seen.get(map);
+            if (index == null) {
+                index = distinct.size();
+                seen.put(map, index);
+                distinct.add(map);
+            }
+            slot[i] = index;
+        }
+
+        // filled in by index from the workers, so sized up front
+        ArrayList<List<Grouping>> solved = new ArrayList<>(Collections.nCopies(distinct.size(), null));
+        if (!distinct.isEmpty()) pool.invoke(new Chunk(distinct, solved, 0, distinct.size()));
+
+        ArrayList<List<Grouping>> results = new ArrayList<>(maps.size());
+        for (int i = 0; i < maps.size(); i++) results.add(solved.get(slot[i]));
+
+        return results;
+    }
+
+    /**
+     * Finds the simplest set of groupings for each map of a stream. Maps are read and solved
+     * a batch at a time, so only one batch is held in memory at once.
+     * @param maps the Karnaugh maps
+     * @return the groupings of each map, in the order of the input
+     */
+    public Stream<List<Grouping>> solve(Stream<KarnaughMap> maps) {
+        if (maps == null) throw new IllegalArgumentException("Karnaugh map stream was null");
+
+        int batchSize = chunkSize * pool.getParallelism() * 4;
+        Iterator<KarnaughMap> source = maps.iterator();
+
+        Spliterator<List<Grouping>> results = new Spliterators.AbstractSpliterator<List<Grouping>>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private List<List<Grouping>> batch = Collections.emptyList();
+            private int next;
+
+            public boolean tryAdvance(Consumer<? super List<Grouping>> action) {
+                if (next == batch.size()) {
+                    ArrayList<KarnaughMap> input = new ArrayList<>(batchSize);
+                    while (input.size() < batchSize && source.hasNext()) input.add(source.next());
+                    if (input.isEmpty()) return false;
+
+                    batch = solveAllMaps(input);
+                    next = 0;
+                }
+
+                action.accept(batch.get(next++));
+                return true;
+            }
+        };
+
+        return StreamSupport.stream(results, false).onClose(maps::close);
+    }
+
+    /**
+     * Gets the number of worker threads
+     * @return the parallelism of the pool
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Gets the most maps solved by one task
+     * @return the chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the listener told about every map solved, which is called from the worker threads
+     * @param listener the listener, or null for none
+     */
+    public void setListener(SolverListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Shuts down the worker threads
+     */
+    public void close() {
+        pool.shutdown();
+    }
+
+    private class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<KarnaughMap> maps;
+        private final List<List<Grouping>> solved;
+        private final int from;
+        private final int to;
+
+        Chunk(List<KarnaughMap> maps, List<List<Grouping>> solved, int from, int to) {
+            this.maps = maps;
+            this.solved = solved;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Chunk(maps, solved, from, mid), new Chunk(maps, solved, mid, to));
+                return;
+            }
+
+            GroupingSolver solver = solvers.get();
+            solver.setListener(listener);
+            for (int i = from; i < to; i++)
+                solved.set(i, Collections.unmodifiableList(solver.solve(maps.get(i))));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package src.main;
+
+/**
+ *  The {@code CompiledFunction} class evaluates a sum of products quickly,
+ *  for simulating a minimised function over many inputs.
+ *
+ *  Each input is a {@code long} with variable i in bit i, as in
+ *  {@code CubeList}. A term holds when the input matches its value on every
+ *  variable it depends on, which is one XOR and one AND, and the terms are
+ *  combined without branching, so the time taken does not depend on the
+ *  input.
+ *
+ *  In bit-sliced form, 64 inputs are evaluated at once. Word i of the slices
+ *  holds variable i of each of the 64 inputs, one per bit, so each term is
+ *  the AND of its literals, as whole words, and the function is the OR of
+ *  its terms. {@code slice} turns 64 inputs into slices by transposing them
+ *  as a 64 by 64 matrix of bits.
+ *
+ *  A compiled function is immutable and can be shared between threads.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class CompiledFunction {
+
+    private final int variables;
+
+    // term t holds when ((input ^ values[t]) & cares[t]) == 0
+    private final long[] values;
+    private final long[] cares;
+
+    // the literals of term t are [literalStart[t], literalStart[t + 1]), each a variable
+    // whose slice is flipped by XORing with 0 where it must be 1, or -1 where it must be 0
+    private final int[] literalStart;
+    private final int[] literalVars;
+    private final long[] literalFlips;
+
+    /**
+     * Compiles a sum of products
+     * @param cubes the terms of the function
+     */
+    public CompiledFunction(CubeList cubes) {
+        if (cubes == null) throw new IllegalArgumentException("Cube input was null");
+
+        variables = cubes.getVariables();
+        int terms = cubes.size();
+        long all = -1L >>> (64 - variables);
+
+        values = new long[terms];
+        cares = new long[terms];
+        literalStart = new int[terms + 1];
+
+        int literals = 0;
+        for (int t = 0; t < terms; t++) {
+            values[t] = cubes.getValue(t);
+            cares[t] = ~cubes.getMask(t) & all;
+            literals += Long.bitCount(cares[t]);
+        }
+
+        literalVars = new int[literals];
+        literalFlips = new long[literals];
+
+        int p = 0;
+        for (int t = 0; t < terms; t++) {
+            literalStart[t] = p;
+            for (long x = cares[t]; x != 0; x &= x - 1) {
+                int v = Long.numberOfTrailingZeros(x);
+                literalVars[p] = v;
+                literalFlips[p++] = (values[t] >>> v & 1) - 1;
+            }
+        }
+        literalStart[terms] = p;
+    }
+
+    /**
+     * Compiles the groupings of a map, labelled as by {@code CubeList.fromGroupings}
+     * @param groupings the groupings, such as a solution of {@code GroupingAlgorithm}
+     * @param width the width of the map, a power of 2
+     * @param height the height of the map, a power of 2
+     */
+    public CompiledFunction(Iterable<Grouping> groupings, int width, int height) {
+        this(CubeList.fromGroupings(groupings, width, height));
+    }
+
+    /**
+     * Gets the number of variables of the function
+     * @return number of variables
+     */
+    public int getVariables() {
+        return variables;
+    }
+
+    /**
+     * Gets the number of terms of the function
+     * @return number of terms
+     */
+    public int getTerms() {
+        return values.length;
+    }
+
+    /**
+     * Evaluates the function for one input
+     * @param input the input, with variable i in bit i
+     * @return True if the function is 1
+     */
+    public boolean evaluate(long input) {
+        long hit = 0;
+
+        for (int t = 0; t < values.length; t++) {
+            // diff is 0 exactly when the term holds, and (diff | -diff) then has its sign bit clear
+            long diff = (input ^ values[t]) & cares[t];
+            hit |= ~(diff | -diff);
+        }
+
+        return hit < 0;
+    }
+
+    /**
+     * Evaluates the function for 64 inputs at once
+     * @param slices word i holding variable i of each input, one input per bit
+     * @return the value of the function for each input, one input per bit
+     */
+    public long evaluateSliced(long[] slices) {
+        if (slices.length < variables) throw new IllegalArgumentException("Slices do not cover every variable");
+
+        long result = 0;
+        for (int t = 0; t < values.length; t++) {
+            long term = -1;
+            for (int p = literalStart[t]; p < literalStart[t + 1]; p++) term &= slices[literalVars[p]] ^ literalFlips[p];
+            result |= term;
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates the function for every input, 64 at a time in bit-sliced form
+     * @param inputs the inputs, each with variable i in bit i
+     * @param results the value of the function for each input, input i in bit {@code i % 64} of word {@code i / 64}
+     */
+    public void evaluateAll(long[] inputs, long[] results) {
+        if (results.length < (inputs.length + 63) >>> 6) throw new IllegalArgumentException("Results do not have room for every input");
+
+        long[] slices = new long[64];
+        for (int i = 0; i < inputs.length; i += 64) {
+            slice(inputs, i, Math.min(64, inputs.length - i), slices);
+            results[i >>> 6] = evaluateSliced(slices) & (-1L >>> (64 - Math.min(64, inputs.length - i)));
+        }
+    }
+
+    /**
+     * Turns up to 64 inputs into bit-sliced form, so that bit j of word i of the slices is
+     * bit i of input j. Missing inputs are taken as 0.
+     * @param inputs the inputs
+     * @param offset the position of the first input
+     * @param count the number of inputs, at most 64
+     * @param slices the 64 words to write the slices to
+     */
+    public static void slice(long[] inputs, int offset, int count, long[] slices) {
+        if (count < 0 || count > 64) throw new IllegalArgumentException("count was out of range: " + count);
+
+        System.arraycopy(inputs, offset, slices, 0, count);
+        for (int i = count; i < 64; i++) slices[i] = 0;
+
+        // transpose by swapping ever smaller blocks across the diagonal, 32 by 32 down to 1 by 1
+        long mask = 0x00000000FFFFFFFFL;
+        for (int j = 32; j != 0; j >>>= 1, mask ^= mask << j)
+            for (int k = 0; k < 64; k = ((k | j) + 1) & ~j) {
+                long t = ((slices[k] >>> j) ^ slices[k | j]) & mask;
+                slices[k] ^= t << j;
+                slices[k | j] ^= t;
+            }
+    }
+}
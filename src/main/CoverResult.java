@@ -0,0 +1,59 @@
+package src.main;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *  The {@code CoverResult} class holds the groupings found by a search
+ *  for a minimum cover, together with whether that cover was proven to be
+ *  minimal before the search ran out of time.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class CoverResult {
+
+    private final List<Grouping> groupings;
+    private final boolean optimal;
+
+    /**
+     * Initialises a new result
+     * @param groupings the groupings in the cover
+     * @param optimal True if no cover with fewer groupings exists
+     */
+    public CoverResult(List<Grouping> groupings, boolean optimal) {
+        this.groupings = Collections.unmodifiableList(groupings);
+        this.optimal = optimal;
+    }
+
+    /**
+     * Gets the groupings in the cover
+     * @return an unmodifiable list of groupings
+     */
+    public List<Grouping> getGroupings() {
+        return groupings;
+    }
+
+    /**
+     * Determines if the cover was proven to be minimal
+     * @return True if no cover with fewer groupings exists
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * The number of groupings in the cover
+     * @return number of groupings
+     */
+    public int size() {
+        return groupings.size();
+    }
+
+    /**
+     * Generates a string representation of the result.
+     * @return The string representation
+     */
+    public String toString()
+    {return "CoverResult: " + groupings.size() + " groupings" + (optimal ? " (optimal)" : " (best found)");}
+}
@@ -0,0 +1,503 @@
+package src.main;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ *  The {@code CoverSelector} class picks candidates until every required
+ *  element is covered. Candidates are taken in order of rank (for groupings,
+ *  their size), and within a rank the candidate covering the most elements
+ *  that are still uncovered is taken first.
+ *
+ *  Each candidate keeps a count of the required elements it still covers.
+ *  When a candidate is selected, only the candidates sharing an element with
+ *  it are updated, using an index from each element to the candidates that
+ *  contain it. The heap is re-keyed lazily: an entry whose key has gone
+ *  stale is only fixed when it reaches the top. Ties are broken by
+ *  candidate index, so the selection is deterministic.
+ *
+ *  Before any of that, essential candidates are selected: those that are
+ *  the only candidate containing some required element, and so must be
+ *  part of every cover.
+ *
+ *  For large inputs, the index can be built and the essential candidates
+ *  selected on a {@code ForkJoinPool}. The elements of each candidate are
+ *  written straight into place, and the index is built with a stripe of
+ *  counters per thread, so it comes out in the same order as on one thread.
+ *  The essential candidates are then selected together, each element being
+ *  claimed by one thread, which updates the counts atomically. Every
+ *  essential candidate is selected whatever the order, so this leaves the
+ *  same counts, and gives the same selection, as running on one thread.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class CoverSelector {
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle FLAGS = MethodHandles.arrayElementVarHandle(boolean[].class);
+
+    private int elements;
+    private boolean[] required = new boolean[0];
+    private int remaining;
+
+    // candidate -> elements, as offsets into candElems
+    private int candidates;
+    private int[] ranks = new int[16];
+    private int[] candStart = new int[17];
+    private int[] candElems = new int[64];
+    private int[] counts = new int[16];
+
+    // element -> candidates, as offsets into elemCands
+    private int[] elemStart = new int[1];
+    private int[] elemCands = new int[64];
+
+    // candidates that are the only cover of some element, taken before the heap is used
+    private int[] essentials = new int[16];
+    private int essentialCount;
+    private int nextEssential;
+    private boolean essentialsTaken;
+    private long comparisons;
+    private int[][] stripes = new int[0][];
+
+    // heap of candidates within the current rank, largest key first
+    private int[] heapCands = new int[16];
+    private int[] heapKeys = new int[16];
+    private int heapSize;
+    private int nextInRank;
+
+    /**
+     * Clears all candidates and required elements.
+     * @param elements the number of elements, numbered from 0
+     */
+    public void reset(int elements) {
+        this.elements = elements;
+        if (required.length < elements) required = new boolean[elements];
+        else Arrays.fill(required, 0, elements, false);
+        remaining = 0;
+        candidates = 0;
+        candStart[0] = 0;
+        heapSize = 0;
+        nextInRank = 0;
+        essentialsTaken = false;
+        comparisons = 0;
+    }
+
+    /**
+     * Marks an element as one that must be covered.
+     * @param element the element
+     */
+    public void require(int element) {
+        if (!required[element]) {
+            required[element] = true;
+            remaining++;
+        }
+    }
+
+    /**
+     * Starts a new candidate. Candidates must be added in order of non-increasing rank.
+     * @param rank the rank of the candidate
+     * @return the index of the candidate
+     */
+    public int addCandidate(int rank) {
+        if (candidates + 1 == ranks.length) {
+            ranks = Arrays.copyOf(ranks, ranks.length * 2);
+            candStart = Arrays.copyOf(candStart, ranks.length + 1);
+        }
+
+        ranks[candidates] = rank;
+        candStart[candidates + 1] = candStart[candidates];
+        return candidates++;
+    }
+
+    /**
+     * Adds an element to the candidate most recently started.
+     * @param element the element
+     */
+    public void addElement(int element) {
+        int end = candStart[candidates];
+        if (end == candElems.length) candElems = Arrays.copyOf(candElems, end * 2);
+        candElems[end] = element;
+        candStart[candidates] = end + 1;
+    }
+
+    /**
+     * Replaces the candidates with ones whose elements are written straight into {@code elements()},
+     * so that they can be filled in on several threads. Candidate k has {@code sizes[k]} elements,
+     * starting at {@code start(k)}.
+     * @param count the number of candidates
+     * @param ranks the rank of each candidate, in non-increasing order
+     * @param sizes the number of elements of each candidate
+     */
+    void allocate(int count, int[] ranks, int[] sizes) {
+        if (this.ranks.length < count + 1) {
+            this.ranks = new int[count + 1];
+            candStart = new int[count + 2];
+        }
+
+        candidates = count;
+        candStart[0] = 0;
+        for (int k = 0; k < count; k++) {
+            this.ranks[k] = ranks[k];
+            candStart[k + 1] = candStart[k] + sizes[k];
+        }
+
+        if (candElems.length < candStart[count]) candElems = new int[candStart[count]];
+    }
+
+    /**
+     * Gets the position in {@code elements()} of the first element of a candidate
+     * @param k the candidate
+     * @return the position
+     */
+    int start(int k) {
+        return candStart[k];
+    }
+
+    /**
+     * Gets the array holding the elements of every candidate
+     * @return the elements
+     */
+    int[] elements() {
+        return candElems;
+    }
+
+    /**
+     * Builds the element index and the uncovered counts, ready for {@code next()}.
+     */
+    public void prepare() {
+        if (counts.length < candidates) counts = new int[ranks.length];
+        if (elemStart.length < elements + 1) elemStart = new int[elements + 1];
+        Arrays.fill(elemStart, 0, elements + 1, 0);
+
+        int total = 0;
+        for (int k = 0; k < candidates; k++) {
+            int count = 0;
+            for (int p = candStart[k]; p < candStart[k + 1]; p++) {
+                int e = candElems[p];
+                if (required[e]) {
+                    count++;
+                    elemStart[e + 1]++;
+                    total++;
+                }
+            }
+            counts[k] = count;
+        }
+
+        for (int e = 0; e < elements; e++) elemStart[e + 1] += elemStart[e];
+        if (elemCands.length < total) elemCands = new int[total];
+
+        // fill each element's list, using the list starts as cursors and then shifting them back
+        for (int k = 0; k < candidates; k++)
+            for (int p = candStart[k]; p < candStart[k + 1]; p++) {
+                int e = candElems[p];
+                if (required[e]) elemCands[elemStart[e]++] = k;
+            }
+
+        for (int e = elements; e > 0; e--) elemStart[e] = elemStart[e - 1];
+        elemStart[0] = 0;
+
+        if (heapCands.length < candidates) {
+            heapCands = new int[ranks.length];
+            heapKeys = new int[ranks.length];
+            essentials = new int[ranks.length];
+        }
+        heapSize = 0;
+        nextInRank = 0;
+
+        essentialCount = 0;
+        nextEssential = 0;
+        for (int k = 0; k < candidates; k++)
+            for (int p = candStart[k]; p < candStart[k + 1]; p++) {
+                int e = candElems[p];
+                if (required[e] && elemStart[e + 1] - elemStart[e] == 1) {
+                    essentials[essentialCount++] = k;
+                    break;
+                }
+            }
+    }
+
+    /**
+     * Builds the element index and the uncovered counts on a pool, ready for {@code next()}.
+     * @param pool the pool to run on, or null to run on this thread
+     */
+    void prepare(ForkJoinPool pool) {
+        if (pool == null) {
+            prepare();
+            return;
+        }
+
+        if (counts.length < candidates) counts = new int[ranks.length];
+        if (elemStart.length < elements + 1) elemStart = new int[elements + 1];
+
+        // each part of the candidates counts the elements it holds into its own stripe of counters
+        int parts = Math.max(1, Math.min(candidates, pool.getParallelism()));
+        if (stripes.length < parts) stripes = Arrays.copyOf(stripes, parts);
+        for (int t = 0; t < parts; t++)
+            if (stripes[t] == null || stripes[t].length < elements) stripes[t] = new int[elements];
+            else Arrays.fill(stripes[t], 0, elements, 0);
+
+        forParts(pool, parts, candidates, (t, from, to) -> {
+            int[] stripe = stripes[t];
+            for (int k = from; k < to; k++) {
+                int count = 0;
+                for (int p = candStart[k]; p < candStart[k + 1]; p++) {
+                    int e = candElems[p];
+                    if (required[e]) {
+                        count++;
+                        stripe[e]++;
+                    }
+                }
+                counts[k] = count;
+            }
+        });
+
+        // sum the stripes into the list starts, and turn each stripe into the place its part writes next
+        forParts(pool, parts, elements, (unused, from, to) -> {
+            for (int e = from; e < to; e++) {
+                int total = 0;
+                for (int t = 0; t < parts; t++) total += stripes[t][e];
+                elemStart[e + 1] = total;
+            }
+        });
+
+        elemStart[0] = 0;
+        for (int e = 0; e < elements; e++) elemStart[e + 1] += elemStart[e];
+        if (elemCands.length < elemStart[elements]) elemCands = new int[elemStart[elements]];
+
+        forParts(pool, parts, elements, (unused, from, to) -> {
+            for (int e = from; e < to; e++) {
+                int next = elemStart[e];
+                for (int t = 0; t < parts; t++) {
+                    int count = stripes[t][e];
+                    stripes[t][e] = next;
+                    next += count;
+                }
+            }
+        });
+
+        // the parts fill each element's list in order, so it matches the list built on one thread
+        forParts(pool, parts, candidates, (t, from, to) -> {
+            int[] stripe = stripes[t];
+            for (int k = from; k < to; k++)
+                for (int p = candStart[k]; p < candStart[k + 1]; p++) {
+                    int e = candElems[p];
+                    if (required[e]) elemCands[stripe[e]++] = k;
+                }
+        });
+
+        if (heapCands.length < candidates) {
+            heapCands = new int[ranks.length];
+            heapKeys = new int[ranks.length];
+            essentials = new int[ranks.length];
+        }
+        heapSize = 0;
+        nextInRank = 0;
+        nextEssential = 0;
+        essentialsTaken = false;
+
+        // mark the essential candidates, then list them in order
+        boolean[] essential = new boolean[candidates];
+        forRanges(pool, candidates, (from, to) -> {
+            for (int k = from; k < to; k++)
+                for (int p = candStart[k]; p < candStart[k + 1]; p++) {
+                    int e = candElems[p];
+                    if (required[e] && elemStart[e + 1] - elemStart[e] == 1) {
+                        essential[k] = true;
+                        break;
+                    }
+                }
+        });
+
+        essentialCount = 0;
+        for (int k = 0; k < candidates; k++)
+            if (essential[k]) essentials[essentialCount++] = k;
+    }
+
+    /**
+     * Selects every essential candidate at once on a pool. They are still returned by {@code next()}
+     * in order, followed by the rest of the selection.
+     * @param pool the pool to run on
+     */
+    void takeEssentials(ForkJoinPool pool) {
+        int[] covered = new int[1];
+
+        forRanges(pool, essentialCount, (from, to) -> {
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                int k = essentials[i];
+                for (int p = candStart[k]; p < candStart[k + 1]; p++) {
+                    int e = candElems[p];
+
+                    // only the thread that covers an element updates the counts of its candidates
+                    if (!required[e] || !FLAGS.compareAndSet(required, e, true, false)) continue;
+                    count++;
+                    for (int q = elemStart[e]; q < elemStart[e + 1]; q++) INTS.getAndAdd(counts, elemCands[q], -1);
+                }
+            }
+            INTS.getAndAdd(covered, 0, count);
+        });
+
+        remaining -= covered[0];
+        essentialsTaken = true;
+    }
+
+    interface Range {
+        void run(int from, int to);
+    }
+
+    private interface Part {
+        void run(int part, int from, int to);
+    }
+
+    /**
+     * Runs a task over [0, n) split into a given number of numbered parts on a pool
+     */
+    private static void forParts(ForkJoinPool pool, int parts, int n, Part task) {
+        ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>(parts);
+
+        for (int t = 0; t < parts; t++) {
+            int part = t, from = (int) ((long) t * n / parts), to = (int) ((long) (t + 1) * n / parts);
+            tasks.add(ForkJoinTask.adapt(() -> task.run(part, from, to)));
+        }
+
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    /**
+     * Runs a task over [0, n) split into ranges on a pool
+     */
+    static void forRanges(ForkJoinPool pool, int n, Range task) {
+        int parts = Math.min(n, 4 * pool.getParallelism());
+        ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>(parts);
+
+        for (int t = 0; t < parts; t++) {
+            int from = (int) ((long) t * n / parts), to = (int) ((long) (t + 1) * n / parts);
+            tasks.add(ForkJoinTask.adapt(() -> task.run(from, to)));
+        }
+
+        if (!tasks.isEmpty()) pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    /**
+     * The number of essential candidates found by {@code prepare()}
+     * @return number of candidates
+     */
+    public int essentials() {
+        return essentialCount;
+    }
+
+    /**
+     * Selects the next candidate and marks its elements as covered.
+     * @return the index of the candidate, or -1 if every required element is covered
+     */
+    public int next() {
+        if (nextEssential < essentialCount && (essentialsTaken || remaining > 0)) {
+            int k = essentials[nextEssential++];
+            if (!essentialsTaken) select(k);
+            return k;
+        }
+
+        while (remaining > 0) {
+            if (heapSize == 0) {
+                if (nextInRank == candidates) return -1;
+
+                // move on to the next rank, keeping only candidates that still cover something
+                int rank = ranks[nextInRank];
+                while (nextInRank < candidates && ranks[nextInRank] == rank) {
+                    if (counts[nextInRank] > 0) push(nextInRank, counts[nextInRank]);
+                    nextInRank++;
+                }
+                continue;
+            }
+
+            int k = heapCands[0], key = heapKeys[0];
+            pop();
+
+            if (key != counts[k]) {
+                if (counts[k] > 0) push(k, counts[k]);
+                continue;
+            }
+
+            select(k);
+            return k;
+        }
+
+        return -1;
+    }
+
+    private void select(int k) {
+        for (int p = candStart[k]; p < candStart[k + 1]; p++) {
+            int e = candElems[p];
+            if (!required[e]) continue;
+
+            required[e] = false;
+            remaining--;
+            for (int q = elemStart[e]; q < elemStart[e + 1]; q++) counts[elemCands[q]]--;
+        }
+    }
+
+    /**
+     * The number of required elements not yet covered
+     * @return number of elements
+     */
+    public int remaining() {
+        return remaining;
+    }
+
+    /**
+     * The number of comparisons between candidates made since the last reset
+     * @return number of comparisons
+     */
+    long comparisons() {
+        return comparisons;
+    }
+
+    /**
+     * The number of candidates added since the last reset
+     * @return number of candidates
+     */
+    public int candidates() {
+        return candidates;
+    }
+
+    private boolean before(int k0, int key0, int k1, int key1) {
+        comparisons++;
+        return key0 > key1 || (key0 == key1 && k0 < k1);
+    }
+
+    private void push(int k, int key) {
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(k, key, heapCands[parent], heapKeys[parent])) break;
+            heapCands[i] = heapCands[parent];
+            heapKeys[i] = heapKeys[parent];
+            i = parent;
+        }
+        heapCands[i] = k;
+        heapKeys[i] = key;
+    }
+
+    private void pop() {
+        int k = heapCands[--heapSize], key = heapKeys[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && before(heapCands[child + 1], heapKeys[child + 1], heapCands[child], heapKeys[child])) child++;
+            if (!before(heapCands[child], heapKeys[child], k, key)) break;
+            heapCands[i] = heapCands[child];
+            heapKeys[i] = heapKeys[child];
+            i = child;
+        }
+        if (heapSize > 0) {
+            heapCands[i] = k;
+            heapKeys[i] = key;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package src.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ *  The {@code CubeList} class is a sum of products over n variables, held
+ *  as one (value, mask) pair of {@code long}s per product term. A bit set
+ *  in the mask marks a variable the term does not depend on, and the other
+ *  variables must equal their bits of the value, so the term covers every
+ *  minterm m with {@code ((m ^ value) & ~mask) == 0}. Variable i is bit i
+ *  of a minterm, and is named by letter with the highest bit as {@code A}.
+ *
+ *  Functions of up to 4 variables can be turned back into groupings on the
+ *  map with the highest {@code n / 2} variables on the rows and the rest on
+ *  the columns, each in Gray code order, so that cell (r, c) is minterm
+ *  {@code gray(r) << (n - n / 2) | gray(c)}. Going the other way, the
+ *  groupings of any map whose sides are powers of 2 can be turned into
+ *  cubes, with the rows on the highest variables.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class CubeList {
+
+    private static final long MASK = 0xFFFFFFFFL;
+
+    private final int variables;
+    private final long[] values;
+    private final long[] masks;
+
+    /**
+     * Initialises a new list of cubes
+     * @param variables the number of variables of the function
+     * @param values the value of each cube, with the bits in its mask clear
+     * @param masks the mask of each cube
+     */
+    public CubeList(int variables, long[] values, long[] masks) {
+        if (variables <= 0 || variables > 63) throw new IllegalArgumentException("variables was out of range: " + variables);
+        if (values.length != masks.length) throw new IllegalArgumentException("values and masks differ in length");
+
+        long all = -1L >>> (64 - variables);
+        for (int i = 0; i < values.length; i++)
+            if ((values[i] & ~all) != 0 || (masks[i] & ~all) != 0 || (values[i] & masks[i]) != 0)
+                throw new IllegalArgumentException("cube " + i + " is not a cube over " + variables + " variables");
+
+        this.variables = variables;
+        this.values = values.clone();
+        this.masks = masks.clone();
+    }
+
+    /**
+     * Gets the number of variables of the function
+     * @return number of variables
+     */
+    public int getVariables() {
+        return variables;
+    }
+
+    /**
+     * The number of cubes in the list
+     * @return number of cubes
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Gets the value of a cube, giving the variables it depends on
+     * @param index the position in the list
+     * @return the value, with the bits in its mask clear
+     */
+    public long getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Gets the mask of a cube, giving the variables it does not depend on
+     * @param index the position in the list
+     * @return the mask
+     */
+    public long getMask(int index) {
+        return masks[index];
+    }
+
+    /**
+     * Determines if a cube covers a minterm
+     * @param index the position in the list
+     * @param minterm the minterm
+     * @return True if the cube covers the minterm
+     */
+    public boolean covers(int index, long minterm) {
+        return ((minterm ^ values[index]) & ~masks[index]) == 0;
+    }
+
+    /**
+     * Turns each cube into a grouping on the Gray code map of the function.
+     * @return A list of Grouping objects, in the order of the cubes
+     * @throws IllegalStateException if the function has more than 4 variables
+     */
+    public List<Grouping> toGroupings() {
+        if (variables > 4) throw new IllegalStateException("Only functions of up to 4 variables have a map: " + variables);
+
+        int rowVars = variables / 2, colVars = variables - rowVars;
+        int height = 1 << rowVars, width = 1 << colVars;
+        ArrayList<Grouping> groups = new ArrayList<>(values.length);
+
+        for (int i = 0; i < values.length; i++) {
+            int value = (int) values[i], mask = (int) masks[i];
+            int rowMask = mask >>> colVars, colMask = mask & (width - 1);
+
+            int row = start(value >>> colVars, rowMask, height);
+            int col = start(value & (width - 1), colMask, width);
+            groups.add(Grouping.ofSpan(row, col, 1 << Integer.bitCount(rowMask), 1 << Integer.bitCount(colMask), width, height));
+        }
+
+        return groups;
+    }
+
+    /**
+     * Turns the groupings of a map into cubes, labelling the rows and columns in Gray code order,
+     * so that cell (r, c) is minterm {@code gray(r) << log2(width) | gray(c)}. On maps more than
+     * 4 cells across, a run of rows or columns can cross between the halves of the Gray code
+     * without forming a cube, and such a grouping becomes one cube for each part of it that does.
+     * @param groupings the groupings, such as a solution of {@code GroupingAlgorithm}
+     * @param width the width of the map, a power of 2
+     * @param height the height of the map, a power of 2
+     * @return the cubes, in the order of the groupings, leaving out repeats
+     */
+    public static CubeList fromGroupings(Iterable<Grouping> groupings, int width, int height) {
+        if (groupings == null) throw new IllegalArgumentException("Groupings input was null");
+        if (Integer.bitCount(width) != 1 || Integer.bitCount(height) != 1 || width * height < 2)
+            throw new IllegalArgumentException("Map is not of appropriate dimensions: " + width + " x " + height);
+
+        int colVars = Integer.numberOfTrailingZeros(width), variables = colVars + Integer.numberOfTrailingZeros(height);
+        long[] rowCubes = new long[height], colCubes = new long[width];
+        LinkedHashSet<List<Long>> cubes = new LinkedHashSet<>();
+
+        for (Grouping g : groupings) {
+            if (g.getMapWidth() != width || g.getMapHeight() != height) throw new IllegalArgumentException("Grouping is of a map of different dimensions");
+
+            int rows = runCubes(g.getStartRow(), g.height(), height, rowCubes, 0);
+            int cols = runCubes(g.getStartCol(), g.width(), width, colCubes, 0);
+
+            for (int r = 0; r < rows; r++)
+                for (int c = 0; c < cols; c++)
+                    cubes.add(Arrays.asList(rowCubes[r] >>> 32 << colVars | colCubes[c] >>> 32, (rowCubes[r] & MASK) << colVars | colCubes[c] & MASK));
+        }
+
+        long[] values = new long[cubes.size()], masks = new long[cubes.size()];
+        int i = 0;
+        for (List<Long> cube : cubes) {
+            values[i] = cube.get(0);
+            masks[i++] = cube.get(1);
+        }
+
+        return new CubeList(variables, values, masks);
+    }
+
+    /**
+     * Writes the cubes making up the Gray codes of the positions {@code start} to
+     * {@code start + length - 1} round a side of {@code size} positions, each as
+     * {@code value << 32 | mask}, into {@code out} from index {@code count}. A run
+     * makes at most {@code length} cubes.
+     * @return the index after the last cube written
+     */
+    static int runCubes(int start, int length, int size, long[] out, int count) {
+        int value = gray(start), differ = 0;
+        for (int i = 1; i < length; i++) differ |= gray((start + i) % size) ^ value;
+
+        // the run is a cube exactly when its codes vary in just enough bits to number them
+        if (1 << Integer.bitCount(differ) == length) {
+            out[count] = (long) (value & ~differ) << 32 | differ;
+            return count + 1;
+        }
+
+        count = runCubes(start, length / 2, size, out, count);
+        return runCubes((start + length / 2) % size, length / 2, size, out, count);
+    }
+
+    /**
+     * Finds the first position, in Gray code order, of the run of positions matching part of a cube.
+     * For at most 2 variables the matching positions always form one run round the edge.
+     */
+    private static int start(int value, int mask, int size) {
+        if (1 << Integer.bitCount(mask) == size) return 0;
+
+        for (int i = 0; i < size; i++) {
+            int prev = (i + size - 1) % size;
+            if (matches(gray(i), value, mask) && !matches(gray(prev), value, mask)) return i;
+        }
+
+        throw new IllegalStateException("Cube does not form a grouping");
+    }
+
+    private static boolean matches(int code, int value, int mask) {
+        return ((code ^ value) & ~mask) == 0;
+    }
+
+    private static int gray(int i) {
+        return i ^ (i >>> 1);
+    }
+
+    public boolean equals(Object o) {
+        if (o instanceof CubeList) {
+            CubeList obj = (CubeList)o;
+            return variables == obj.variables && Arrays.equals(values, obj.values) && Arrays.equals(masks, obj.masks);
+        }
+        else return false;
+    }
+
+    public int hashCode() {
+        return 31 * (31 * variables + Arrays.hashCode(values)) + Arrays.hashCode(masks);
+    }
+
+    /**
+     * Writes the cubes as a sum of products, such as {@code AB' + C}
+     * @return the expression
+     */
+    public String toString() {
+        if (values.length == 0) return "0";
+
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) s.append(" + ");
+            if (masks[i] == -1L >>> (64 - variables)) s.append('1');
+
+            for (int v = variables - 1; v >= 0; v--) {
+                if ((masks[i] >>> v & 1) != 0) continue;
+                s.append(name(variables - 1 - v));
+                if ((values[i] >>> v & 1) == 0) s.append('\'');
+            }
+        }
+
+        return s.toString();
+    }
+
+    private static String name(int position) {
+        return position < 26 ? String.valueOf((char) ('A' + position)) : "x" + position;
+    }
+}
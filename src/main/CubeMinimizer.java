@@ -0,0 +1,278 @@
+package src.main;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ *  The {@code CubeMinimizer} class minimises functions of any number of
+ *  variables up to {@code MAX_VARIABLES}, given as a list of minterms or a
+ *  truth table, where the two dimensional map no longer describes which
+ *  minterms are adjacent.
+ *
+ *  The prime implicants are found by Quine-McCluskey merging. Each cube is
+ *  packed into one {@code long} holding its mask, the number of 1s in its
+ *  value and its value, so sorting a level puts cubes with the same mask
+ *  together, bucketed by that count. Two cubes can only merge if they share
+ *  a mask and their values differ in one bit, so each cube is only looked
+ *  up in the next bucket, once for each 0 in its value, by testing a bit
+ *  set of the values present with its mask. A merged cube is
+ *  only kept from the pair split on its highest eliminated variable, so
+ *  no cube is made twice. Cubes that merge with nothing are prime. The primes are then selected by the same
+ *  {@code CoverSelector} as groupings, largest cubes first.
+ *
+ *  Don't-cares are merged along with the 1s, so primes may include them,
+ *  but only the 1s need covering, and primes covering no 1 are left out.
+ *
+ *  Like {@code GroupingSolver}, the buffers are kept between calls, and a
+ *  minimizer is not thread safe.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class CubeMinimizer {
+
+    /** The most variables a function can have */
+    public static final int MAX_VARIABLES = 24;
+
+    // a packed cube is mask << 32 | bitCount(value) << 27 | value
+    private static final int COUNT_SHIFT = 27;
+
+    private static final int[] NONE = new int[0];
+
+    private final CoverSelector selector = new CoverSelector();
+
+    private int[] terms = new int[64];
+    private long[] onSet = new long[1];
+    private long[] level = new long[64];
+    private long[] next = new long[64];
+    private long[] present = new long[1];
+    private long[] joined = new long[1];
+    private int[] elementOf = new int[1];
+    private long[] primes = new long[64];
+    private int primeCount;
+
+    /**
+     * Finds a small sum of products covering exactly the given minterms.
+     * @param variables the number of variables of the function
+     * @param minterms the minterms where the function is 1, in any order and possibly repeated
+     * @return the selected prime implicants, largest first
+     */
+    public CubeList minimize(int variables, int[] minterms) {
+        return minimize(variables, minterms, NONE);
+    }
+
+    /**
+     * Finds a small sum of products covering every given minterm, which may also cover don't-cares.
+     * @param variables the number of variables of the function
+     * @param minterms the minterms where the function is 1, in any order and possibly repeated
+     * @param dontCares the minterms where the function may be either 0 or 1
+     * @return the selected prime implicants, largest first
+     */
+    public CubeList minimize(int variables, int[] minterms, int[] dontCares) {
+        if (minterms == null) throw new IllegalArgumentException("Minterm input was null");
+        if (dontCares == null) throw new IllegalArgumentException("Don't-care input was null");
+        checkVariables(variables);
+
+        int count = minterms.length + dontCares.length;
+        if (terms.length < count) terms = new int[count];
+        System.arraycopy(minterms, 0, terms, 0, minterms.length);
+        System.arraycopy(dontCares, 0, terms, minterms.length, dontCares.length);
+
+        return minimize(variables, minterms.length, count);
+    }
+
+    /**
+     * Finds a small sum of products for a truth table.
+     * @param variables the number of variables of the function
+     * @param truthTable the function, with bit m set for each minterm m where it is 1
+     * @return the selected prime implicants, largest first
+     */
+    public CubeList minimize(int variables, BitSet truthTable) {
+        return minimize(variables, truthTable, new BitSet());
+    }
+
+    /**
+     * Finds a small sum of products for a truth table, which may also cover don't-cares.
+     * @param variables the number of variables of the function
+     * @param truthTable the function, with bit m set for each minterm m where it is 1
+     * @param dontCares the minterms where the function may be either 0 or 1
+     * @return the selected prime implicants, largest first
+     */
+    public CubeList minimize(int variables, BitSet truthTable, BitSet dontCares) {
+        if (truthTable == null) throw new IllegalArgumentException("Truth table input was null");
+        if (dontCares == null) throw new IllegalArgumentException("Don't-care input was null");
+        checkVariables(variables);
+
+        int count = truthTable.cardinality() + dontCares.cardinality();
+        if (terms.length < count) terms = new int[count];
+
+        int n = 0;
+        for (int m = truthTable.nextSetBit(0); m >= 0; m = truthTable.nextSetBit(m + 1)) terms[n++] = m;
+        int ones = n;
+        for (int m = dontCares.nextSetBit(0); m >= 0; m = dontCares.nextSetBit(m + 1)) terms[n++] = m;
+
+        return minimize(variables, ones, n);
+    }
+
+    private static void checkVariables(int variables) {
+        if (variables <= 0 || variables > MAX_VARIABLES) throw new IllegalArgumentException("variables was out of range: " + variables);
+    }
+
+    /**
+     * Minimises the function whose 1s are the first {@code ones} of {@code terms}, and whose don't-cares are the rest
+     */
+    private CubeList minimize(int variables, int ones, int count) {
+        int limit = 1 << variables;
+
+        if (onSet.length < (limit >>> 6) + 1) onSet = new long[(limit >>> 6) + 1];
+        else Arrays.fill(onSet, 0, (limit >>> 6) + 1, 0);
+
+        for (int i = 0; i < count; i++) {
+            if (terms[i] < 0 || terms[i] >= limit) throw new IllegalArgumentException("minterm was out of range: " + terms[i]);
+            if (i < ones) onSet[terms[i] >>> 6] |= 1L << terms[i];
+        }
+
+        Arrays.sort(terms, 0, count);
+        int n = 0;
+        for (int i = 0; i < count; i++)
+            if (n == 0 || terms[n - 1] != terms[i]) terms[n++] = terms[i];
+
+        // Merge the 1s and don't-cares together, so primes may include don't-cares
+        findPrimes(variables, n);
+
+        if (elementOf.length < limit) elementOf = new int[limit];
+        for (int e = 0; e < n; e++) elementOf[terms[e]] = e;
+
+        // Select primes, largest first, until every 1 is covered, leaving out primes made only of don't-cares
+        sortBySize();
+        selector.reset(n);
+        for (int e = 0; e < n; e++)
+            if (isOne(terms[e])) selector.require(e);
+
+        for (int k = 0; k < primeCount; k++) {
+            int value = value(primes[k]), mask = mask(primes[k]);
+            boolean started = false;
+
+            // every minterm of the cube, by walking the subsets of its mask
+            for (int sub = mask; ; sub = (sub - 1) & mask) {
+                if (isOne(value | sub)) {
+                    if (!started) selector.addCandidate(Integer.bitCount(mask));
+                    started = true;
+                    selector.addElement(elementOf[value | sub]);
+                }
+                if (sub == 0) break;
+            }
+
+            if (started) primes[selector.candidates() - 1] = primes[k];
+        }
+        selector.prepare();
+
+        long[] values = new long[primeCount], masks = new long[primeCount];
+        int selected = 0;
+        for (int k = selector.next(); k >= 0; k = selector.next()) {
+            values[selected] = value(primes[k]);
+            masks[selected++] = mask(primes[k]);
+        }
+
+        return new CubeList(variables, Arrays.copyOf(values, selected), Arrays.copyOf(masks, selected));
+    }
+
+    private boolean isOne(int minterm) {
+        return (onSet[minterm >>> 6] & 1L << minterm) != 0;
+    }
+
+    /**
+     * Merges cubes level by level, leaving every prime implicant in {@code primes}
+     */
+    private void findPrimes(int variables, int n) {
+        int all = (1 << variables) - 1;
+        primeCount = 0;
+
+        if (present.length < (all >>> 6) + 1) {
+            present = new long[(all >>> 6) + 1];
+            joined = new long[(all >>> 6) + 1];
+        }
+        if (level.length < n) level = new long[n];
+        for (int i = 0; i < n; i++) level[i] = pack(terms[i], 0);
+        int size = n;
+
+        while (size > 0) {
+            Arrays.sort(level, 0, size);
+
+            int nextSize = 0;
+            for (int g = 0, end; g < size; g = end) {
+                // [g, end) holds the cubes with one mask, marked by value in present, and in joined once merged
+                int mask = mask(level[g]);
+                end = g;
+                while (end < size && mask(level[end]) == mask) {
+                    int value = value(level[end++]);
+                    present[value >>> 6] |= 1L << value;
+                }
+
+                for (int i = g, j; i < end; i = j) {
+                    // [i, j) is one bucket, which can only merge with the next if it has one more 1
+                    long bucket = level[i] >>> COUNT_SHIFT;
+                    j = i;
+                    while (j < end && level[j] >>> COUNT_SHIFT == bucket) j++;
+                    if (j == end || level[j] >>> COUNT_SHIFT != bucket + 1) continue;
+
+                    for (int x = i; x < j; x++) {
+                        int value = value(level[x]);
+
+                        for (int free = all & ~mask & ~value; free != 0; free &= free - 1) {
+                            int bit = free & -free, other = value | bit;
+                            if ((present[other >>> 6] & 1L << other) == 0) continue;
+
+                            joined[value >>> 6] |= 1L << value;
+                            joined[other >>> 6] |= 1L << other;
+
+                            // make each merged cube once, from the pair split on its highest eliminated variable
+                            if (Integer.highestOneBit(mask) < bit) {
+                                if (nextSize == next.length) next = Arrays.copyOf(next, 2 * nextSize);
+                                next[nextSize++] = pack(value, mask | bit);
+                            }
+                        }
+                    }
+                }
+
+                for (int x = g; x < end; x++) {
+                    int value = value(level[x]);
+                    if ((joined[value >>> 6] & 1L << value) == 0) {
+                        if (primeCount == primes.length) primes = Arrays.copyOf(primes, 2 * primeCount);
+                        primes[primeCount++] = level[x];
+                    }
+                }
+                for (int x = g; x < end; x++) present[value(level[x]) >>> 6] = joined[value(level[x]) >>> 6] = 0;
+            }
+
+            size = nextSize;
+            long[] swap = level;
+            level = next;
+            next = swap;
+        }
+    }
+
+    /**
+     * Sorts the primes by number of variables eliminated, largest first, keeping their order within a size
+     */
+    private void sortBySize() {
+        for (int k = 0; k < primeCount; k++)
+            primes[k] |= (long) (MAX_VARIABLES - Integer.bitCount(mask(primes[k]))) << 58;
+
+        Arrays.sort(primes, 0, primeCount);
+
+        for (int k = 0; k < primeCount; k++) primes[k] &= -1L >>> 6;
+    }
+
+    private static long pack(int value, int mask) {
+        return (long) mask << 32 | (long) Integer.bitCount(value) << COUNT_SHIFT | value;
+    }
+
+    private static int value(long cube) {
+        return (int) cube & ((1 << COUNT_SHIFT) - 1);
+    }
+
+    private static int mask(long cube) {
+        return (int) (cube >>> 32) & ((1 << MAX_VARIABLES) - 1);
+    }
+}
@@ -0,0 +1,308 @@
+package src.main;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ *  The {@code DifferentialHarness} class checks the solver against an exact
+ *  oracle, counting how often each solver mode returns an invalid cover or
+ *  more groupings than necessary, and how long it takes, into a
+ *  {@code DifferentialReport}.
+ *
+ *  Every map of every shape up to a size can be run, or maps of one shape
+ *  can be sampled with each cell 1 at a given density. Each cover is
+ *  checked cell by cell: every grouping must be 2^m by 2^n and hold only 1s,
+ *  and every 1 must be covered.
+ *
+ *  The oracle shares no code with the solver. It lists every valid grouping
+ *  straight from the cells, keeps those not inside another, and finds the
+ *  minimum number needed to cover the 1s by depth first search, bounded
+ *  below by a set of 1s no two of which share a grouping. Cells are held
+ *  as bits of a {@code long}, so maps are limited to 64 cells. The search
+ *  stops at the budget, and maps it did not finish are counted as
+ *  unresolved rather than compared.
+ *
+ *  The greedy mode runs the solver without {@code FourVariableTable}, so
+ *  that small maps measure the heuristic rather than a lookup.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class DifferentialHarness {
+
+    /**
+     *  The solver modes that can be compared
+     */
+    public enum Mode {
+        /** {@code GroupingSolver.solve}, as used by {@code findOptimalGroupings} for maps too large for {@code FourVariableTable} */
+        GREEDY,
+        /** {@code GroupingSolver.solveMinimum}, as used by {@code findMinimumGroupings} */
+        MINIMUM
+    }
+
+    /** The largest number of cells in a map the oracle can solve */
+    public static final int MAX_CELLS = 64;
+
+    private final Duration budget;
+    private final Mode[] modes;
+    private final GroupingSolver solver = new GroupingSolver(false);
+    private final DifferentialReport report = new DifferentialReport();
+
+    /**
+     * Initialises a harness comparing every mode
+     * @param budget the longest time the oracle and the minimum mode may spend on one map
+     */
+    public DifferentialHarness(Duration budget) {
+        this(budget, Mode.values());
+    }
+
+    /**
+     * Initialises a harness
+     * @param budget the longest time the oracle and the minimum mode may spend on one map
+     * @param modes the solver modes to compare
+     */
+    public DifferentialHarness(Duration budget, Mode... modes) {
+        if (budget == null || budget.isNegative()) throw new IllegalArgumentException("budget was null or negative: " + budget);
+        if (modes == null || modes.length == 0) throw new IllegalArgumentException("no modes were given");
+
+        this.budget = budget;
+        this.modes = modes.clone();
+    }
+
+    /**
+     * Gets the report of every run so far
+     * @return the report
+     */
+    public DifferentialReport getReport() {
+        return report;
+    }
+
+    /**
+     * Runs every map of every shape whose width and height are powers of 2 no larger than given
+     * @param maxWidth the largest width
+     * @param maxHeight the largest height
+     */
+    public void runExhaustive(int maxWidth, int maxHeight) {
+        check(maxWidth, maxHeight);
+        int width = Integer.highestOneBit(maxWidth), height = Integer.highestOneBit(maxHeight);
+        if (width * height > 20) throw new IllegalArgumentException("Too many maps of " + width + " by " + height + " to run them all");
+
+        for (width = 1; width <= maxWidth; width <<= 1)
+            for (height = 1; height <= maxHeight; height <<= 1) {
+                DifferentialReport.Row[] rows = rows(width, height, -1);
+                for (long ones = 0; ones < 1L << (width * height); ones++) run(width, height, ones, rows);
+            }
+    }
+
+    /**
+     * Runs randomly chosen maps of one shape
+     * @param width the width of the maps
+     * @param height the height of the maps
+     * @param density the chance of each cell being 1
+     * @param samples the number of maps to run
+     * @param seed the seed of the random maps
+     */
+    public void runSampled(int width, int height, double density, int samples, long seed) {
+        check(width, height);
+        if (!(density >= 0 && density <= 1)) throw new IllegalArgumentException("density was out of range: " + density);
+
+        DifferentialReport.Row[] rows = rows(width, height, density);
+        Random random = new Random(seed);
+        for (int i = 0; i < samples; i++) {
+            long ones = 0;
+            for (int cell = 0; cell < width * height; cell++)
+                if (random.nextDouble() < density) ones |= 1L << cell;
+            run(width, height, ones, rows);
+        }
+    }
+
+    private static void check(int width, int height) {
+        if (width <= 0 || height <= 0 || width * height > MAX_CELLS)
+            throw new IllegalArgumentException("Map is not of appropriate dimensions: " + width + " by " + height);
+    }
+
+    private DifferentialReport.Row[] rows(int width, int height, double density) {
+        DifferentialReport.Row[] rows = new DifferentialReport.Row[modes.length];
+        for (int m = 0; m < modes.length; m++) rows[m] = report.add(width, height, density, modes[m]);
+        return rows;
+    }
+
+    private void run(int width, int height, long ones, DifferentialReport.Row[] rows) {
+        KarnaughMap map = new KarnaughMap(width, height);
+        for (int cell = 0; cell < width * height; cell++)
+            if ((ones >>> cell & 1) != 0) map.set(cell / width, cell % width, true);
+
+        long[] nanos = new long[modes.length];
+        int[] groups = new int[modes.length];
+        boolean[] valid = new boolean[modes.length];
+        int upper = Long.bitCount(ones);
+
+        for (int m = 0; m < modes.length; m++) {
+            long start = System.nanoTime();
+            List<Grouping> cover = modes[m] == Mode.GREEDY ? solver.solve(map) : solver.solveMinimum(map, budget).getGroupings();
+            nanos[m] = System.nanoTime() - start;
+
+            groups[m] = cover.size();
+            valid[m] = isValidCover(cover, width, height, ones);
+            if (valid[m]) upper = Math.min(upper, groups[m]);
+        }
+
+        long start = System.nanoTime();
+        int minimum = minimum(width, height, ones, upper, start + Math.min(budget.toNanos(), Long.MAX_VALUE / 2));
+        long oracleNanos = System.nanoTime() - start;
+
+        for (int m = 0; m < modes.length; m++) rows[m].record(nanos[m], valid[m], groups[m], minimum, oracleNanos);
+    }
+
+    /**
+     * Determines if groupings cover exactly the 1s of a map, each being a 2^m by 2^n region of 1s
+     * @param cover the groupings
+     * @param width the width of the map
+     * @param height the height of the map
+     * @param ones the 1s of the map, with bit {@code row * width + col} set for each
+     * @return True if the cover is valid
+     */
+    static boolean isValidCover(List<Grouping> cover, int width, int height, long ones) {
+        long covered = 0;
+
+        for (Grouping g : cover) {
+            if (g.getMapWidth() != width || g.getMapHeight() != height) return false;
+
+            int rows = Math.floorMod(g.getEndRow() - g.getStartRow(), height) + 1;
+            int cols = Math.floorMod(g.getEndCol() - g.getStartCol(), width) + 1;
+            if (Integer.bitCount(rows) != 1 || Integer.bitCount(cols) != 1) return false;
+
+            long mask = mask(g.getStartRow(), g.getStartCol(), rows, cols, width, height);
+            if ((mask & ~ones) != 0) return false;
+            covered |= mask;
+        }
+
+        return covered == ones;
+    }
+
+    private static long mask(int startRow, int startCol, int rows, int cols, int width, int height) {
+        long mask = 0;
+        for (int i = 0; i < rows; i++)
+            for (int j = 0; j < cols; j++)
+                mask |= 1L << ((startRow + i) % height * width + (startCol + j) % width);
+        return mask;
+    }
+
+    /**
+     * Finds the fewest groupings that cover the 1s of a map
+     * @param width the width of the map
+     * @param height the height of the map
+     * @param ones the 1s of the map, with bit {@code row * width + col} set for each
+     * @param upper the size of a cover known to exist
+     * @param deadline the value of {@code System.nanoTime()} at which to give up
+     * @return the fewest groupings, or -1 if the search gave up
+     */
+    static int minimum(int width, int height, long ones, int upper, long deadline) {
+        if (ones == 0) return 0;
+
+        long[] primes = primes(width, height, ones);
+
+        // for each cell, every cell sharing a grouping with it
+        long[] neighbours = new long[width * height];
+        for (long prime : primes)
+            for (long x = prime; x != 0; x &= x - 1) neighbours[Long.numberOfTrailingZeros(x)] |= prime;
+
+        Search search = new Search(primes, neighbours, upper, deadline);
+        search.run(ones, 0);
+        return search.stopped ? -1 : search.best;
+    }
+
+    /**
+     * Lists every 2^m by 2^n region of 1s that is not inside another, wrapping around the edges
+     */
+    private static long[] primes(int width, int height, long ones) {
+        ArrayList<Long> valid = new ArrayList<>();
+        for (int rows = 1; rows <= height; rows <<= 1)
+            for (int cols = 1; cols <= width; cols <<= 1)
+                for (int r = 0; r < (rows == height ? 1 : height); r++)
+                    for (int c = 0; c < (cols == width ? 1 : width); c++) {
+                        long mask = mask(r, c, rows, cols, width, height);
+                        if ((mask & ~ones) == 0) valid.add(mask);
+                    }
+
+        long[] primes = new long[valid.size()];
+        int count = 0;
+        for (int i = 0; i < valid.size(); i++) {
+            long a = valid.get(i);
+            boolean inside = false;
+            for (int j = 0; j < valid.size() && !inside; j++) {
+                long b = valid.get(j);
+                inside = a != b && (a & ~b) == 0;
+            }
+            if (!inside) primes[count++] = a;
+        }
+
+        return Arrays.copyOf(primes, count);
+    }
+
+    private static final class Search {
+
+        private final long[] primes;
+        private final long[] neighbours;
+        private final long deadline;
+        private int best;
+        private boolean stopped;
+        private int nodes;
+
+        private Search(long[] primes, long[] neighbours, int upper, long deadline) {
+            this.primes = primes;
+            this.neighbours = neighbours;
+            this.best = upper;
+            this.deadline = deadline;
+        }
+
+        private void run(long uncovered, int depth) {
+            if (uncovered == 0) {
+                best = depth;
+                return;
+            }
+            if (stopped || (++nodes & 1023) == 0 && System.nanoTime() - deadline > 0) {
+                stopped = true;
+                return;
+            }
+
+            // 1s no two of which share a grouping each need a grouping of their own
+            int bound = 0;
+            for (long x = uncovered; x != 0; x &= ~neighbours[Long.numberOfTrailingZeros(x)]) bound++;
+            if (depth + bound >= best) return;
+
+            // branch on the uncovered 1 in the fewest groupings
+            int cell = -1, fewest = Integer.MAX_VALUE;
+            for (long x = uncovered; x != 0; x &= x - 1) {
+                int c = Long.numberOfTrailingZeros(x), n = 0;
+                for (long prime : primes) if ((prime >>> c & 1) != 0) n++;
+                if (n < fewest) {
+                    fewest = n;
+                    cell = c;
+                }
+            }
+
+            for (long prime : primes)
+                if ((prime >>> cell & 1) != 0) run(uncovered & ~prime, depth + 1);
+        }
+    }
+
+    /**
+     * Runs every map up to 4 by 4 and samples of larger maps, and prints the report.
+     * @param args the number of maps to sample for each shape and density, 200 if not given
+     */
+    public static void main(String[] args) {
+        int samples = args.length == 0 ? 200 : Integer.parseInt(args[0]);
+        DifferentialHarness harness = new DifferentialHarness(Duration.ofSeconds(1));
+
+        harness.runExhaustive(4, 4);
+        for (int[] shape : new int[][]{{8, 4}, {8, 8}})
+            for (double density : new double[]{0.25, 0.5, 0.75, 0.9})
+                harness.runSampled(shape[0], shape[1], density, samples, 25);
+
+        System.out.print(harness.getReport());
+    }
+}
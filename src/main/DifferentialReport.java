@@ -0,0 +1,199 @@
+package src.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *  The {@code DifferentialReport} class holds the results of a
+ *  {@code DifferentialHarness} run, one row for each map shape, density and
+ *  solver mode, and prints them as a table.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class DifferentialReport {
+
+    private final List<Row> rows = new ArrayList<>();
+
+    /**
+     * Gets the rows of the report, in the order they were run
+     * @return the rows
+     */
+    public List<Row> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Gets the total number of covers that were not valid, over every row
+     * @return the number of covers
+     */
+    public long getInvalid() {
+        long invalid = 0;
+        for (Row row : rows) invalid += row.getInvalid();
+        return invalid;
+    }
+
+    Row add(int width, int height, double density, DifferentialHarness.Mode mode) {
+        Row row = new Row(width, height, density, mode);
+        rows.add(row);
+        return row;
+    }
+
+    /**
+     * Renders the report as a table, with times in microseconds
+     * @return the table
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder(String.format("%-7s %-7s %-8s %8s %7s %10s %7s %4s %10s %9s %9s %9s%n",
+                "shape", "density", "mode", "maps", "invalid", "suboptimal", "excess", "max", "unresolved",
+                "p50 us", "p99 us", "oracle us"));
+
+        for (Row row : rows)
+            s.append(String.format("%-7s %-7s %-8s %8d %7d %10d %7d %4d %10d %9.1f %9.1f %9.1f%n",
+                    row.width + "x" + row.height, row.density < 0 ? "all" : String.format("%.2f", row.density),
+                    row.mode.name().toLowerCase(), row.maps, row.invalid, row.suboptimal, row.excess, row.maxExcess,
+                    row.unresolved, row.time.getPercentile(0.5) / 1e3, row.time.getPercentile(0.99) / 1e3,
+                    row.oracleTime.getMean() / 1e3));
+
+        return s.toString();
+    }
+
+    /**
+     *  The {@code Row} class counts how one solver mode did against the
+     *  oracle on the maps of one shape and density.
+     */
+    public static class Row {
+
+        private final int width;
+        private final int height;
+        private final double density;
+        private final DifferentialHarness.Mode mode;
+
+        private long maps;
+        private long invalid;
+        private long suboptimal;
+        private long excess;
+        private int maxExcess;
+        private long unresolved;
+        private final LatencyHistogram time = new LatencyHistogram();
+        private final LatencyHistogram oracleTime = new LatencyHistogram();
+
+        private Row(int width, int height, double density, DifferentialHarness.Mode mode) {
+            this.width = width;
+            this.height = height;
+            this.density = density;
+            this.mode = mode;
+        }
+
+        void record(long nanos, boolean valid, int groups, int minimum, long oracleNanos) {
+            maps++;
+            time.record(nanos);
+            oracleTime.record(oracleNanos);
+
+            if (!valid) invalid++;
+            else if (minimum < 0) unresolved++;
+            else if (groups > minimum) {
+                suboptimal++;
+                excess += groups - minimum;
+                maxExcess = Math.max(maxExcess, groups - minimum);
+            }
+        }
+
+        /**
+         * Gets the width of the maps
+         * @return the width
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * Gets the height of the maps
+         * @return the height
+         */
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Gets the chance of each cell being 1
+         * @return the density, or -1 if every map of the shape was run
+         */
+        public double getDensity() {
+            return density;
+        }
+
+        /**
+         * Gets the solver mode
+         * @return the mode
+         */
+        public DifferentialHarness.Mode getMode() {
+            return mode;
+        }
+
+        /**
+         * Gets the number of maps solved
+         * @return the number of maps
+         */
+        public long getMaps() {
+            return maps;
+        }
+
+        /**
+         * Gets the number of covers that missed a 1, covered a 0 or held a grouping of the wrong size
+         * @return the number of covers
+         */
+        public long getInvalid() {
+            return invalid;
+        }
+
+        /**
+         * Gets the number of valid covers with more groupings than the minimum
+         * @return the number of covers
+         */
+        public long getSuboptimal() {
+            return suboptimal;
+        }
+
+        /**
+         * Gets the total number of groupings more than the minimum, over every map
+         * @return the number of groupings
+         */
+        public long getExcess() {
+            return excess;
+        }
+
+        /**
+         * Gets the most groupings more than the minimum in one cover
+         * @return the number of groupings
+         */
+        public int getMaxExcess() {
+            return maxExcess;
+        }
+
+        /**
+         * Gets the number of maps whose minimum the oracle did not find within its budget
+         * @return the number of maps
+         */
+        public long getUnresolved() {
+            return unresolved;
+        }
+
+        /**
+         * Gets the histogram of the time taken by the solver on each map
+         * @return the histogram
+         */
+        public LatencyHistogram getTime() {
+            return time;
+        }
+
+        /**
+         * Gets the histogram of the time taken by the oracle on each map
+         * @return the histogram
+         */
+        public LatencyHistogram getOracleTime() {
+            return oracleTime;
+        }
+    }
+}
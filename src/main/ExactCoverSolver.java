@@ -0,0 +1,274 @@
+package src.main;
+
+/**
+ *  The {@code ExactCoverSolver} class finds a minimum set of candidates
+ *  covering every element, by branch and bound over bitsets.
+ *
+ *  Each node of the search is first reduced: candidates that are the only
+ *  cover of an element are taken, candidates whose uncovered elements are a
+ *  subset of another candidate's are dropped (column dominance), and elements
+ *  that are covered whenever some other element is covered are dropped
+ *  (row dominance). A lower bound is then taken from a set of elements no
+ *  two of which share a candidate, and the search branches on the element
+ *  with the fewest candidates left.
+ *
+ *  The search stops at the deadline or when the thread is interrupted,
+ *  keeping the best cover found so far.
+ *
+ *  @author Morgan Jones
+ *
+ */
+class ExactCoverSolver {
+
+    private final int elements;
+    private final int candidates;
+    private final int elemWords;
+    private final int candWords;
+
+    // candidate -> elements, and element -> candidates
+    private final long[][] candElems;
+    private final long[][] elemCands;
+
+    private final long deadline;
+    private boolean stopped;
+
+    private int[] best;
+    private int bestSize;
+    private final int[] chosen;
+
+    /**
+     * Initialises a solver
+     * @param candElems the elements covered by each candidate, as bitsets
+     * @param elements the number of elements, all of which must be covered
+     * @param deadline the value of {@code System.nanoTime()} at which to stop searching
+     */
+    public ExactCoverSolver(long[][] candElems, int elements, long deadline) {
+        this.elements = elements;
+        this.candidates = candElems.length;
+        this.elemWords = (elements + 63) >>> 6;
+        this.candWords = (candidates + 63) >>> 6;
+        this.candElems = candElems;
+        this.deadline = deadline;
+
+        elemCands = new long[elements][candWords];
+        for (int k = 0; k < candidates; k++)
+            for (int w = 0; w < elemWords; w++)
+                for (long x = candElems[k][w]; x != 0; x &= x - 1)
+                    elemCands[(w << 6) + Long.numberOfTrailingZeros(x)][k >>> 6] |= 1L << k;
+
+        chosen = new int[elements + 1];
+        bestSize = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Searches for a minimum cover.
+     * @param initial a known cover to start from, or null
+     * @return the indices of the candidates in the best cover found, or null if none was found
+     */
+    public int[] solve(int[] initial) {
+        if (initial != null) {
+            best = initial.clone();
+            bestSize = initial.length;
+        }
+
+        long[] uncovered = new long[elemWords];
+        for (int e = 0; e < elements; e++) uncovered[e >>> 6] |= 1L << e;
+
+        long[] active = new long[candWords];
+        for (int k = 0; k < candidates; k++) active[k >>> 6] |= 1L << k;
+
+        search(uncovered, active, 0);
+        return best;
+    }
+
+    /**
+     * Determines if the search finished, so the cover returned by {@code solve} is a minimum
+     * @return True if the cover is proven minimal
+     */
+    public boolean isOptimal() {
+        return !stopped;
+    }
+
+    private void search(long[] uncovered, long[] active, int depth) {
+        if (System.nanoTime() - deadline > 0 || Thread.currentThread().isInterrupted()) stopped = true;
+        if (stopped || depth >= bestSize) return;
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            if (isZero(uncovered)) {
+                best = new int[depth];
+                System.arraycopy(chosen, 0, best, 0, depth);
+                bestSize = depth;
+                return;
+            }
+
+            // take candidates that are the only cover of some element
+            for (int e = nextBit(uncovered, 0); e >= 0; e = nextBit(uncovered, e + 1)) {
+                int count = countAnd(elemCands[e], active);
+                if (count == 0) return;
+                if (count == 1) {
+                    int k = firstAnd(elemCands[e], active);
+                    chosen[depth++] = k;
+                    if (depth >= bestSize) return;
+                    andNot(uncovered, candElems[k]);
+                    active[k >>> 6] &= ~(1L << k);
+                    changed = true;
+                    break;
+                }
+            }
+            if (changed) continue;
+
+            // drop candidates that cover nothing new, or only a subset of another candidate
+            for (int k = nextBit(active, 0); k >= 0; k = nextBit(active, k + 1)) {
+                if (!intersects(candElems[k], uncovered)) {
+                    active[k >>> 6] &= ~(1L << k);
+                    changed = true;
+                    continue;
+                }
+                for (int l = nextBit(active, 0); l >= 0; l = nextBit(active, l + 1)) {
+                    if (l == k) continue;
+                    if (subsetWithin(candElems[k], candElems[l], uncovered)
+                            && (l < k || !subsetWithin(candElems[l], candElems[k], uncovered))) {
+                        active[k >>> 6] &= ~(1L << k);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+
+            // drop elements that are covered by every candidate covering some other element
+            for (int e = nextBit(uncovered, 0); e >= 0; e = nextBit(uncovered, e + 1))
+                for (int f = nextBit(uncovered, 0); f >= 0; f = nextBit(uncovered, f + 1)) {
+                    if (f == e) continue;
+                    if (subsetWithin(elemCands[f], elemCands[e], active)
+                            && (f < e || !subsetWithin(elemCands[e], elemCands[f], active))) {
+                        uncovered[e >>> 6] &= ~(1L << e);
+                        changed = true;
+                        break;
+                    }
+                }
+        }
+
+        if (depth + lowerBound(uncovered, active) >= bestSize) return;
+
+        // branch on the element with the fewest candidates, trying the largest candidates first
+        int branch = -1, fewest = Integer.MAX_VALUE;
+        for (int e = nextBit(uncovered, 0); e >= 0; e = nextBit(uncovered, e + 1)) {
+            int count = countAnd(elemCands[e], active);
+            if (count < fewest) {
+                fewest = count;
+                branch = e;
+            }
+        }
+
+        int[] options = new int[fewest];
+        int[] gains = new int[fewest];
+        int n = 0;
+        for (int w = 0; w < candWords; w++)
+            for (long x = elemCands[branch][w] & active[w]; x != 0; x &= x - 1) {
+                int k = (w << 6) + Long.numberOfTrailingZeros(x), gain = countAnd(candElems[k], uncovered);
+                int i = n++;
+                while (i > 0 && gains[i - 1] < gain) {
+                    options[i] = options[i - 1];
+                    gains[i] = gains[i - 1];
+                    i--;
+                }
+                options[i] = k;
+                gains[i] = gain;
+            }
+
+        long[] nextActive = active.clone();
+        long[] nextUncovered = new long[elemWords];
+        for (int i = 0; i < n; i++) {
+            int k = options[i];
+            nextActive[k >>> 6] &= ~(1L << k);
+
+            for (int w = 0; w < elemWords; w++) nextUncovered[w] = uncovered[w] & ~candElems[k][w];
+            chosen[depth] = k;
+            search(nextUncovered.clone(), nextActive.clone(), depth + 1);
+
+            // every cover using k has now been searched
+            if (stopped) return;
+        }
+    }
+
+    /**
+     * Counts a set of elements no two of which share a candidate, each needing its own candidate
+     */
+    private int lowerBound(long[] uncovered, long[] active) {
+        long[] free = uncovered.clone();
+        int bound = 0;
+
+        while (!isZero(free)) {
+            int pick = -1, fewest = Integer.MAX_VALUE;
+            for (int e = nextBit(free, 0); e >= 0; e = nextBit(free, e + 1)) {
+                int count = countAnd(elemCands[e], active);
+                if (count < fewest) {
+                    fewest = count;
+                    pick = e;
+                }
+            }
+
+            bound++;
+            for (int w = 0; w < candWords; w++)
+                for (long x = elemCands[pick][w] & active[w]; x != 0; x &= x - 1)
+                    andNot(free, candElems[(w << 6) + Long.numberOfTrailingZeros(x)]);
+            free[pick >>> 6] &= ~(1L << pick);
+        }
+
+        return bound;
+    }
+
+    private static boolean isZero(long[] a) {
+        for (long x : a)
+            if (x != 0) return false;
+
+        return true;
+    }
+
+    private static int nextBit(long[] a, int from) {
+        int w = from >>> 6;
+        if (w >= a.length) return -1;
+
+        long x = a[w] & (-1L << from);
+        while (true) {
+            if (x != 0) return (w << 6) + Long.numberOfTrailingZeros(x);
+            if (++w == a.length) return -1;
+            x = a[w];
+        }
+    }
+
+    private static int countAnd(long[] a, long[] b) {
+        int count = 0;
+        for (int w = 0; w < a.length; w++) count += Long.bitCount(a[w] & b[w]);
+        return count;
+    }
+
+    private static int firstAnd(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++)
+            if ((a[w] & b[w]) != 0) return (w << 6) + Long.numberOfTrailingZeros(a[w] & b[w]);
+
+        return -1;
+    }
+
+    private static boolean intersects(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++)
+            if ((a[w] & b[w]) != 0) return true;
+
+        return false;
+    }
+
+    // whether a & within is a subset of b
+    private static boolean subsetWithin(long[] a, long[] b, long[] within) {
+        for (int w = 0; w < a.length; w++)
+            if ((a[w] & within[w] & ~b[w]) != 0) return false;
+
+        return true;
+    }
+
+    private static void andNot(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) a[w] &= ~b[w];
+    }
+}
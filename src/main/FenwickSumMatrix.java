@@ -0,0 +1,166 @@
+package src.main;
+
+/**
+ *  The {@code FenwickSumMatrix} class counts the 1s in any region of a
+ *  Karnaugh map whose cells change, for maps edited one cell at a time.
+ *
+ *  Like {@code PrefixSumMatrix}, it covers the map tiled twice in each
+ *  direction, so a wrapped region is one rectangle and one query. The sums
+ *  are held in a two dimensional Fenwick tree, so changing a cell updates
+ *  its four copies and a query reads four prefix sums, each in
+ *  O(log(height) * log(width)) steps.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class FenwickSumMatrix {
+
+    private final KarnaughMap map;
+    private final int width;
+    private final int height;
+
+    // tree[r * (2 * width + 1) + c], indexed from 1 in each direction
+    private final int[] tree;
+    private final int stride;
+
+    /**
+     * Creates a new matrix for a map containing only 0s
+     * @param width the width of the Karnaugh Map
+     * @param height the height of the Karnaugh Map
+     */
+    public FenwickSumMatrix(int width, int height) {
+        this(new KarnaughMap(width, height));
+    }
+
+    /**
+     * Creates a new matrix for a copy of a packed Karnaugh map
+     * @param map the Karnaugh map
+     */
+    public FenwickSumMatrix(KarnaughMap map) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+
+        this.map = map.copy();
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.stride = 2 * width + 1;
+        this.tree = new int[(2 * height + 1) * stride];
+
+        // fill with each cell, then push each node into its parent, building the tree in linear time
+        for (int r = 1; r <= 2 * height; r++)
+            for (int c = 1; c <= 2 * width; c++)
+                if (map.get((r - 1) % height, (c - 1) % width)) tree[r * stride + c] = 1;
+
+        for (int r = 1; r <= 2 * height; r++)
+            for (int c = 1; c <= 2 * width; c++) {
+                int parent = c + (c & -c);
+                if (parent <= 2 * width) tree[r * stride + parent] += tree[r * stride + c];
+            }
+
+        for (int r = 1; r <= 2 * height; r++) {
+            int parent = r + (r & -r);
+            if (parent <= 2 * height)
+                for (int c = 1; c <= 2 * width; c++) tree[parent * stride + c] += tree[r * stride + c];
+        }
+    }
+
+    /**
+     * Gets the value of a cell
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return True if the cell is a 1
+     */
+    public boolean get(int row, int col) {
+        return map.get(row, col);
+    }
+
+    /**
+     * Sets the value of a cell
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param value True for a 1
+     */
+    public void set(int row, int col, boolean value) {
+        if (map.get(row, col) == value) return;
+
+        map.set(row, col, value);
+        int delta = value ? 1 : -1;
+
+        add(row, col, delta);
+        add(row + height, col, delta);
+        add(row, col + width, delta);
+        add(row + height, col + width, delta);
+    }
+
+    /**
+     * Sums a region of the Karnaugh map, running from the first corner to the second and
+     * wrapping around the edges when the second corner comes before the first.
+     * @param row0 the row of the top left corner
+     * @param col0 the column of the top left corner
+     * @param row1 the row of the bottom right corner
+     * @param col1 the column of the bottom right corner
+     * @return the number of 1s in the region
+     */
+    public int sumRegion(int row0, int col0, int row1, int col1) {
+        checkCell(row0, col0);
+        checkCell(row1, col1);
+
+        return sum(row0, col0, (row1 - row0 + height) % height + 1, (col1 - col0 + width) % width + 1);
+    }
+
+    /**
+     * Sums the region of a given size starting at a cell, wrapping around the edges
+     * @param startRow the top row of the region
+     * @param startCol the left column of the region
+     * @param rows the height of the region, at most the height of the map
+     * @param cols the width of the region, at most the width of the map
+     * @return the number of 1s in the region
+     */
+    public int sum(int startRow, int startCol, int rows, int cols) {
+        checkCell(startRow, startCol);
+        if (rows <= 0 || rows > height || cols <= 0 || cols > width) throw new IllegalArgumentException("Region does not fit in the map");
+
+        int r1 = startRow + rows, c1 = startCol + cols;
+        return prefix(r1, c1) - prefix(startRow, c1) - prefix(r1, startCol) + prefix(startRow, startCol);
+    }
+
+    /**
+     * Sums the cells of a grouping
+     * @param g the grouping, which may wrap around the edges of the map
+     * @return the number of 1s in the grouping
+     */
+    public int sum(Grouping g) {
+        if (g.getMapWidth() != width || g.getMapHeight() != height) throw new IllegalArgumentException("Grouping is of a map of different dimensions");
+        return sum(g.getStartRow(), g.getStartCol(), g.height(), g.width());
+    }
+
+    /**
+     * Determines if every cell of a grouping is a 1
+     * @param g the grouping, which may wrap around the edges of the map
+     * @return True if the grouping contains only 1s
+     */
+    public boolean isAllOnes(Grouping g) {
+        return sum(g) == g.size();
+    }
+
+    private void add(int row, int col, int delta) {
+        for (int r = row + 1; r <= 2 * height; r += r & -r)
+            for (int c = col + 1; c <= 2 * width; c += c & -c)
+                tree[r * stride + c] += delta;
+    }
+
+    /**
+     * Sums rows [0, row) and columns [0, col) of the doubled map
+     */
+    private int prefix(int row, int col) {
+        int sum = 0;
+        for (int r = row; r > 0; r -= r & -r)
+            for (int c = col; c > 0; c -= c & -c)
+                sum += tree[r * stride + c];
+
+        return sum;
+    }
+
+    private void checkCell(int row, int col) {
+        if (row < 0 || row >= height || col < 0 || col >= width) throw new IllegalArgumentException("Cell is outside the map: " + row + ", " + col);
+    }
+}
@@ -0,0 +1,285 @@
+package src.main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ *  The {@code FourVariableTable} class holds a minimum cover for every
+ *  Karnaugh map of at most 4 variables, meaning every map whose width and height are
+ *  each 1, 2 or 4. There are only 2^16 maps of 4 by 4, so each one is
+ *  indexed directly by its truth table, with bit {@code row * width + col}
+ *  set for each 1.
+ *
+ *  Each grouping is packed into one byte, holding its start row, start
+ *  column, end row and end column in 2 bits each, and a map has at most 8
+ *  groupings, so a solution fits in one {@code long}. Decoding uses one
+ *  shared Grouping object per byte and shape.
+ *
+ *  Each solution is found by {@code GroupingSolver.solveMinimum}, so looking
+ *  a map up gives the fewest groupings possible, not the greedy cover. Its
+ *  groupings are stored in the order the greedy selection would give them:
+ *  the essential groupings first, then the rest from the largest to the
+ *  smallest, so a prefix of a solution is its largest groupings.
+ *
+ *  The table is read from the gzipped {@code FourVariableTable.bin} resource,
+ *  which is checked in next to this class, as building it takes far longer
+ *  than the first query should. It is only built on first use when the
+ *  resource is missing from the classpath. The resource is written by
+ *  {@code main}, and must be rewritten whenever the solver or the format
+ *  changes.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class FourVariableTable {
+
+    private static final int MAGIC = 0x4B4D4150;
+    private static final int VERSION = 3;
+    private static final String RESOURCE = "FourVariableTable.bin";
+
+    // shapes are numbered 3 * log2(width) + log2(height)
+    private static final int SHAPES = 9;
+    private static final int[] OFFSETS = new int[SHAPES + 1];
+
+    static {
+        for (int shape = 0; shape < SHAPES; shape++)
+            OFFSETS[shape + 1] = OFFSETS[shape] + (1 << ((1 << (shape / 3)) * (1 << (shape % 3))));
+    }
+
+    private final long[] codes;
+    private final byte[] counts;
+    private final Grouping[][] groupings = new Grouping[SHAPES][256];
+
+    private FourVariableTable(long[] codes, byte[] counts) {
+        this.codes = codes;
+        this.counts = counts;
+
+        for (int shape = 0; shape < SHAPES; shape++) {
+            int width = 1 << (shape / 3), height = 1 << (shape % 3);
+            for (int code = 0; code < 256; code++) {
+                int r0 = code & 3, c0 = (code >>> 2) & 3, r1 = (code >>> 4) & 3, c1 = (code >>> 6) & 3;
+                if (r0 < height && c0 < width && r1 < height && c1 < width)
+                    groupings[shape][code] = Grouping.ofSpan(r0, c0, (r1 - r0 + height) % height + 1, (c1 - c0 + width) % width + 1, width, height);
+            }
+        }
+    }
+
+    private static class Holder {
+        private static final FourVariableTable TABLE = load();
+    }
+
+    /**
+     * Gets the shared table, loading or building it on first use
+     * @return the table
+     */
+    public static FourVariableTable get() {
+        return Holder.TABLE;
+    }
+
+    /**
+     * Determines if a map is small enough to be looked up in the table
+     * @param map the Karnaugh map
+     * @return True if the width and height are each 1, 2 or 4
+     */
+    public static boolean fits(KarnaughMap map) {
+        return shape(map.getWidth(), map.getHeight()) >= 0;
+    }
+
+    /**
+     * Gets the truth table of a map that fits in the table
+     * @param map the Karnaugh map
+     * @return the cells of the map, with bit {@code row * width + col} set for each 1
+     */
+    public static int truthTable(KarnaughMap map) {
+        long[] words = map.words();
+        int width = map.getWidth(), bits = 0;
+
+        for (int row = 0; row < map.getHeight(); row++) bits |= (int) words[row] << (row * width);
+
+        return bits;
+    }
+
+    /**
+     * Gets the number of groupings in the solution for a map
+     * @param width the width of the Karnaugh map
+     * @param height the height of the Karnaugh map
+     * @param truthTable the cells of the map, as given by {@code truthTable}
+     * @return the number of groupings
+     */
+    public int count(int width, int height, int truthTable) {
+        return counts[index(width, height, truthTable)];
+    }
+
+    /**
+     * Gets the packed solution for a map, one byte per grouping from the lowest byte up.
+     * Each byte holds the start row, start column, end row and end column in 2 bits each.
+     * @param width the width of the Karnaugh map
+     * @param height the height of the Karnaugh map
+     * @param truthTable the cells of the map, as given by {@code truthTable}
+     * @return the packed groupings
+     */
+    public long code(int width, int height, int truthTable) {
+        return codes[index(width, height, truthTable)];
+    }
+
+    /**
+     * Gets the solution for a map that fits in the table
+     * @param map the Karnaugh map
+     * @return A list of Grouping objects
+     */
+    public List<Grouping> lookup(KarnaughMap map) {
+        int width = map.getWidth(), height = map.getHeight(), shape = shape(width, height);
+        if (shape < 0) throw new IllegalArgumentException("Map is not of appropriate dimensions");
+
+        int i = OFFSETS[shape] + truthTable(map), count = counts[i];
+        long code = codes[i];
+        ArrayList<Grouping> list = new ArrayList<>(count);
+
+        for (int g = 0; g < count; g++, code >>>= 8)
+            list.add(groupings[shape][(int) code & 0xFF]);
+
+        return list;
+    }
+
+    private static int index(int width, int height, int truthTable) {
+        int shape = shape(width, height);
+        if (shape < 0) throw new IllegalArgumentException("Map is not of appropriate dimensions");
+        if (truthTable < 0 || truthTable >= OFFSETS[shape + 1] - OFFSETS[shape]) throw new IllegalArgumentException("truthTable was out of range: " + truthTable);
+
+        return OFFSETS[shape] + truthTable;
+    }
+
+    private static int shape(int width, int height) {
+        if (width != 1 && width != 2 && width != 4) return -1;
+        if (height != 1 && height != 2 && height != 4) return -1;
+
+        return 3 * Integer.numberOfTrailingZeros(width) + Integer.numberOfTrailingZeros(height);
+    }
+
+    private static FourVariableTable load() {
+        try (InputStream in = FourVariableTable.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) return read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("The " + RESOURCE + " resource could not be read", e);
+        }
+
+        return build();
+    }
+
+    /**
+     * Finds a minimum cover for every map that fits in the table
+     * @return the new table
+     */
+    static FourVariableTable build() {
+        long[] codes = new long[OFFSETS[SHAPES]];
+        byte[] counts = new byte[OFFSETS[SHAPES]];
+        GroupingSolver solver = new GroupingSolver(false);
+        GroupingEnumerator enumerator = new GroupingEnumerator();
+
+        for (int shape = 0; shape < SHAPES; shape++) {
+            int width = 1 << (shape / 3), height = 1 << (shape % 3);
+
+            for (int bits = 0; bits < OFFSETS[shape + 1] - OFFSETS[shape]; bits++) {
+                KarnaughMap map = new KarnaughMap(width, height);
+                for (int row = 0; row < height; row++)
+                    map.words()[row] = (bits >>> (row * width)) & ((1L << width) - 1);
+
+                long code = 0;
+                int count = 0;
+                CoverResult solution = solver.solveMinimum(map, Duration.ofMinutes(1));
+                if (!solution.isOptimal()) throw new IllegalStateException("No minimum cover was found for\n" + map);
+
+                // the 1s inside only one maximal grouping make the grouping covering them essential
+                enumerator.enumerate(map);
+                long once = 0, twice = 0;
+                for (int k = 0; k < enumerator.count(); k++) {
+                    long mask = enumerator.grouping(k).cellMask();
+                    twice |= once & mask;
+                    once |= mask;
+                }
+                long unique = once & ~twice;
+
+                ArrayList<Grouping> groups = new ArrayList<>(solution.getGroupings());
+                groups.sort(Comparator.comparing((Grouping g) -> (g.cellMask() & unique) == 0)
+                        .thenComparing(Grouping::size, Comparator.reverseOrder()));
+
+                for (Grouping g : groups) {
+                    code |= (long) (g.getStartRow() | g.getStartCol() << 2 | g.getEndRow() << 4 | g.getEndCol() << 6) << (8 * count);
+                    count++;
+                }
+
+                codes[OFFSETS[shape] + bits] = code;
+                counts[OFFSETS[shape] + bits] = (byte) count;
+            }
+        }
+
+        return new FourVariableTable(codes, counts);
+    }
+
+    /**
+     * Reads a table written by {@code write}
+     * @param in the stream to read from
+     * @return the table
+     * @throws IOException if the stream could not be read or is not a table
+     */
+    public static FourVariableTable read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+
+        if (data.readInt() != MAGIC || data.readInt() != VERSION || data.readInt() != OFFSETS[SHAPES])
+            throw new IOException("Not a table of this version");
+
+        long[] codes = new long[OFFSETS[SHAPES]];
+        byte[] counts = new byte[OFFSETS[SHAPES]];
+
+        data.readFully(counts);
+        for (int i = 0; i < codes.length; i++) codes[i] = data.readLong();
+
+        return new FourVariableTable(codes, counts);
+    }
+
+    /**
+     * Writes the table, gzipped, in the binary form read at startup
+     * @param out the stream to write to
+     * @throws IOException if the stream could not be written
+     */
+    public void write(OutputStream out) throws IOException {
+        GZIPOutputStream zip = new GZIPOutputStream(out);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(zip));
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(codes.length);
+        data.write(counts);
+        for (long code : codes) data.writeLong(code);
+
+        data.flush();
+        zip.finish();
+    }
+
+    /**
+     * Builds the table and writes it to the file named by the first argument,
+     * to be packaged as the {@code FourVariableTable.bin} resource.
+     * @param args the output file
+     * @throws IOException if the file could not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) throw new IllegalArgumentException("Usage: FourVariableTable <output file>");
+
+        try (OutputStream out = new FileOutputStream(args[0])) {
+            build().write(out);
+        }
+    }
+}
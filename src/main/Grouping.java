@@ -5,17 +5,30 @@ import src.common.IllegalGroupingSizeException;
 import java.awt.*;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.function.IntConsumer;
 
 /**
  *  The {@code Grouping} class represents a single grouping
  *  on a Karnaugh map with given size. It is able to deal with
  *  groups that wrap around the edge of the map.
  *
+ *  A grouping can also be packed into a single {@code long}, holding its
+ *  coordinates and the map size in 10 bits each, for maps of up to
+ *  1024 by 1024.
+ *
  *  @author Morgan Jones
  *
  */
 public class Grouping implements Comparable<Grouping> {
 
+    private static final int BITS = 10;
+    private static final int MASK = (1 << BITS) - 1;
+
+    /**
+     * The largest width or height of a map whose groupings can be packed
+     */
+    public static final int MAX_PACKED_SIZE = 1 << BITS;
+
     private final int startCol;
     private final int endCol;
     private final int startRow;
@@ -33,13 +46,21 @@ public class Grouping implements Comparable<Grouping> {
      * @param mapHeight the height of the Karnaugh Map
      */
     public Grouping(int startRow, int startCol, int endRow, int endCol, int mapWidth, int mapHeight) throws IllegalGroupingSizeException {
-        if (mapWidth <= 0) throw new IllegalArgumentException("mapWidth was 0 or less: " + mapWidth);
-        if (mapHeight <= 0) throw new IllegalArgumentException("mapHeight was 0 or less: " + mapHeight);
+        this(startRow, startCol, endRow, endCol, mapWidth, mapHeight, true);
 
-        if (startCol < 0 || startCol > mapWidth) throw new IllegalArgumentException("startCol was out of range: " + startCol);
-        if (endCol < 0 || endCol > mapWidth) throw new IllegalArgumentException("endCol was out of range: " + endCol);
-        if (startRow < 0 || startRow > mapHeight) throw new IllegalArgumentException("startRow was out of range: " + startRow);
-        if (endRow < 0 || endRow > mapHeight) throw new IllegalArgumentException("endCol was out of range: " + endRow);
+        if (!this.isValidSize()) throw new IllegalGroupingSizeException();
+    }
+
+    private Grouping(int startRow, int startCol, int endRow, int endCol, int mapWidth, int mapHeight, boolean checkRange) {
+        if (checkRange) {
+            if (mapWidth <= 0) throw new IllegalArgumentException("mapWidth was 0 or less: " + mapWidth);
+            if (mapHeight <= 0) throw new IllegalArgumentException("mapHeight was 0 or less: " + mapHeight);
+
+            if (startCol < 0 || startCol > mapWidth) throw new IllegalArgumentException("startCol was out of range: " + startCol);
+            if (endCol < 0 || endCol > mapWidth) throw new IllegalArgumentException("endCol was out of range: " + endCol);
+            if (startRow < 0 || startRow > mapHeight) throw new IllegalArgumentException("startRow was out of range: " + startRow);
+            if (endRow < 0 || endRow > mapHeight) throw new IllegalArgumentException("endCol was out of range: " + endRow);
+        }
 
         this.startCol = startCol;
         this.endCol = endCol;
@@ -47,27 +68,130 @@ public class Grouping implements Comparable<Grouping> {
         this.endRow = endRow;
         this.mapWidth = mapWidth;
         this.mapHeight = mapHeight;
+    }
 
-        if (!this.isValidSize()) throw new IllegalGroupingSizeException();
+    /**
+     * Creates a grouping from its top left corner and its dimensions, without any validation.
+     * Only for use by code that already guarantees a 2^m by 2^n grouping inside the map.
+     * @param startRow the row of the top edge of the group
+     * @param startCol the column of the left edge of the group
+     * @param height the number of rows in the group
+     * @param width the number of columns in the group
+     * @param mapWidth the width of the Karnaugh Map
+     * @param mapHeight the height of the Karnaugh Map
+     * @return the grouping
+     */
+    static Grouping ofSpan(int startRow, int startCol, int height, int width, int mapWidth, int mapHeight) {
+        return new Grouping(startRow, startCol, (startRow + height - 1) % mapHeight, (startCol + width - 1) % mapWidth, mapWidth, mapHeight, false);
     }
 
     /**
-     * Determines if a grouping is of the size 2^m by 2^n.
-     * @return True/False
+     * Packs the grouping into a single long.
+     * @return the packed grouping
      */
-    private boolean isValidSize() {
-        // stores the log of the width or height to determine if it is a power of 2
-        double a;
+    public long pack() {
+        return pack(startRow, startCol, endRow, endCol, mapWidth, mapHeight);
+    }
 
-        if (startCol > endCol) a = Math.log(mapWidth - startCol + endCol + 1) / Math.log(2);
-        else a = Math.log(endCol - startCol + 1) / Math.log(2);
+    /**
+     * Packs a grouping given by its coordinates into a single long.
+     * @param startRow the row of the top edge of the group
+     * @param startCol the column of the left edge of the group
+     * @param endRow the row of the bottom edge of the group
+     * @param endCol the column of the right edge of the group
+     * @param mapWidth the width of the Karnaugh Map
+     * @param mapHeight the height of the Karnaugh Map
+     * @return the packed grouping
+     */
+    static long pack(int startRow, int startCol, int endRow, int endCol, int mapWidth, int mapHeight) {
+        if (mapWidth > MAX_PACKED_SIZE || mapHeight > MAX_PACKED_SIZE)
+            throw new IllegalArgumentException("Map is too large to pack: " + mapWidth + " by " + mapHeight);
+
+        return (long) startRow | (long) startCol << BITS | (long) endRow << (2 * BITS) | (long) endCol << (3 * BITS)
+                | (long) (mapWidth - 1) << (4 * BITS) | (long) (mapHeight - 1) << (5 * BITS);
+    }
+
+    /**
+     * Unpacks a grouping packed by {@code pack()}.
+     * @param packed the packed grouping
+     * @return the grouping
+     */
+    public static Grouping unpack(long packed) {
+        return new Grouping(startRow(packed), startCol(packed), endRow(packed), endCol(packed), mapWidth(packed), mapHeight(packed), true);
+    }
+
+    static int startRow(long packed) {
+        return (int) packed & MASK;
+    }
+
+    static int startCol(long packed) {
+        return (int) (packed >>> BITS) & MASK;
+    }
+
+    static int endRow(long packed) {
+        return (int) (packed >>> (2 * BITS)) & MASK;
+    }
+
+    static int endCol(long packed) {
+        return (int) (packed >>> (3 * BITS)) & MASK;
+    }
 
-        if (a != Math.round(a)) return false;
+    static int mapWidth(long packed) {
+        return ((int) (packed >>> (4 * BITS)) & MASK) + 1;
+    }
 
-        if (startRow > endRow) a = Math.log(mapHeight - startRow + endRow + 1) / Math.log(2);
-        else a = Math.log(endRow - startRow + 1) / Math.log(2);
+    static int mapHeight(long packed) {
+        return ((int) (packed >>> (5 * BITS)) & MASK) + 1;
+    }
 
-        return a == Math.round(a);
+    /**
+     * Calls an action with the index {@code row * mapWidth + col} of every cell in a packed grouping.
+     * @param packed the packed grouping
+     * @param action the action to call for each cell
+     */
+    static void forEachCell(long packed, IntConsumer action) {
+        int mapWidth = mapWidth(packed), mapHeight = mapHeight(packed);
+        int r0 = startRow(packed), r1 = endRow(packed), c0 = startCol(packed), c1 = endCol(packed);
+        int height = r0 <= r1 ? r1 - r0 + 1 : mapHeight - r0 + r1 + 1;
+        int width = c0 <= c1 ? c1 - c0 + 1 : mapWidth - c0 + c1 + 1;
+
+        for (int i = 0, row = r0; i < height; i++, row = row + 1 == mapHeight ? 0 : row + 1)
+            for (int j = 0, col = c0; j < width; j++, col = col + 1 == mapWidth ? 0 : col + 1)
+                action.accept(row * mapWidth + col);
+    }
+
+    /**
+     * Gets the cells of a packed grouping as a mask, with bit {@code row * mapWidth + col} set for each cell.
+     * @param packed the packed grouping
+     * @return the mask
+     */
+    static long cellMask(long packed) {
+        int mapWidth = mapWidth(packed), mapHeight = mapHeight(packed);
+        if (mapWidth * mapHeight > 64) throw new IllegalStateException("Map has more than 64 cells");
+
+        int r0 = startRow(packed), r1 = endRow(packed), c0 = startCol(packed), c1 = endCol(packed);
+        int height = r0 <= r1 ? r1 - r0 + 1 : mapHeight - r0 + r1 + 1;
+
+        // the columns of one row, rotated into place, repeated for each row
+        long full = -1L >>> (64 - mapWidth);
+        int gap = c0 - c1 - 1;
+        long cols = c0 <= c1 ? (full >>> (mapWidth - (c1 - c0 + 1))) << c0
+                : gap == 0 ? full : full & ~((full >>> (mapWidth - gap)) << (c1 + 1));
+        long mask = 0;
+
+        for (int i = 0, row = r0; i < height; i++, row = row + 1 == mapHeight ? 0 : row + 1)
+            mask |= cols << (row * mapWidth);
+
+        return mask;
+    }
+
+    /**
+     * Determines if a grouping is of the size 2^m by 2^n.
+     * @return True/False
+     */
+    private boolean isValidSize() {
+        int w = width(), h = height();
+        return (w & (w - 1)) == 0 && (h & (h - 1)) == 0;
     }
 
     /**
@@ -75,10 +199,23 @@ public class Grouping implements Comparable<Grouping> {
      * @return The number of squares that is contained within the group
      */
     public int size() {
-        if (startCol <= endCol && startRow <= endRow) return (endCol - startCol + 1) * (endRow - startRow + 1); // no overlap case
-        else if (startCol > endCol && startRow <= endRow) return (mapWidth - startCol + endCol + 1) * (endRow - startRow + 1); // col overlap case
-        else if (startCol <= endCol && startRow > endRow) return (endCol - startCol + 1) * (mapHeight - startRow + endRow + 1); // y overlap case
-        else return (mapWidth - startCol + endCol + 1) * (mapHeight - startRow + endRow + 1); // double overlap case
+        return width() * height();
+    }
+
+    /**
+     * The number of columns spanned by the group, including any that wrap around
+     * @return The width of the group
+     */
+    public int width() {
+        return startCol <= endCol ? endCol - startCol + 1 : mapWidth - startCol + endCol + 1;
+    }
+
+    /**
+     * The number of rows spanned by the group, including any that wrap around
+     * @return The height of the group
+     */
+    public int height() {
+        return startRow <= endRow ? endRow - startRow + 1 : mapHeight - startRow + endRow + 1;
     }
 
     /**
@@ -90,6 +227,15 @@ public class Grouping implements Comparable<Grouping> {
         return Integer.compare(this.size(), that.size());
     }
 
+    /**
+     * Counts the number of 1s in the grouping using the packed map.
+     * @param map the Karnaugh Map
+     * @return the number of 1s
+     */
+    public int mapSection(KarnaughMap map) {
+        return map.count(this);
+    }
+
     /**
      * Counts the number of 1s in the grouping.
      * @param map the Karnaugh Map
@@ -165,6 +311,34 @@ public class Grouping implements Comparable<Grouping> {
         else return false;
     }
 
+    /**
+     * Generates a hash code consistent with {@code equals}.
+     * @return the hash code
+     */
+    public int hashCode() {
+        return ((startRow * 31 + startCol) * 31 + endRow) * 31 + endCol;
+    }
+
+    /**
+     * Calls an action with the index {@code row * mapWidth + col} of every cell in the grouping,
+     * without creating an object per cell.
+     * @param action the action to call for each cell
+     */
+    public void forEachCell(IntConsumer action) {
+        for (int i = 0, rows = height(), row = startRow; i < rows; i++, row = row + 1 == mapHeight ? 0 : row + 1)
+            for (int j = 0, cols = width(), col = startCol; j < cols; j++, col = col + 1 == mapWidth ? 0 : col + 1)
+                action.accept(row * mapWidth + col);
+    }
+
+    /**
+     * Gets the cells of the grouping as a mask, for maps of at most 64 cells.
+     * @return the mask, with bit {@code row * mapWidth + col} set for each cell
+     */
+    public long cellMask() {
+        if (mapWidth * mapHeight > 64) throw new IllegalStateException("Map has more than 64 cells");
+        return cellMask(pack());
+    }
+
     /**
      * Returns a list of points that are contained in a grouping.
      * @return List of points
@@ -225,6 +399,22 @@ public class Grouping implements Comparable<Grouping> {
         return new Dimension(mapWidth, mapHeight);
     }
 
+    /**
+     * Gets the width of the Karnaugh map the grouping is on
+     * @return number of columns
+     */
+    public int getMapWidth() {
+        return mapWidth;
+    }
+
+    /**
+     * Gets the height of the Karnaugh map the grouping is on
+     * @return number of rows
+     */
+    public int getMapHeight() {
+        return mapHeight;
+    }
+
     /**
      * Gets the column of the left edge of the grouping
      * @return index of column
@@ -1,77 +1,67 @@
 package src.main;
 
-import src.common.IllegalGroupingSizeException;
-
-import java.util.Comparator;
-import java.util.ArrayList;
-import java.util.PriorityQueue;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Stream;
 
 public class GroupingAlgorithm {
 
+    private static final ThreadLocal<GroupingSolver> SOLVERS = ThreadLocal.withInitial(GroupingSolver::new);
+    private static final ThreadLocal<CubeMinimizer> MINIMIZERS = ThreadLocal.withInitial(CubeMinimizer::new);
+    private static final ThreadLocal<MultiOutputSolver> MULTI_SOLVERS = ThreadLocal.withInitial(MultiOutputSolver::new);
+
+    private static volatile SolverListener listener;
+    private static volatile SolutionStore store;
+
+    /**
+     * Sets the listener told about every solve run by the methods of this class, on any thread.
+     * The listener may be called from several threads at once.
+     * @param solverListener the listener, or null for none
+     */
+    public static void setListener(SolverListener solverListener) {
+        listener = solverListener;
+    }
+
+    /**
+     * Sets the store that {@code findOptimalGroupings} looks solutions up in before solving, and adds
+     * the solutions it finds to. Maps of up to 4 variables are always taken from {@code FourVariableTable}.
+     * @param solutionStore the store, or null for none
+     */
+    public static void setSolutionStore(SolutionStore solutionStore) {
+        store = solutionStore;
+    }
+
+    /**
+     * Solves a map through the store, if one is set
+     */
+    private static List<Grouping> stored(KarnaughMap map) {
+        SolutionStore s = store;
+        if (s == null || FourVariableTable.fits(map)) return solver().solve(map);
+
+        List<Grouping> groups = s.get(map);
+        if (groups == null) {
+            groups = solver().solve(map);
+            s.put(map, groups);
+        }
+
+        return groups;
+    }
+
+    private static GroupingSolver solver() {
+        GroupingSolver solver = SOLVERS.get();
+        solver.setListener(listener);
+        return solver;
+    }
+
     /**
      * Finds the simplest set of groupings for a Karnaugh map.
      * @param kmap the Karnaugh map
      * @return A list of Grouping objects
      */
     public static Iterable<Grouping> findOptimalGroupings(boolean[][] kmap) {
-
-        if (kmap == null) throw new IllegalArgumentException("Karnaugh map input was null");
-        if (isMapEmpty(kmap)) return new ArrayList<>();
-
-        // Step 1: Set up Prefix Sum Matrix
-        int[][] temp = new int[kmap.length][kmap[0].length];
-
-        for (int i = 0; i < kmap.length; i++)
-            for (int j = 0; j < kmap[0].length; j++)
-                temp[i][j] = kmap[i][j] ? 1 : 0;
-                
-        PrefixSumMatrix psm = new PrefixSumMatrix(temp);
-
-        Grouping thisGroup;
-
-        // Step 2: Add all possible groups
-        PriorityQueue<Grouping> AllGroups = new PriorityQueue<>(new ByGroupSize());
-
-        for (int row0 = 0; row0 < kmap.length; row0++)
-            for (int col0 = 0; col0 < kmap[0].length; col0++)
-                for (int row1 = 0; row1 < kmap.length; row1++)
-                    for (int col1 = 0; col1 < kmap[0].length; col1++) {
-
-                        if (col0 == col1 + 1 || row0 == row1 + 1) continue; //removes instances of unnecessary wrapping
-
-                        try {
-                            thisGroup = new Grouping(row0, col0, row1, col1, kmap[0].length, kmap.length);
-                            if (psm.sumRegion(row0, col0, row1, col1) == thisGroup.size()) AllGroups.add(thisGroup);
-                        } catch (IllegalGroupingSizeException ignored) {}
-
-                    }
-
-        // Step 3: Remove groups until K-map is empty
-        ArrayList<Grouping> FinalGroups = new ArrayList<>();
-        PriorityQueue<Grouping> GroupsOfSameSize = new PriorityQueue<>(new ByNumSquares(kmap));
-
-        Grouping reserve = AllGroups.poll();
-        int currentSize;
-        Grouping currentGroup;
-
-        while (!isMapEmpty(kmap)) {
-            currentSize = reserve.size();
-            while (reserve.size() == currentSize) {
-                GroupsOfSameSize.add(reserve);
-                if (AllGroups.isEmpty()) break;
-                reserve = AllGroups.poll();
-            }
-
-            while (!(GroupsOfSameSize.isEmpty() || isMapEmpty(kmap))) {
-                currentGroup = GroupsOfSameSize.poll();
-                if (currentGroup.mapSection(kmap) != 0) {
-                    FinalGroups.add(currentGroup);
-                    removeFromKmap(currentGroup, kmap);
-                }
-            }
-        }
-
-        return FinalGroups;
+        if (store != null && kmap != null) return stored(KarnaughMap.of(kmap));
+        return solver().solve(kmap);
     }
 
     /**
@@ -80,128 +70,149 @@ public class GroupingAlgorithm {
      * @return A list of Grouping objects
      */
     public static Iterable<Grouping> findOptimalGroupings(int[][] kmap) {
-        return findOptimalGroupings(toBooleanArray(kmap));
+        if (store != null && kmap != null) return stored(KarnaughMap.of(kmap));
+        return solver().solve(kmap);
     }
 
-    private static boolean[][] toBooleanArray(int[][] arr) {
-        boolean[][] map = new boolean[arr.length][arr[0].length];
-
-        for (int i = 0; i < map.length; i++)
-            for (int j = 0; j < map[0].length; j++)
-                map[i][j] = arr[i][j] == 1;
-
-        return map;
+    /**
+     * Finds the simplest set of groupings for a Karnaugh map with don't-cares, where 1s must be covered
+     * and cells holding {@code dontCare} may be included in groupings but need not be.
+     * @param kmap the Karnaugh map
+     * @param dontCare the value marking a don't-care cell, such as 2
+     * @return A list of Grouping objects
+     */
+    public static Iterable<Grouping> findOptimalGroupings(int[][] kmap, int dontCare) {
+        return solver().solve(kmap, dontCare);
     }
 
-    private static void removeFromKmap(Grouping currentGroup, boolean[][] kmap) {
-        int r0 = currentGroup.getStartRow();
-        int r1 = currentGroup.getEndRow();
-        int c0 = currentGroup.getStartCol();
-        int c1 = currentGroup.getEndCol();
-
-        for (int row = r0; row <= (r1 >= r0 ? r1 : r0 + kmap.length); row++)
-                for (int col = c0; col <= (c1 >= c0 ? c1 : c0 + kmap[0].length); col++)
-                    kmap[row % kmap.length][col % kmap[0].length] = false;
+    /**
+     * Finds the simplest set of groupings covering the 1s of a packed Karnaugh map, where groupings
+     * may also include the cells set in {@code dontCares}. The maps passed in are left unchanged.
+     * @param map the Karnaugh map
+     * @param dontCares the cells that may be either 0 or 1
+     * @return A list of Grouping objects
+     */
+    public static Iterable<Grouping> findOptimalGroupings(KarnaughMap map, KarnaughMap dontCares) {
+        return solver().solve(map, dontCares);
     }
 
-    private static boolean isMapEmpty(boolean[][] map) {
-        for (int i = 0; i < map.length; i++)
-            for (int j = 0; j < map[0].length; j++)
-                if (map[i][j]) return false;
-
-        return true;
+    /**
+     * Finds the simplest set of groupings for a packed Karnaugh map.
+     * The map passed in is left unchanged.
+     * @param map the Karnaugh map
+     * @return A list of Grouping objects
+     */
+    public static Iterable<Grouping> findOptimalGroupings(KarnaughMap map) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        return stored(map);
     }
 
-    private static class ByGroupSize implements Comparator<Grouping> {
-        public int compare(Grouping v, Grouping w) {
-            if (v == null) return -1;
-            if (w == null) return 1;
-            return -v.compareTo(w);
-        }
+    /**
+     * Finds the first groupings of the solution for a packed Karnaugh map, stopping once
+     * {@code maxGroups} have been selected. The map passed in is left unchanged.
+     * @param map the Karnaugh map
+     * @param maxGroups the most groupings to select
+     * @return the groupings selected, and the number of 1s they leave uncovered
+     */
+    public static PartialCover findOptimalGroupings(KarnaughMap map, int maxGroups) {
+        return solver().solve(map, maxGroups);
     }
 
-    private static class ByNumSquares implements Comparator<Grouping> {
-        private final boolean[][] kmap;
-
-        public ByNumSquares(boolean[][] k)
-            {kmap = k;}
+    /**
+     * Selects the groupings of the solution for a packed Karnaugh map lazily, as a sequential stream.
+     * The stream has a solver of its own, so it stays valid whatever else this thread solves.
+     * @param map the Karnaugh map
+     * @return a stream of the groupings, in the order they are selected
+     */
+    public static Stream<Grouping> streamOptimalGroupings(KarnaughMap map) {
+        GroupingSolver solver = new GroupingSolver();
+        solver.setListener(listener);
+        return solver.stream(map);
+    }
 
-        public int compare(Grouping v, Grouping w) {
-            if (v == null) return -1;
-            if (w == null) return 1;
+    /**
+     * Finds a small set of groupings covering the 1s of several maps of the same dimensions,
+     * sharing groupings between maps where it can. The maps passed in are left unchanged.
+     * @param maps the Karnaugh maps, at most 64
+     * @return the distinct groupings, and the maps using each
+     */
+    public static MultiOutputCover findSharedGroupings(List<KarnaughMap> maps) {
+        return MULTI_SOLVERS.get().solve(maps);
+    }
 
-            int vm = v.mapSection(kmap), wm = w.mapSection(kmap);
-            return -Integer.compare(vm, wm);
-        }
+    /**
+     * Finds a minimum set of groupings for a Karnaugh map, stopping once the budget runs out.
+     * @param kmap the Karnaugh map
+     * @param budget the longest time to spend searching
+     * @return the best cover found, and whether it is proven minimal
+     */
+    public static CoverResult findMinimumGroupings(boolean[][] kmap, Duration budget) {
+        if (kmap == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        return findMinimumGroupings(KarnaughMap.of(kmap), budget);
     }
 
-    private static class PrefixSumMatrix {
-        private int[][] psm;
+    /**
+     * Finds a minimum set of groupings for a Karnaugh map, stopping once the budget runs out.
+     * @param kmap the Karnaugh map
+     * @param budget the longest time to spend searching
+     * @return the best cover found, and whether it is proven minimal
+     */
+    public static CoverResult findMinimumGroupings(int[][] kmap, Duration budget) {
+        if (kmap == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        return findMinimumGroupings(KarnaughMap.of(kmap), budget);
+    }
 
-        /**
-         * Create a new prefix sum matrix for the Karnaugh Map
-         * @param kmap The karnaugh map
-         */
-        public PrefixSumMatrix(int[][] kmap) {
+    /**
+     * Finds a minimum set of groupings for a packed Karnaugh map, stopping once the budget runs out.
+     * The search starts from the cover found by {@code findOptimalGroupings}, so the result is never
+     * worse than it, and covers only with maximal groupings.
+     * @param map the Karnaugh map
+     * @param budget the longest time to spend searching
+     * @return the best cover found, and whether it is proven minimal
+     */
+    public static CoverResult findMinimumGroupings(KarnaughMap map, Duration budget) {
+        return solver().solveMinimum(map, budget);
+    }
 
-            if (kmap.length == 0 || kmap[0].length == 0) return;
+    /**
+     * Finds a small set of groupings for a packed Karnaugh map by local search, improving on the
+     * cover found by {@code findOptimalGroupings} until the budget runs out or the thread is interrupted.
+     * @param map the Karnaugh map
+     * @param budget the longest time to spend improving the cover
+     * @return the best cover found, and the covers the search passed through
+     */
+    public static AnytimeResult findImprovedGroupings(KarnaughMap map, Duration budget) {
+        return solver().solveAnytime(map, budget);
+    }
 
-            psm = new int[kmap.length][kmap[0].length];
+    /**
+     * Finds a small sum of products for a function of any number of variables.
+     * @param variables the number of variables of the function
+     * @param minterms the minterms where the function is 1
+     * @return the selected prime implicants, largest first
+     */
+    public static CubeList findOptimalCubes(int variables, int[] minterms) {
+        return MINIMIZERS.get().minimize(variables, minterms);
+    }
 
-            for (int i = 0; i < kmap.length; i++) {
-                for (int j = 0; j < kmap[0].length; j++) {
-                    if (i == 0 && j == 0) psm[i][j] = kmap[i][j];
-                    else if (i == 0)  psm[i][j] = psm[i][j - 1] + kmap[i][j];
-                    else if (j == 0)  psm[i][j] = psm[i - 1][j] + kmap[i][j];
-                    else psm[i][j] = psm[i - 1][j] + psm[i][j - 1] - psm[i - 1][j - 1] + kmap[i][j] ;
-                }
-            }
-        }
+    /**
+     * Finds a small sum of products for a function of any number of variables.
+     * @param variables the number of variables of the function
+     * @param truthTable the function, with bit m set for each minterm m where it is 1
+     * @return the selected prime implicants, largest first
+     */
+    public static CubeList findOptimalCubes(int variables, BitSet truthTable) {
+        return MINIMIZERS.get().minimize(variables, truthTable);
+    }
 
-        /**
-         * Sums a region of the Karnaugh map in constant time
-         *
-         * @param col0 The x coordinate of the top left corner
-         * @param row0 The y coordinate of the top left corner
-         * @param col1 The x coordinate of the bottom right corner
-         * @param row1 The x coordinate of the bottom right corner
-         * @return the sum of the region
-         */
-        public int sumRegion(int col0, int row0, int col1, int row1) {
-            if (psm.length == 0) return 0;
-
-            if (col0 <= col1 && row0 <= row1) {
-
-                int res = psm[col1][row1];
-
-                // Remove elements between (0, 0) && (x-1, yy)
-                if (col0 > 0)  res = res - psm[col0 - 1][row1];
-
-                // Remove elements between (0, 0) && (xx, y-1)
-                if (row0 > 0)  res = res - psm[col1][row0 - 1];
-
-                // Add psm(x-1)(y-1) as elements between (0, 0)
-                // && (x-1, y-1) are subtracted twice
-                if (col0 > 0 && row0 > 0)  res = res + psm[col0 - 1][row0 - 1];
-
-                return res;
-
-            } else {
-                // overlap cases
-                if (col0 > col1 && row0 <= row1 )
-                    return sumRegion(0, row0, col1, row1) +
-                            sumRegion(col0, row0, psm.length - 1, row1);
-
-                else if (col0 <= col1)
-                    return sumRegion(col0, 0, col1, row1) +
-                            sumRegion(col0, row0, col1, psm[0].length - 1);
-
-                else
-                    return sumRegion(0, 0, col1, row1) +
-                            sumRegion(0, row0, col1, psm[0].length - 1) +
-                            sumRegion(col0, 0, psm.length - 1, row1) +
-                            sumRegion(col0, row0, psm.length - 1, psm[0].length - 1);
-            }
-        }
+    /**
+     * Finds a small sum of products for a function of any number of variables with don't-cares.
+     * @param variables the number of variables of the function
+     * @param minterms the minterms where the function is 1
+     * @param dontCares the minterms where the function may be either 0 or 1
+     * @return the selected prime implicants, largest first
+     */
+    public static CubeList findOptimalCubes(int variables, int[] minterms, int[] dontCares) {
+        return MINIMIZERS.get().minimize(variables, minterms, dontCares);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,263 @@
+package src.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *  The {@code GroupingCache} class is a bounded, least recently used cache
+ *  of solutions in front of {@code GroupingAlgorithm}.
+ *
+ *  A Karnaugh map is a torus, so shifting its rows or columns round, or
+ *  reflecting it (and transposing it, when it is square), moves every
+ *  grouping to another valid grouping of the same size. Each map is turned
+ *  into the smallest of all these forms before it is looked up, so one entry
+ *  serves every map equal to it up to symmetry, and the cached groupings are
+ *  moved back to the caller's orientation on the way out. Maps more than 64
+ *  columns wide are cached as they are.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class GroupingCache {
+
+    private final int capacity;
+    private final LinkedHashMap<Key, List<Grouping>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Initialises a new cache
+     * @param capacity the most solutions to hold at once
+     */
+    public GroupingCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity was 0 or less: " + capacity);
+
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, List<Grouping>>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Key, List<Grouping>> eldest) {
+                if (size() <= GroupingCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Finds the simplest set of groupings for a Karnaugh map, using a cached solution if there is one.
+     * @param kmap the Karnaugh map
+     * @return A list of Grouping objects
+     */
+    public Iterable<Grouping> findOptimalGroupings(boolean[][] kmap) {
+        if (kmap == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        return findOptimalGroupings(KarnaughMap.of(kmap));
+    }
+
+    /**
+     * Finds the simplest set of groupings for a Karnaugh map, using a cached solution if there is one.
+     * @param kmap the Karnaugh map
+     * @return A list of Grouping objects
+     */
+    public Iterable<Grouping> findOptimalGroupings(int[][] kmap) {
+        if (kmap == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        return findOptimalGroupings(KarnaughMap.of(kmap));
+    }
+
+    /**
+     * Finds the simplest set of groupings for a packed Karnaugh map, using a cached solution if there is one.
+     * @param map the Karnaugh map
+     * @return A list of Grouping objects
+     */
+    public Iterable<Grouping> findOptimalGroupings(KarnaughMap map) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+
+        Symmetry symmetry = new Symmetry(map);
+        Key key = new Key(map.getWidth(), map.getHeight(), symmetry.canonical);
+
+        List<Grouping> canonical;
+        synchronized (this) {
+            canonical = entries.get(key);
+            if (canonical != null) hits++;
+            else misses++;
+        }
+
+        if (canonical == null) {
+            KarnaughMap canonicalMap = new KarnaughMap(map.getWidth(), map.getHeight());
+            System.arraycopy(symmetry.canonical, 0, canonicalMap.words(), 0, symmetry.canonical.length);
+
+            canonical = new ArrayList<>();
+            for (Grouping g : GroupingAlgorithm.findOptimalGroupings(canonicalMap)) canonical.add(g);
+
+            synchronized (this) {
+                entries.put(key, canonical);
+            }
+        }
+
+        ArrayList<Grouping> result = new ArrayList<>(canonical.size());
+        for (Grouping g : canonical) result.add(symmetry.restore(g));
+
+        return result;
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache
+     * @return number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to be solved
+     * @return number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of solutions removed to stay within capacity
+     * @return number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the fraction of lookups answered from the cache
+     * @return hits divided by lookups, or 0 if there have been none
+     */
+    public synchronized double getHitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    /**
+     * Gets the number of solutions currently held
+     * @return number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes every solution, leaving the counters unchanged
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * The smallest form of a map under its symmetries, and how to undo it.
+     * A cell (r, c) of the map is first transposed, then reflected, then shifted
+     * to reach its place in the canonical form.
+     */
+    private static class Symmetry {
+        private final int width;
+        private final int height;
+        private long[] canonical;
+        private boolean transpose;
+        private boolean flipRows;
+        private boolean flipCols;
+        private int rowShift;
+        private int colShift;
+
+        Symmetry(KarnaughMap map) {
+            width = map.getWidth();
+            height = map.getHeight();
+            canonical = map.words().clone();
+
+            if (map.stride() != 1) return;
+
+            search(map.words(), false);
+            if (width == height) search(transposed(map.words()), true);
+        }
+
+        private void search(long[] rows, boolean transposed) {
+            long[] shifted = new long[height];
+            long[] candidate = new long[height];
+            long mask = -1L >>> (64 - width);
+
+            for (int flipC = 0; flipC < 2; flipC++)
+                for (int dc = 0; dc < width; dc++) {
+                    for (int row = 0; row < height; row++) {
+                        long x = flipC == 1 ? Long.reverse(rows[row]) >>> (64 - width) : rows[row];
+                        shifted[row] = dc == 0 ? x : ((x << dc) | (x >>> (width - dc))) & mask;
+                    }
+
+                    for (int flipR = 0; flipR < 2; flipR++)
+                        for (int dr = 0; dr < height; dr++) {
+                            // row r of the candidate comes from row r - dr, reflected if needed
+                            for (int row = 0; row < height; row++) {
+                                int from = (row - dr + height) % height;
+                                candidate[row] = shifted[flipR == 1 ? height - 1 - from : from];
+                            }
+
+                            if (Arrays.compareUnsigned(candidate, canonical) < 0) {
+                                canonical = candidate.clone();
+                                transpose = transposed;
+                                flipRows = flipR == 1;
+                                flipCols = flipC == 1;
+                                rowShift = dr;
+                                colShift = dc;
+                            }
+                        }
+                }
+        }
+
+        private long[] transposed(long[] rows) {
+            long[] result = new long[width];
+            for (int row = 0; row < height; row++)
+                for (long x = rows[row]; x != 0; x &= x - 1)
+                    result[Long.numberOfTrailingZeros(x)] |= 1L << row;
+
+            return result;
+        }
+
+        /**
+         * Moves a grouping of the canonical form back to the original map
+         */
+        Grouping restore(Grouping g) {
+            int h = g.height(), w = g.width();
+            int row = unmap(g.getStartRow(), h, height, rowShift, flipRows);
+            int col = unmap(g.getStartCol(), w, width, colShift, flipCols);
+
+            if (transpose) return Grouping.ofSpan(col, row, w, h, width, height);
+            return Grouping.ofSpan(row, col, h, w, width, height);
+        }
+
+        private static int unmap(int start, int span, int size, int shift, boolean flip) {
+            if (span == size) return 0;
+
+            int unshifted = (start - shift + size) % size;
+            return flip ? ((size - unshifted - span) % size + size) % size : unshifted;
+        }
+    }
+
+    private static class Key {
+        private final int width;
+        private final int height;
+        private final long[] words;
+
+        Key(int width, int height, long[] words) {
+            this.width = width;
+            this.height = height;
+            this.words = words;
+        }
+
+        public boolean equals(Object o) {
+            if (o instanceof Key) {
+                Key obj = (Key)o;
+                return width == obj.width && height == obj.height && Arrays.equals(words, obj.words);
+            }
+            else return false;
+        }
+
+        public int hashCode() {
+            return 31 * (31 * width + height) + Arrays.hashCode(words);
+        }
+    }
+}
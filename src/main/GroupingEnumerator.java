@@ -0,0 +1,361 @@
+package src.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ *  The {@code GroupingEnumerator} class generates every valid grouping of
+ *  a packed Karnaugh map, meaning every 2^m by 2^n region (wrapping around
+ *  the edges) that contains only 1s.
+ *
+ *  Only power of two dimensions are ever considered. For each dimension
+ *  h by w it keeps a plane with one bit per cell, which is set when the
+ *  h by w region starting at that cell is all 1s. The plane for 2h by w is
+ *  the plane for h by w ANDed with itself shifted down h rows, and the plane
+ *  for h by 2w is the plane for h by w ANDed with itself rotated w columns,
+ *  so every plane is built from whole words without testing single cells.
+ *
+ *  A grouping inside a larger valid grouping can never be needed in a
+ *  minimal cover, so by default only maximal groupings (prime implicants)
+ *  are kept. A grouping is maximal exactly when no grouping of twice its
+ *  height or twice its width containing it is valid, which is read straight
+ *  from the next planes.
+ *
+ *  The groupings found are stored as primitive arrays and are ordered from
+ *  largest to smallest.
+ *
+ *  Every step works on one row at a time, so for large maps the rows can be
+ *  split into stripes run on a {@code ForkJoinPool}. Each stripe has its own
+ *  buffers, and the groupings found by each stripe are appended in row
+ *  order, so the result is the same as running on one thread.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class GroupingEnumerator {
+
+    private final boolean primesOnly;
+
+    private int mapWidth;
+    private int mapHeight;
+    private int stride;
+    private int rowLevels;
+    private int colLevels;
+
+    // planes[i * colLevels + j] holds the 2^i by 2^j plane
+    private long[][] planes = new long[0][];
+    // the groupings found, and the buffers used when running on one thread
+    private final Stripe found = new Stripe();
+    private Stripe[] stripes = new Stripe[0];
+
+    /**
+     * Initialises an enumerator that keeps only maximal groupings
+     */
+    public GroupingEnumerator() {
+        this(true);
+    }
+
+    /**
+     * Initialises an enumerator
+     * @param primesOnly True to keep only maximal groupings, False to keep every valid grouping
+     */
+    public GroupingEnumerator(boolean primesOnly) {
+        this.primesOnly = primesOnly;
+    }
+
+    /**
+     * Finds every valid grouping of the map, replacing any previous result.
+     * @param map the Karnaugh map
+     */
+    public void enumerate(KarnaughMap map) {
+        enumerate(map, null);
+    }
+
+    /**
+     * Finds every valid grouping of the map, replacing any previous result.
+     * @param map the Karnaugh map
+     * @param pool the pool to run stripes of rows on, or null to run on this thread
+     */
+    public void enumerate(KarnaughMap map, ForkJoinPool pool) {
+        mapWidth = map.getWidth();
+        mapHeight = map.getHeight();
+        stride = map.stride();
+        rowLevels = levels(mapHeight);
+        colLevels = levels(mapWidth);
+        found.count = 0;
+
+        int planeSize = stride * mapHeight;
+        if (planes.length < rowLevels * colLevels) planes = new long[rowLevels * colLevels][];
+        for (int p = 0; p < rowLevels * colLevels; p++)
+            if (planes[p] == null || planes[p].length < planeSize) planes[p] = new long[planeSize];
+        found.fit(stride);
+
+        int stripeCount = pool == null ? 0 : Math.min(mapHeight, 4 * pool.getParallelism());
+        if (stripes.length < stripeCount) stripes = Arrays.copyOf(stripes, stripeCount);
+        for (int s = 0; s < stripeCount; s++) {
+            if (stripes[s] == null) stripes[s] = new Stripe();
+            stripes[s].fit(stride);
+        }
+
+        // 1 by 1 groupings are the map itself, and wider groupings are found by rotating columns
+        System.arraycopy(map.words(), 0, planes[0], 0, planeSize);
+        for (int j = 1; j < colLevels; j++) {
+            long[] src = planes[j - 1], dst = planes[j];
+            int shift = 1 << (j - 1);
+            if (pool == null) doubleWidth(src, dst, shift, 0, mapHeight, found);
+            else forRows(pool, stripeCount, mapHeight, (from, to, stripe) -> doubleWidth(src, dst, shift, from, to, stripe));
+        }
+
+        // taller groupings are found by stacking rows
+        for (int i = 1; i < rowLevels; i++)
+            for (int j = 0; j < colLevels; j++) {
+                long[] src = planes[(i - 1) * colLevels + j], dst = planes[i * colLevels + j];
+                int shift = 1 << (i - 1);
+                if (pool == null) doubleHeight(src, dst, shift, 0, mapHeight);
+                else forRows(pool, stripeCount, mapHeight, (from, to, stripe) -> doubleHeight(src, dst, shift, from, to));
+            }
+
+        // add the groupings from the largest area to the smallest
+        for (int area = rowLevels + colLevels - 2; area >= 0; area--)
+            for (int i = Math.min(area, rowLevels - 1); i >= 0 && area - i < colLevels; i--) {
+                // groupings covering every row can start anywhere, so only the first is kept
+                int lastRow = 1 << i == mapHeight ? 1 : mapHeight;
+
+                if (pool == null || lastRow == 1) {
+                    collect(i, area - i, 0, lastRow, found);
+                    continue;
+                }
+
+                int ii = i, jj = area - i;
+                for (int s = 0; s < stripeCount; s++) stripes[s].count = 0;
+                forRows(pool, stripeCount, lastRow, (from, to, stripe) -> collect(ii, jj, from, to, stripe));
+                for (int s = 0; s < stripeCount; s++) found.append(stripes[s]);
+            }
+    }
+
+    private interface RowTask {
+        void run(int from, int to, Stripe stripe);
+    }
+
+    /**
+     * Runs a task over rows [0, rows) split into stripes on the pool
+     */
+    private void forRows(ForkJoinPool pool, int stripeCount, int rows, RowTask task) {
+        ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>(stripeCount);
+        for (int s = 0; s < stripeCount; s++) {
+            int from = (int) ((long) s * rows / stripeCount), to = (int) ((long) (s + 1) * rows / stripeCount);
+            Stripe stripe = stripes[s];
+            tasks.add(ForkJoinTask.adapt(() -> task.run(from, to, stripe)));
+        }
+
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    private void doubleWidth(long[] src, long[] dst, int shift, int from, int to, Stripe stripe) {
+        long[] scratch = stripe.scratch;
+        for (int row = from; row < to; row++) {
+            int base = row * stride;
+            rotate(src, base, scratch, shift);
+            for (int w = 0; w < stride; w++) dst[base + w] = src[base + w] & scratch[w];
+        }
+    }
+
+    private void doubleHeight(long[] src, long[] dst, int shift, int from, int to) {
+        for (int row = from; row < to; row++) {
+            int base = row * stride, other = ((row + shift) % mapHeight) * stride;
+            for (int w = 0; w < stride; w++) dst[base + w] = src[base + w] & src[other + w];
+        }
+    }
+
+    /**
+     * Rotates one row so that bit c of the result is bit (c + shift) mod width of the source
+     */
+    private void rotate(long[] src, int base, long[] dst, int shift) {
+        if (stride == 1) {
+            long x = src[base];
+            long mask = -1L >>> (64 - mapWidth);
+            dst[0] = ((x >>> shift) | (x << (mapWidth - shift))) & mask;
+            return;
+        }
+
+        // bits that move down by shift, then bits that wrap around from the left edge
+        int q = shift >>> 6, r = shift & 63;
+        for (int w = 0; w < stride; w++) {
+            long lo = w + q < stride ? src[base + w + q] : 0;
+            long hi = w + q + 1 < stride ? src[base + w + q + 1] : 0;
+            dst[w] = r == 0 ? lo : (lo >>> r) | (hi << (64 - r));
+        }
+
+        int back = mapWidth - shift;
+        q = back >>> 6;
+        r = back & 63;
+        for (int w = 0; w < stride; w++) {
+            long lo = w - q >= 0 ? src[base + w - q] : 0;
+            long below = w - q - 1 >= 0 ? src[base + w - q - 1] : 0;
+            dst[w] |= r == 0 ? lo : (lo << r) | (below >>> (64 - r));
+        }
+
+        if ((mapWidth & 63) != 0) dst[stride - 1] &= -1L >>> (64 - (mapWidth & 63));
+    }
+
+    /**
+     * Adds the 2^i by 2^j groupings starting in rows [from, to) to a stripe
+     */
+    private void collect(int i, int j, int from, int to, Stripe stripe) {
+        long[] plane = planes[i * colLevels + j];
+        long[] scratch = stripe.scratch, covered = stripe.covered;
+        int height = 1 << i, width = 1 << j;
+        boolean taller = primesOnly && i + 1 < rowLevels, wider = primesOnly && j + 1 < colLevels;
+
+        // groupings covering every column can start anywhere, so only the first is kept
+        int lastWord = width == mapWidth ? 1 : stride;
+
+        for (int row = from; row < to; row++) {
+            int base = row * stride;
+
+            // mark the starts of groupings contained in a valid grouping twice as tall or twice as wide,
+            // which must start at most height rows above or width columns to the left
+            for (int w = 0; w < stride; w++) covered[w] = 0;
+            if (taller) {
+                long[] up = planes[(i + 1) * colLevels + j];
+                for (int shift = 0; shift <= (2 * height == mapHeight ? 0 : height); shift++) {
+                    int above = ((row - shift + mapHeight) % mapHeight) * stride;
+                    for (int w = 0; w < stride; w++) covered[w] |= up[above + w];
+                }
+            }
+            if (wider) {
+                long[] across = planes[i * colLevels + j + 1];
+                for (int w = 0; w < stride; w++) covered[w] |= across[base + w];
+                for (int shift = 1; shift <= (2 * width == mapWidth ? 0 : width); shift++) {
+                    rotate(across, base, scratch, mapWidth - shift);
+                    for (int w = 0; w < stride; w++) covered[w] |= scratch[w];
+                }
+            }
+
+            for (int w = 0; w < lastWord; w++) {
+                long x = plane[base + w] & ~covered[w];
+                if (width == mapWidth) x &= 1;
+                while (x != 0) {
+                    stripe.add(row, (w << 6) + Long.numberOfTrailingZeros(x), height, width);
+                    x &= x - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * The buffers of one stripe of rows, and the groupings it has found
+     */
+    private static class Stripe {
+        private long[] scratch = new long[0];
+        private long[] covered = new long[0];
+
+        private int count;
+        private int[] startRows = new int[16];
+        private int[] startCols = new int[16];
+        private int[] heights = new int[16];
+        private int[] widths = new int[16];
+
+        void fit(int stride) {
+            if (scratch.length < stride) {
+                scratch = new long[stride];
+                covered = new long[stride];
+            }
+        }
+
+        void add(int row, int col, int height, int width) {
+            if (count == startRows.length) grow(count * 2);
+
+            startRows[count] = row;
+            startCols[count] = col;
+            heights[count] = height;
+            widths[count] = width;
+            count++;
+        }
+
+        void append(Stripe other) {
+            if (count + other.count > startRows.length) grow(Math.max(count + other.count, count * 2));
+
+            System.arraycopy(other.startRows, 0, startRows, count, other.count);
+            System.arraycopy(other.startCols, 0, startCols, count, other.count);
+            System.arraycopy(other.heights, 0, heights, count, other.count);
+            System.arraycopy(other.widths, 0, widths, count, other.count);
+            count += other.count;
+        }
+
+        private void grow(int n) {
+            startRows = Arrays.copyOf(startRows, n);
+            startCols = Arrays.copyOf(startCols, n);
+            heights = Arrays.copyOf(heights, n);
+            widths = Arrays.copyOf(widths, n);
+        }
+    }
+
+    private static int levels(int n) {
+        return 32 - Integer.numberOfLeadingZeros(n);
+    }
+
+    /**
+     * The number of groupings found by the last call to {@code enumerate}
+     * @return number of groupings
+     */
+    public int count() {
+        return found.count;
+    }
+
+    /**
+     * The number of candidate groupings decided by the last call to {@code enumerate},
+     * one for each cell and each power of two height and width that fits in the map
+     * @return number of candidates
+     */
+    public long candidatesTested() {
+        return (long) rowLevels * colLevels * mapWidth * mapHeight;
+    }
+
+    /**
+     * Gets the row of the top edge of one of the groupings found
+     * @param k the index of the grouping
+     * @return the row of the top edge
+     */
+    public int startRow(int k) {
+        return found.startRows[k];
+    }
+
+    /**
+     * Gets the column of the left edge of one of the groupings found
+     * @param k the index of the grouping
+     * @return the column of the left edge
+     */
+    public int startCol(int k) {
+        return found.startCols[k];
+    }
+
+    /**
+     * Gets the number of rows of one of the groupings found
+     * @param k the index of the grouping
+     * @return the number of rows
+     */
+    public int height(int k) {
+        return found.heights[k];
+    }
+
+    /**
+     * Gets the number of columns of one of the groupings found
+     * @param k the index of the grouping
+     * @return the number of columns
+     */
+    public int width(int k) {
+        return found.widths[k];
+    }
+
+    /**
+     * Creates the Grouping object for one of the groupings found
+     * @param k the index of the grouping
+     * @return the grouping
+     */
+    public Grouping grouping(int k) {
+        return Grouping.ofSpan(found.startRows[k], found.startCols[k], found.heights[k], found.widths[k], mapWidth, mapHeight);
+    }
+}
@@ -0,0 +1,152 @@
+package src.main;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ *  The {@code GroupingList} class is a list of groupings stored as packed
+ *  {@code long}s (see {@link Grouping#pack()}), so a large batch of results
+ *  takes 8 bytes per grouping. The packed values and their coordinates can
+ *  be read without creating Grouping objects; {@code get} unpacks a new one.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class GroupingList extends AbstractList<Grouping> {
+
+    private long[] packed;
+    private int size;
+
+    /**
+     * Initialises an empty list
+     */
+    public GroupingList() {
+        this(16);
+    }
+
+    /**
+     * Initialises an empty list
+     * @param capacity the number of groupings to make room for
+     */
+    public GroupingList(int capacity) {
+        packed = new long[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Adds a packed grouping to the end of the list.
+     * @param grouping the packed grouping
+     */
+    public void addPacked(long grouping) {
+        if (size == packed.length) packed = Arrays.copyOf(packed, size * 2);
+        packed[size++] = grouping;
+        modCount++;
+    }
+
+    /**
+     * Adds a grouping to the end of the list.
+     * @param grouping the grouping
+     * @return True
+     */
+    public boolean add(Grouping grouping) {
+        addPacked(grouping.pack());
+        return true;
+    }
+
+    /**
+     * Unpacks a grouping in the list
+     * @param index the position in the list
+     * @return a new Grouping object
+     */
+    public Grouping get(int index) {
+        return Grouping.unpack(getPacked(index));
+    }
+
+    /**
+     * Gets a grouping in the list in its packed form
+     * @param index the position in the list
+     * @return the packed grouping
+     */
+    public long getPacked(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index was out of range: " + index);
+        return packed[index];
+    }
+
+    /**
+     * Gets the row of the top edge of a grouping in the list
+     * @param index the position in the list
+     * @return index of row
+     */
+    public int getStartRow(int index) {
+        return Grouping.startRow(getPacked(index));
+    }
+
+    /**
+     * Gets the column of the left edge of a grouping in the list
+     * @param index the position in the list
+     * @return index of column
+     */
+    public int getStartCol(int index) {
+        return Grouping.startCol(getPacked(index));
+    }
+
+    /**
+     * Gets the row of the bottom edge of a grouping in the list
+     * @param index the position in the list
+     * @return index of row
+     */
+    public int getEndRow(int index) {
+        return Grouping.endRow(getPacked(index));
+    }
+
+    /**
+     * Gets the column of the right edge of a grouping in the list
+     * @param index the position in the list
+     * @return index of column
+     */
+    public int getEndCol(int index) {
+        return Grouping.endCol(getPacked(index));
+    }
+
+    /**
+     * Calls an action with the index {@code row * mapWidth + col} of every cell in a grouping in the list.
+     * @param index the position in the list
+     * @param action the action to call for each cell
+     */
+    public void forEachCell(int index, IntConsumer action) {
+        Grouping.forEachCell(getPacked(index), action);
+    }
+
+    /**
+     * Gets the cells of a grouping in the list as a mask, for maps of at most 64 cells.
+     * @param index the position in the list
+     * @return the mask, with bit {@code row * mapWidth + col} set for each cell
+     */
+    public long cellMask(int index) {
+        return Grouping.cellMask(getPacked(index));
+    }
+
+    /**
+     * The number of groupings in the list
+     * @return number of groupings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every grouping, keeping the storage for reuse
+     */
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Copies the packed groupings into a new array
+     * @return the packed groupings
+     */
+    public long[] toPackedArray() {
+        return Arrays.copyOf(packed, size);
+    }
+}
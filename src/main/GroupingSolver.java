@@ -0,0 +1,616 @@
+package src.main;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ *  The {@code GroupingSolver} class runs the grouping algorithm with buffers
+ *  that are kept between calls. The candidate arrays, bit planes, heaps and
+ *  coverage counts only grow, so once they are large enough for the maps
+ *  being solved, repeated solves allocate nothing but the returned list, and
+ *  {@code solveInto} allocates nothing at all.
+ *
+ *  The solution can also be taken lazily, by {@code iterate} or {@code stream},
+ *  which select one grouping each time the next is asked for, or cut short
+ *  after a number of groupings by {@code solve(map, maxGroups)}. Groupings
+ *  come out in the order they are selected: the essential groupings first,
+ *  then the rest from the largest to the smallest. Maps answered from
+ *  {@code FourVariableTable} give their minimum cover in the same order.
+ *
+ *  A {@code SolverListener} can be set to be told the phase times and work
+ *  counts of each solve. With no listener set, the clock is never read.
+ *
+ *  A solver is not thread safe; use one per thread.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class GroupingSolver {
+
+    private final GroupingEnumerator enumerator = new GroupingEnumerator();
+    private final CoverSelector selector = new CoverSelector();
+    private final boolean useTable;
+
+    private KarnaughMap scratch;
+    private KarnaughMap union;
+    private int[] picks = new int[16];
+    private int[] candidateOf = new int[16];
+
+    // counts the solves run through the enumerator, so a lazy selection can tell when it is overtaken
+    private int generation;
+
+    private SolverListener listener;
+    private final SolveStatistics statistics = new SolveStatistics();
+    private long enumerationNanos;
+    private long indexNanos;
+    private long selectionNanos;
+
+    /**
+     * Initialises a new solver
+     */
+    public GroupingSolver() {
+        this(true);
+    }
+
+    GroupingSolver(boolean useTable) {
+        this.useTable = useTable;
+    }
+
+    /**
+     * Finds the simplest set of groupings for a Karnaugh map.
+     * @param kmap the Karnaugh map
+     * @return A list of Grouping objects
+     */
+    public List<Grouping> solve(boolean[][] kmap) {
+        if (kmap == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (kmap.length == 0 || kmap[0].length == 0) throw new IllegalArgumentException("Map is not of appropriate dimensions");
+
+        KarnaughMap map = scratch = clear(scratch, kmap[0].length, kmap.length);
+        long[] words = map.words();
+        int stride = map.stride();
+
+        for (int row = 0; row < kmap.length; row++)
+            for (int col = 0; col < kmap[0].length; col++)
+                if (kmap[row][col]) words[row * stride + (col >>> 6)] |= 1L << col;
+
+        return solve(map);
+    }
+
+    /**
+     * Finds the simplest set of groupings for a Karnaugh map, where only 1s are treated as set.
+     * @param kmap the Karnaugh map
+     * @return A list of Grouping objects
+     */
+    public List<Grouping> solve(int[][] kmap) {
+        if (kmap == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (kmap.length == 0 || kmap[0].length == 0) throw new IllegalArgumentException("Map is not of appropriate dimensions");
+
+        KarnaughMap map = scratch = clear(scratch, kmap[0].length, kmap.length);
+        long[] words = map.words();
+        int stride = map.stride();
+
+        for (int row = 0; row < kmap.length; row++)
+            for (int col = 0; col < kmap[0].length; col++)
+                if (kmap[row][col] == 1) words[row * stride + (col >>> 6)] |= 1L << col;
+
+        return solve(map);
+    }
+
+    /**
+     * Finds the simplest set of groupings for a Karnaugh map with don't-cares, where 1s are set
+     * and cells holding {@code dontCare} may be either 0 or 1.
+     * @param kmap the Karnaugh map
+     * @param dontCare the value marking a don't-care cell
+     * @return A list of Grouping objects
+     */
+    public List<Grouping> solve(int[][] kmap, int dontCare) {
+        if (kmap == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (kmap.length == 0 || kmap[0].length == 0) throw new IllegalArgumentException("Map is not of appropriate dimensions");
+        if (dontCare == 1) throw new IllegalArgumentException("dontCare was the value of a 1");
+
+        int width = kmap[0].length, height = kmap.length;
+        KarnaughMap ones = scratch = clear(scratch, width, height);
+        KarnaughMap cares = union = clear(union, width, height);
+        int stride = ones.stride();
+
+        for (int row = 0; row < height; row++)
+            for (int col = 0; col < width; col++) {
+                int i = row * stride + (col >>> 6);
+                if (kmap[row][col] == 1) ones.words()[i] |= 1L << col;
+                if (kmap[row][col] == 1 || kmap[row][col] == dontCare) cares.words()[i] |= 1L << col;
+            }
+
+        return cover(cares, ones);
+    }
+
+    /**
+     * Finds the simplest set of groupings covering the 1s of a packed Karnaugh map, where
+     * groupings may also include the cells set in {@code dontCares}.
+     * The maps passed in are left unchanged.
+     * @param map the Karnaugh map
+     * @param dontCares the cells that may be either 0 or 1
+     * @return A list of Grouping objects
+     */
+    public List<Grouping> solve(KarnaughMap map, KarnaughMap dontCares) {
+        if (map == null || dontCares == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (map.getWidth() != dontCares.getWidth() || map.getHeight() != dontCares.getHeight())
+            throw new IllegalArgumentException("Don't-care map is not of the same dimensions");
+
+        KarnaughMap cares = union = clear(union, map.getWidth(), map.getHeight());
+        long[] words = cares.words();
+        for (int i = 0; i < words.length; i++) words[i] = map.words()[i] | dontCares.words()[i];
+
+        return cover(cares, map);
+    }
+
+    /**
+     * Finds the simplest set of groupings for a packed Karnaugh map.
+     * The map passed in is left unchanged.
+     * @param map the Karnaugh map
+     * @return A list of Grouping objects
+     */
+    public List<Grouping> solve(KarnaughMap map) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+
+        return cover(map, map);
+    }
+
+    /**
+     * Finds the groupings of the cells set in {@code cares} that cover the 1s of {@code ones}
+     */
+    private List<Grouping> cover(KarnaughMap cares, KarnaughMap ones) {
+        // Maps of up to 4 variables with no don't-cares are all solved in advance
+        if (useTable && FourVariableTable.fits(ones) && cares.equals(ones)) {
+            long start = listener == null ? 0 : System.nanoTime();
+            List<Grouping> groups = FourVariableTable.get().lookup(ones);
+            if (listener != null) lookedUp(ones, groups.size(), start);
+            return groups;
+        }
+
+        int count = select(cares, ones);
+        ArrayList<Grouping> groups = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) groups.add(enumerator.grouping(picks[i]));
+
+        return groups;
+    }
+
+    /**
+     * Finds the first groupings of the solution for a packed Karnaugh map, stopping once
+     * {@code maxGroups} have been selected. The map passed in is left unchanged.
+     * @param map the Karnaugh map
+     * @param maxGroups the most groupings to select
+     * @return the groupings selected, and the number of 1s they leave uncovered
+     */
+    public PartialCover solve(KarnaughMap map, int maxGroups) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (maxGroups < 0) throw new IllegalArgumentException("maxGroups was negative: " + maxGroups);
+
+        if (useTable && FourVariableTable.fits(map)) {
+            long start = listener == null ? 0 : System.nanoTime();
+            List<Grouping> solution = FourVariableTable.get().lookup(map);
+            List<Grouping> groups = new ArrayList<>(solution.subList(0, Math.min(maxGroups, solution.size())));
+
+            long covered = 0;
+            for (Grouping g : groups) covered |= g.cellMask();
+
+            if (listener != null) lookedUp(map, groups.size(), start);
+            return new PartialCover(groups, Integer.bitCount(FourVariableTable.truthTable(map) & (int) ~covered));
+        }
+
+        int count = select(map, map, maxGroups);
+        ArrayList<Grouping> groups = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) groups.add(enumerator.grouping(picks[i]));
+
+        return new PartialCover(groups, map.isEmpty() ? 0 : selector.remaining());
+    }
+
+    /**
+     * Selects the groupings of the solution for a packed Karnaugh map lazily, one each time the
+     * next is asked for. The groupings are enumerated and indexed by this call, so only selection
+     * is left to the iterator. The map passed in may be changed once this returns.
+     * Solving another map with this solver ends the selection, and the iterator then throws
+     * {@code ConcurrentModificationException}.
+     * @param map the Karnaugh map
+     * @return an iterator over the groupings, in the order they are selected
+     */
+    public Iterator<Grouping> iterate(KarnaughMap map) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+
+        if (useTable && FourVariableTable.fits(map)) {
+            long start = listener == null ? 0 : System.nanoTime();
+            List<Grouping> groups = FourVariableTable.get().lookup(map);
+            if (listener != null) lookedUp(map, groups.size(), start);
+            return groups.iterator();
+        }
+
+        if (!begin(map, map)) return new ArrayList<Grouping>().iterator();
+        return new Selection(map.getWidth(), map.getHeight());
+    }
+
+    /**
+     * Selects the groupings of the solution for a packed Karnaugh map lazily, as a sequential
+     * stream, so that a short-circuiting operation such as {@code limit} or {@code findFirst}
+     * stops selection early. As with {@code iterate}, solving another map with this solver
+     * ends the selection.
+     * @param map the Karnaugh map
+     * @return a stream of the groupings, in the order they are selected
+     */
+    public Stream<Grouping> stream(KarnaughMap map) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterate(map), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Finds the simplest set of groupings for a packed Karnaugh map without allocating.
+     * Grouping i is written to {@code out[4 * i]} to {@code out[4 * i + 3]} as its start row,
+     * start column, end row and end column. Groupings that do not fit in {@code out} are
+     * left out, so the call should be repeated with a larger array if the count returned
+     * is more than {@code out.length / 4}.
+     * @param map the Karnaugh map
+     * @param out the array to write the groupings to
+     * @return the number of groupings in the solution
+     */
+    public int solveInto(KarnaughMap map, int[] out) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+
+        int width = map.getWidth(), height = map.getHeight();
+
+        if (useTable && FourVariableTable.fits(map)) {
+            long start = listener == null ? 0 : System.nanoTime();
+            FourVariableTable table = FourVariableTable.get();
+            int bits = FourVariableTable.truthTable(map), count = table.count(width, height, bits);
+            long code = table.code(width, height, bits);
+
+            for (int i = 0; i < count && 4 * i + 3 < out.length; i++, code >>>= 8) {
+                out[4 * i] = (int) code & 3;
+                out[4 * i + 1] = (int) (code >>> 2) & 3;
+                out[4 * i + 2] = (int) (code >>> 4) & 3;
+                out[4 * i + 3] = (int) (code >>> 6) & 3;
+            }
+            if (listener != null) lookedUp(map, count, start);
+            return count;
+        }
+
+        int count = select(map, map);
+
+        for (int i = 0; i < count && 4 * i + 3 < out.length; i++) {
+            int k = picks[i];
+            out[4 * i] = enumerator.startRow(k);
+            out[4 * i + 1] = enumerator.startCol(k);
+            out[4 * i + 2] = (enumerator.startRow(k) + enumerator.height(k) - 1) % height;
+            out[4 * i + 3] = (enumerator.startCol(k) + enumerator.width(k) - 1) % width;
+        }
+
+        return count;
+    }
+
+    /**
+     * Finds the simplest set of groupings for a packed Karnaugh map, replacing the contents of
+     * a caller's list. Nothing is allocated once the list has room for the result.
+     * @param map the Karnaugh map
+     * @param out the list to fill with packed groupings
+     * @return the number of groupings in the solution
+     */
+    public int solveInto(KarnaughMap map, GroupingList out) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+
+        int width = map.getWidth(), height = map.getHeight();
+        out.clear();
+
+        if (useTable && FourVariableTable.fits(map)) {
+            long start = listener == null ? 0 : System.nanoTime();
+            FourVariableTable table = FourVariableTable.get();
+            int bits = FourVariableTable.truthTable(map), count = table.count(width, height, bits);
+            long code = table.code(width, height, bits);
+
+            for (int i = 0; i < count; i++, code >>>= 8)
+                out.addPacked(Grouping.pack((int) code & 3, (int) (code >>> 2) & 3, (int) (code >>> 4) & 3, (int) (code >>> 6) & 3, width, height));
+            if (listener != null) lookedUp(map, count, start);
+            return count;
+        }
+
+        int count = select(map, map);
+
+        for (int i = 0; i < count; i++) {
+            int k = picks[i];
+            out.addPacked(Grouping.pack(enumerator.startRow(k), enumerator.startCol(k),
+                    (enumerator.startRow(k) + enumerator.height(k) - 1) % height,
+                    (enumerator.startCol(k) + enumerator.width(k) - 1) % width, width, height));
+        }
+
+        return count;
+    }
+
+    /**
+     * Finds a minimum set of groupings for a packed Karnaugh map, stopping once the budget runs out.
+     * The search starts from the greedy cover, so the result is never worse than it, and covers
+     * only with maximal groupings.
+     * @param map the Karnaugh map
+     * @param budget the longest time to spend searching
+     * @return the best cover found, and whether it is proven minimal
+     */
+    public CoverResult solveMinimum(KarnaughMap map, Duration budget) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (budget == null || budget.isNegative()) throw new IllegalArgumentException("budget was null or negative: " + budget);
+
+        long deadline = System.nanoTime() + Math.min(budget.toNanos(), Long.MAX_VALUE / 2);
+        if (map.isEmpty()) return new CoverResult(new ArrayList<>(), true);
+
+        int n = select(map, map);
+
+        // number the 1s, and describe each grouping by the 1s it covers
+        int width = map.getWidth(), height = map.getHeight();
+        int[] index = new int[width * height];
+        int ones = 0;
+        for (int row = 0; row < height; row++)
+            for (int col = 0; col < width; col++)
+                index[row * width + col] = map.get(row, col) ? ones++ : -1;
+
+        long[][] cells = new long[enumerator.count()][(ones + 63) >>> 6];
+        for (int k = 0; k < enumerator.count(); k++)
+            for (int i = 0, row = enumerator.startRow(k); i < enumerator.height(k); i++, row = row + 1 == height ? 0 : row + 1)
+                for (int j = 0, col = enumerator.startCol(k); j < enumerator.width(k); j++, col = col + 1 == width ? 0 : col + 1) {
+                    int e = index[row * width + col];
+                    cells[k][e >>> 6] |= 1L << e;
+                }
+
+        ExactCoverSolver solver = new ExactCoverSolver(cells, ones, deadline);
+        int[] best = solver.solve(Arrays.copyOf(picks, n));
+
+        ArrayList<Grouping> groups = new ArrayList<>();
+        for (int k : best) groups.add(enumerator.grouping(k));
+
+        return new CoverResult(groups, solver.isOptimal());
+    }
+
+    /**
+     * Finds a small set of groupings for a packed Karnaugh map by local search, improving on the
+     * greedy cover until the budget runs out or the thread is interrupted. The greedy cover is found
+     * first, so a result is always returned, and the result is never worse than it.
+     * @param map the Karnaugh map
+     * @param budget the longest time to spend improving the cover
+     * @return the best cover found, and the covers the search passed through
+     */
+    public AnytimeResult solveAnytime(KarnaughMap map, Duration budget) {
+        return solveAnytime(map, budget, null);
+    }
+
+    /**
+     * Finds a small set of groupings for a packed Karnaugh map by local search, improving on the
+     * greedy cover until the budget runs out or the thread is interrupted, and reporting each
+     * improvement as it is found.
+     * @param map the Karnaugh map
+     * @param budget the longest time to spend improving the cover
+     * @param onImprovement called on this thread with the greedy cover and each improvement, or null
+     * @return the best cover found, and the covers the search passed through
+     */
+    public AnytimeResult solveAnytime(KarnaughMap map, Duration budget, Consumer<AnytimeResult.Improvement> onImprovement) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (budget == null || budget.isNegative()) throw new IllegalArgumentException("budget was null or negative: " + budget);
+
+        long start = System.nanoTime();
+        long deadline = start + Math.min(budget.toNanos(), Long.MAX_VALUE / 2);
+        if (map.isEmpty()) return new AnytimeResult(new ArrayList<>(), true, new ArrayList<>());
+
+        int n = select(map, map);
+
+        // number the 1s, and list the 1s each grouping covers
+        int width = map.getWidth(), height = map.getHeight();
+        int[] index = new int[width * height];
+        int ones = 0;
+        for (int row = 0; row < height; row++)
+            for (int col = 0; col < width; col++)
+                index[row * width + col] = map.get(row, col) ? ones++ : -1;
+
+        int[][] cells = new int[enumerator.count()][];
+        int[] areas = new int[enumerator.count()];
+        for (int k = 0; k < enumerator.count(); k++) {
+            areas[k] = enumerator.height(k) * enumerator.width(k);
+            cells[k] = new int[areas[k]];
+            int c = 0;
+            for (int i = 0, row = enumerator.startRow(k); i < enumerator.height(k); i++, row = row + 1 == height ? 0 : row + 1)
+                for (int j = 0, col = enumerator.startCol(k); j < enumerator.width(k); j++, col = col + 1 == width ? 0 : col + 1)
+                    cells[k][c++] = index[row * width + col];
+        }
+
+        LocalSearchCover search = new LocalSearchCover(cells, areas, ones, start, deadline, 0x5DEECE66DL ^ ones, onImprovement);
+        int[] best = search.solve(Arrays.copyOf(picks, n));
+
+        ArrayList<Grouping> groups = new ArrayList<>();
+        for (int k : best) groups.add(enumerator.grouping(k));
+
+        return new AnytimeResult(groups, search.isOptimal(), search.trajectory());
+    }
+
+    /**
+     * Runs the algorithm on the cells set in {@code cares}, covering only the 1s of {@code ones},
+     * leaving the selected candidates of the enumerator in {@code picks}
+     * @return the number of groupings selected
+     */
+    private int select(KarnaughMap cares, KarnaughMap ones) {
+        return select(cares, ones, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Runs the algorithm as {@code select(cares, ones)} does, stopping once {@code maxGroups} are selected
+     * @return the number of groupings selected
+     */
+    private int select(KarnaughMap cares, KarnaughMap ones, int maxGroups) {
+        if (!begin(cares, ones)) return 0;
+        if (picks.length < enumerator.count()) picks = new int[Math.max(enumerator.count(), 2 * picks.length)];
+
+        // Step 3: Select groups until every 1 is covered, taking the group covering the most uncovered 1s within each size
+        int count = 0;
+        for (int k; count < maxGroups && (k = step()) >= 0; ) picks[count++] = k;
+
+        if (listener != null) solved(ones.getWidth(), ones.getHeight(), count, true);
+        return count;
+    }
+
+    /**
+     * Runs the first two steps of the algorithm, leaving the selector ready for {@code step()}
+     * @return False if there are no 1s to cover
+     */
+    private boolean begin(KarnaughMap cares, KarnaughMap ones) {
+        generation++;
+        enumerationNanos = indexNanos = selectionNanos = 0;
+        long start = listener == null ? 0 : System.nanoTime();
+
+        if (ones.isEmpty()) {
+            if (listener != null) solved(ones.getWidth(), ones.getHeight(), 0, false);
+            return false;
+        }
+
+        // Step 1: Find every maximal grouping of 1s and don't-cares whose dimensions are powers of 2
+        enumerator.enumerate(cares);
+        long enumerated = listener == null ? 0 : System.nanoTime();
+
+        // Step 2: Index the 1s each grouping covers, largest groupings first, leaving out groupings of only don't-cares
+        int width = ones.getWidth(), height = ones.getHeight();
+        selector.reset(width * height);
+
+        for (int row = 0; row < height; row++)
+            for (int col = 0; col < width; col++)
+                if (ones.get(row, col)) selector.require(row * width + col);
+
+        if (candidateOf.length < enumerator.count()) candidateOf = new int[Math.max(enumerator.count(), 2 * candidateOf.length)];
+
+        for (int k = 0; k < enumerator.count(); k++) {
+            boolean started = false;
+
+            for (int i = 0, row = enumerator.startRow(k); i < enumerator.height(k); i++, row = row + 1 == height ? 0 : row + 1)
+                for (int j = 0, col = enumerator.startCol(k); j < enumerator.width(k); j++, col = col + 1 == width ? 0 : col + 1)
+                    if (ones.get(row, col)) {
+                        if (!started) candidateOf[selector.addCandidate(enumerator.height(k) * enumerator.width(k))] = k;
+                        started = true;
+                        selector.addElement(row * width + col);
+                    }
+        }
+        selector.prepare();
+
+        if (listener != null) {
+            enumerationNanos = enumerated - start;
+            indexNanos = System.nanoTime() - enumerated;
+        }
+        return true;
+    }
+
+    /**
+     * Selects the next grouping
+     * @return the index of the grouping in the enumerator, or -1 if every 1 is covered
+     */
+    private int step() {
+        long start = listener == null ? 0 : System.nanoTime();
+        int k = selector.next();
+        if (listener != null) selectionNanos += System.nanoTime() - start;
+
+        return k < 0 ? -1 : candidateOf[k];
+    }
+
+    /**
+     * Selects the groupings of the last map begun one at a time
+     */
+    private class Selection implements Iterator<Grouping> {
+        private final int generation = GroupingSolver.this.generation;
+        private final int width;
+        private final int height;
+
+        // the next grouping, or -1 once every 1 is covered, or -2 if it has not been selected yet
+        private int next = -2;
+        private int count;
+
+        Selection(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        public boolean hasNext() {
+            if (next == -2) {
+                if (generation != GroupingSolver.this.generation) throw new ConcurrentModificationException("The solver has since solved another map");
+
+                next = step();
+                if (next < 0 && listener != null) solved(width, height, count, true);
+            }
+
+            return next >= 0;
+        }
+
+        public Grouping next() {
+            if (!hasNext()) throw new NoSuchElementException();
+
+            Grouping g = enumerator.grouping(next);
+            next = -2;
+            count++;
+            return g;
+        }
+    }
+
+    /**
+     * Sets the listener told about each solve
+     * @param listener the listener, or null for none
+     */
+    public void setListener(SolverListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the listener told about each solve
+     * @return the listener, or null if there is none
+     */
+    public SolverListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Tells the listener about a solve answered from the table
+     */
+    private void lookedUp(KarnaughMap map, int count, long start) {
+        statistics.clear(map.getWidth(), map.getHeight());
+        statistics.tableLookup = true;
+        statistics.totalNanos = System.nanoTime() - start;
+        statistics.groupingsSelected = count;
+        listener.solved(statistics);
+    }
+
+    /**
+     * Tells the listener about a solve run through the phases
+     */
+    private void solved(int width, int height, int count, boolean enumerated) {
+        statistics.clear(width, height);
+        statistics.enumerationNanos = enumerationNanos;
+        statistics.indexNanos = indexNanos;
+        statistics.selectionNanos = selectionNanos;
+        statistics.totalNanos = enumerationNanos + indexNanos + selectionNanos;
+        statistics.groupingsSelected = count;
+
+        if (enumerated) {
+            statistics.candidatesTested = enumerator.candidatesTested();
+            statistics.groupingsFound = enumerator.count();
+            statistics.comparisons = selector.comparisons();
+
+            long cells = (long) width * height;
+            for (int k = 0; k < enumerator.count(); k++) cells += enumerator.height(k) * enumerator.width(k);
+            statistics.cellsScanned = cells;
+        }
+
+        listener.solved(statistics);
+    }
+
+    private static KarnaughMap clear(KarnaughMap map, int width, int height) {
+        if (map == null || map.getWidth() != width || map.getHeight() != height) return new KarnaughMap(width, height);
+
+        Arrays.fill(map.words(), 0);
+        return map;
+    }
+}
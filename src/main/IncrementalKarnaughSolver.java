@@ -0,0 +1,546 @@
+package src.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *  The {@code IncrementalKarnaughSolver} class keeps a solution up to date
+ *  while the cells of a map are changed one at a time.
+ *
+ *  It holds every maximal grouping of the map as a candidate, with an index
+ *  from each cell to the candidates containing it, and the groupings of the
+ *  current cover. A grouping can only become valid or invalid when it
+ *  contains the changed cell, and can only gain or lose a larger grouping
+ *  around it when it is one half of such a grouping. So an edit only looks
+ *  at the valid groupings through the changed cell and their halves, found
+ *  by doubling outwards from the cell itself, and the work done depends on
+ *  the size of the groupings near the cell rather than the size of the map.
+ *
+ *  The cover is then repaired around the edit: each 1 left uncovered is
+ *  covered by the largest candidate through it, preferring the one covering
+ *  the most uncovered 1s, and selected groupings made redundant by the new
+ *  ones are dropped. This keeps a valid cover of maximal groupings, but it
+ *  is only repaired locally, so {@code getGroupings} may hold more groupings
+ *  than {@code resolve} would find for the same map. After random edits of
+ *  a 32 by 32 map, two in three setting a 1, the cover is larger than a
+ *  fresh solve about one time in twelve, by one or two groupings; call
+ *  {@code resolve} when the smallest cover matters.
+ *
+ *  Groupings are keyed by their start and size packed into a {@code long},
+ *  in open addressed tables of primitives, so an edit allocates nothing
+ *  once the buffers have grown to fit the map.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class IncrementalKarnaughSolver {
+
+    private final KarnaughMap map;
+    private final int width;
+    private final int height;
+
+    // candidates by slot, with freed slots reused
+    private int slots;
+    private int[] startRows = new int[16];
+    private int[] startCols = new int[16];
+    private int[] rowLevels = new int[16];
+    private int[] colLevels = new int[16];
+    private boolean[] alive = new boolean[16];
+    private boolean[] selected = new boolean[16];
+    private int[] free = new int[16];
+    private int freeCount;
+    private final LongIntTable slotOf = new LongIntTable();
+
+    // cell -> slots of the candidates containing it, and the number of selected groupings covering it
+    private final int[][] cellCands;
+    private final int[] cellSizes;
+    private final int[] coverCount;
+
+    // cells that may have been left uncovered by an edit
+    private int[] pending = new int[16];
+    private int pendingCount;
+
+    // the valid groupings through the edited cell, and every grouping looked at during an edit
+    private long[] valid = new long[16];
+    private int validCount;
+    private final LongIntTable seen = new LongIntTable();
+
+    // the doublings and halves of one grouping, each at most a row and a column of starts
+    private final long[] doubled;
+    private final long[] halved;
+
+    /**
+     * Initialises a solver for a map containing only 0s
+     * @param width the width of the Karnaugh Map
+     * @param height the height of the Karnaugh Map
+     */
+    public IncrementalKarnaughSolver(int width, int height) {
+        this(new KarnaughMap(width, height));
+    }
+
+    /**
+     * Initialises a solver for a copy of a map, solving it from scratch
+     * @param map the Karnaugh map
+     */
+    public IncrementalKarnaughSolver(KarnaughMap map) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+
+        this.map = map.copy();
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.cellCands = new int[width * height][];
+        this.cellSizes = new int[width * height];
+        this.coverCount = new int[width * height];
+        this.doubled = new long[width + height];
+        this.halved = new long[width + height];
+
+        resolve();
+    }
+
+    /**
+     * Gets the value of a cell
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return True if the cell is a 1
+     */
+    public boolean get(int row, int col) {
+        return map.get(row, col);
+    }
+
+    /**
+     * Sets the value of a cell and updates the solution around it
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param value True for a 1
+     */
+    public void set(int row, int col, boolean value) {
+        if (map.get(row, col) == value) return;
+
+        int cell = row * width + col;
+        pendingCount = 0;
+
+        if (value) {
+            map.set(row, col, true);
+            validThrough(row, col);
+
+            for (int k = 0; k < validCount; k++) {
+                long v = valid[k];
+                if (isMaximalThrough(v)) addCandidate(v);
+
+                // the halves of a new grouping are no longer maximal
+                for (int h = 0, n = halves(v); h < n; h++) {
+                    int slot = slotOf.get(halved[h]);
+                    if (slot >= 0) removeCandidate(slot);
+                }
+            }
+
+            addPending(cell);
+        }
+        else {
+            validThrough(row, col);
+            while (cellSizes[cell] > 0) removeCandidate(cellCands[cell][cellSizes[cell] - 1]);
+            map.set(row, col, false);
+
+            // the halves of a lost grouping that avoid the cell may now be maximal;
+            // none of them is through the cell, so they are told apart from the valid groupings in seen
+            for (int k = 0; k < validCount; k++)
+                for (int h = 0, n = halves(valid[k]); h < n; h++) {
+                    long p = halved[h];
+                    if (contains(p, row, col) || seen.get(p) >= 0 || slotOf.get(p) >= 0) continue;
+
+                    seen.put(p, 0);
+                    if (isMaximal(p)) addCandidate(p);
+                }
+        }
+
+        repair();
+    }
+
+    /**
+     * Gets the groupings of the current cover, largest first
+     * @return A list of Grouping objects
+     */
+    public List<Grouping> getGroupings() {
+        ArrayList<Integer> chosen = new ArrayList<>();
+        for (int slot = 0; slot < slots; slot++)
+            if (alive[slot] && selected[slot]) chosen.add(slot);
+
+        chosen.sort((a, b) -> {
+            if (rowLevels[a] + colLevels[a] != rowLevels[b] + colLevels[b]) return rowLevels[b] + colLevels[b] - rowLevels[a] - colLevels[a];
+            if (startRows[a] != startRows[b]) return startRows[a] - startRows[b];
+            return startCols[a] - startCols[b];
+        });
+
+        ArrayList<Grouping> groups = new ArrayList<>(chosen.size());
+        for (int slot : chosen)
+            groups.add(Grouping.ofSpan(startRows[slot], startCols[slot], 1 << rowLevels[slot], 1 << colLevels[slot], width, height));
+
+        return groups;
+    }
+
+    /**
+     * Gets the number of maximal groupings of the current map
+     * @return number of candidates
+     */
+    public int getCandidateCount() {
+        return slotOf.size;
+    }
+
+    /**
+     * Gets a copy of the current map
+     * @return the Karnaugh map
+     */
+    public KarnaughMap getMap() {
+        return map.copy();
+    }
+
+    /**
+     * Finds every candidate and the cover again from scratch
+     */
+    public void resolve() {
+        slots = 0;
+        freeCount = 0;
+        slotOf.clear();
+        Arrays.fill(cellSizes, 0);
+        Arrays.fill(coverCount, 0);
+
+        GroupingEnumerator enumerator = new GroupingEnumerator();
+        enumerator.enumerate(map);
+        for (int k = 0; k < enumerator.count(); k++)
+            addCandidate(key(enumerator.startRow(k), enumerator.startCol(k),
+                    Integer.numberOfTrailingZeros(enumerator.height(k)), Integer.numberOfTrailingZeros(enumerator.width(k))));
+
+        for (Grouping g : new GroupingSolver().solve(map))
+            select(slotOf.get(key(g.getStartRow(), g.getStartCol(),
+                    Integer.numberOfTrailingZeros(g.height()), Integer.numberOfTrailingZeros(g.width()))));
+    }
+
+    /**
+     * Finds every valid grouping containing a cell into {@code valid}, by doubling outwards from the cell,
+     * marking each in {@code seen}. Each valid grouping is a doubling of the half of it containing the cell, so all are reached.
+     */
+    private void validThrough(int row, int col) {
+        seen.clear();
+        validCount = 0;
+
+        long first = key(row, col, 0, 0);
+        seen.put(first, 0);
+        valid[validCount++] = first;
+
+        for (int q = 0; q < validCount; q++)
+            for (int k = 0, n = doublings(valid[q]); k < n; k++) {
+                long d = doubled[k];
+                if (seen.get(d) >= 0 || !isValid(d)) continue;
+
+                seen.put(d, 0);
+                if (validCount == valid.length) valid = Arrays.copyOf(valid, 2 * validCount);
+                valid[validCount++] = d;
+            }
+    }
+
+    /**
+     * Lists the groupings of twice the height or twice the width containing a grouping into {@code doubled}
+     * @return the number listed
+     */
+    private int doublings(long g) {
+        int r = startRow(g), c = startCol(g), i = rowLevel(g), j = colLevel(g);
+        int h = 1 << i, w = 1 << j, n = 0;
+
+        if (2 * h == height) doubled[n++] = key(0, c, i + 1, j);
+        else if (2 * h < height)
+            for (int s = r - h; s <= r; s++) doubled[n++] = key((s + height) % height, c, i + 1, j);
+
+        if (2 * w == width) doubled[n++] = key(r, 0, i, j + 1);
+        else if (2 * w < width)
+            for (int s = c - w; s <= c; s++) doubled[n++] = key(r, (s + width) % width, i, j + 1);
+
+        return n;
+    }
+
+    /**
+     * Lists the groupings of half the height or half the width that a grouping is a doubling of into {@code halved}
+     * @return the number listed
+     */
+    private int halves(long g) {
+        int r = startRow(g), c = startCol(g), i = rowLevel(g), j = colLevel(g), n = 0;
+
+        if (i > 0) {
+            int h = 1 << (i - 1);
+            if (2 * h == height) for (int s = 0; s < height; s++) halved[n++] = key(s, c, i - 1, j);
+            else for (int s = r; s <= r + h; s++) halved[n++] = key(s % height, c, i - 1, j);
+        }
+
+        if (j > 0) {
+            int w = 1 << (j - 1);
+            if (2 * w == width) for (int s = 0; s < width; s++) halved[n++] = key(r, s, i, j - 1);
+            else for (int s = c; s <= c + w; s++) halved[n++] = key(r, s % width, i, j - 1);
+        }
+
+        return n;
+    }
+
+    private boolean isValid(long g) {
+        int h = 1 << rowLevel(g), w = 1 << colLevel(g);
+        return map.count(startRow(g), startCol(g), h, w) == h * w;
+    }
+
+    private boolean isMaximal(long g) {
+        for (int k = 0, n = doublings(g); k < n; k++)
+            if (isValid(doubled[k])) return false;
+
+        return true;
+    }
+
+    /**
+     * Determines if a grouping through the edited cell is maximal, once {@code validThrough} has marked every valid grouping through it
+     */
+    private boolean isMaximalThrough(long g) {
+        for (int k = 0, n = doublings(g); k < n; k++)
+            if (seen.get(doubled[k]) >= 0) return false;
+
+        return true;
+    }
+
+    private boolean contains(long g, int row, int col) {
+        return (row - startRow(g) + height) % height < 1 << rowLevel(g) && (col - startCol(g) + width) % width < 1 << colLevel(g);
+    }
+
+    private void addCandidate(long g) {
+        int slot = freeCount > 0 ? free[--freeCount] : slots++;
+        if (slot == alive.length) {
+            int n = 2 * slot;
+            startRows = Arrays.copyOf(startRows, n);
+            startCols = Arrays.copyOf(startCols, n);
+            rowLevels = Arrays.copyOf(rowLevels, n);
+            colLevels = Arrays.copyOf(colLevels, n);
+            alive = Arrays.copyOf(alive, n);
+            selected = Arrays.copyOf(selected, n);
+        }
+
+        startRows[slot] = startRow(g);
+        startCols[slot] = startCol(g);
+        rowLevels[slot] = rowLevel(g);
+        colLevels[slot] = colLevel(g);
+        alive[slot] = true;
+        selected[slot] = false;
+        slotOf.put(g, slot);
+
+        for (int i = 0, row = startRows[slot]; i < 1 << rowLevels[slot]; i++, row = row + 1 == height ? 0 : row + 1)
+            for (int j = 0, col = startCols[slot]; j < 1 << colLevels[slot]; j++, col = col + 1 == width ? 0 : col + 1) {
+                int cell = row * width + col;
+                if (cellCands[cell] == null) cellCands[cell] = new int[4];
+                else if (cellSizes[cell] == cellCands[cell].length) cellCands[cell] = Arrays.copyOf(cellCands[cell], 2 * cellSizes[cell]);
+                cellCands[cell][cellSizes[cell]++] = slot;
+            }
+    }
+
+    private void removeCandidate(int slot) {
+        if (selected[slot]) deselect(slot);
+
+        for (int i = 0, row = startRows[slot]; i < 1 << rowLevels[slot]; i++, row = row + 1 == height ? 0 : row + 1)
+            for (int j = 0, col = startCols[slot]; j < 1 << colLevels[slot]; j++, col = col + 1 == width ? 0 : col + 1) {
+                int cell = row * width + col;
+                int[] list = cellCands[cell];
+                for (int p = 0; p < cellSizes[cell]; p++)
+                    if (list[p] == slot) {
+                        list[p] = list[--cellSizes[cell]];
+                        break;
+                    }
+            }
+
+        slotOf.remove(key(startRows[slot], startCols[slot], rowLevels[slot], colLevels[slot]));
+        alive[slot] = false;
+        if (freeCount == free.length) free = Arrays.copyOf(free, 2 * freeCount);
+        free[freeCount++] = slot;
+    }
+
+    private void select(int slot) {
+        selected[slot] = true;
+        for (int i = 0, row = startRows[slot]; i < 1 << rowLevels[slot]; i++, row = row + 1 == height ? 0 : row + 1)
+            for (int j = 0, col = startCols[slot]; j < 1 << colLevels[slot]; j++, col = col + 1 == width ? 0 : col + 1)
+                coverCount[row * width + col]++;
+    }
+
+    private void deselect(int slot) {
+        selected[slot] = false;
+        for (int i = 0, row = startRows[slot]; i < 1 << rowLevels[slot]; i++, row = row + 1 == height ? 0 : row + 1)
+            for (int j = 0, col = startCols[slot]; j < 1 << colLevels[slot]; j++, col = col + 1 == width ? 0 : col + 1) {
+                int cell = row * width + col;
+                if (--coverCount[cell] == 0) addPending(cell);
+            }
+    }
+
+    private void addPending(int cell) {
+        if (pendingCount == pending.length) pending = Arrays.copyOf(pending, 2 * pendingCount);
+        pending[pendingCount++] = cell;
+    }
+
+    /**
+     * Covers every pending 1 that is uncovered, then drops selected groupings made redundant
+     */
+    private void repair() {
+        for (int p = 0; p < pendingCount; p++) {
+            int cell = pending[p];
+            if (coverCount[cell] > 0 || !map.get(cell / width, cell % width)) continue;
+
+            // the largest candidate through the cell, then the one covering the most uncovered 1s
+            int best = -1, bestSize = -1, bestGain = -1;
+            for (int q = 0; q < cellSizes[cell]; q++) {
+                int slot = cellCands[cell][q], size = rowLevels[slot] + colLevels[slot];
+                if (size < bestSize) continue;
+
+                int gain = uncovered(slot);
+                if (size > bestSize || gain > bestGain) {
+                    best = slot;
+                    bestSize = size;
+                    bestGain = gain;
+                }
+            }
+
+            select(best);
+            dropRedundantAround(best);
+        }
+
+        pendingCount = 0;
+    }
+
+    private int uncovered(int slot) {
+        int count = 0;
+        for (int i = 0, row = startRows[slot]; i < 1 << rowLevels[slot]; i++, row = row + 1 == height ? 0 : row + 1)
+            for (int j = 0, col = startCols[slot]; j < 1 << colLevels[slot]; j++, col = col + 1 == width ? 0 : col + 1)
+                if (coverCount[row * width + col] == 0) count++;
+
+        return count;
+    }
+
+    private void dropRedundantAround(int slot) {
+        for (int i = 0, row = startRows[slot]; i < 1 << rowLevels[slot]; i++, row = row + 1 == height ? 0 : row + 1)
+            for (int j = 0, col = startCols[slot]; j < 1 << colLevels[slot]; j++, col = col + 1 == width ? 0 : col + 1) {
+                int cell = row * width + col;
+                for (int q = 0; q < cellSizes[cell]; q++) {
+                    int other = cellCands[cell][q];
+                    if (other != slot && selected[other] && isRedundant(other)) deselect(other);
+                }
+            }
+    }
+
+    private boolean isRedundant(int slot) {
+        for (int i = 0, row = startRows[slot]; i < 1 << rowLevels[slot]; i++, row = row + 1 == height ? 0 : row + 1)
+            for (int j = 0, col = startCols[slot]; j < 1 << colLevels[slot]; j++, col = col + 1 == width ? 0 : col + 1)
+                if (coverCount[row * width + col] < 2) return false;
+
+        return true;
+    }
+
+    // a grouping is held as its start row and column and the log2 of its height and width
+    private static long key(int startRow, int startCol, int rowLevel, int colLevel) {
+        return (long) startRow << 40 | (long) startCol << 16 | rowLevel << 8 | colLevel;
+    }
+
+    private static int startRow(long g) {
+        return (int) (g >>> 40);
+    }
+
+    private static int startCol(long g) {
+        return (int) (g >>> 16) & 0xFFFFFF;
+    }
+
+    private static int rowLevel(long g) {
+        return (int) (g >>> 8) & 0xFF;
+    }
+
+    private static int colLevel(long g) {
+        return (int) g & 0xFF;
+    }
+
+    /**
+     * A map from grouping keys to ints, open addressed with linear probing and kept at most half full.
+     * A slot is in use only while its mark is the table's mark, so clearing only moves the mark on.
+     */
+    private static final class LongIntTable {
+
+        private long[] keys = new long[64];
+        private int[] values = new int[64];
+        private int[] marks = new int[64];
+        private int mark = 1;
+        private int size;
+
+        /**
+         * Gets the value of a key
+         * @return the value, or -1 if the key is not in the table
+         */
+        int get(long key) {
+            int mask = keys.length - 1;
+
+            for (int i = home(key, mask); marks[i] == mark; i = (i + 1) & mask)
+                if (keys[i] == key) return values[i];
+
+            return -1;
+        }
+
+        /**
+         * Adds a key that is not in the table
+         */
+        void put(long key, int value) {
+            if (2 * (size + 1) > keys.length) grow();
+            place(key, value);
+            size++;
+        }
+
+        /**
+         * Removes a key that is in the table, moving the keys probed after it back so none is cut off from its home slot
+         */
+        void remove(long key) {
+            int mask = keys.length - 1, i = home(key, mask);
+            while (keys[i] != key) i = (i + 1) & mask;
+
+            for (int j = (i + 1) & mask; marks[j] == mark; j = (j + 1) & mask)
+                if ((j - home(keys[j], mask) & mask) >= (j - i & mask)) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+
+            marks[i] = 0;
+            size--;
+        }
+
+        void clear() {
+            size = 0;
+            if (++mark == 0) {
+                Arrays.fill(marks, 0);
+                mark = 1;
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values, oldMarks = marks;
+            int oldMark = mark;
+
+            keys = new long[2 * oldKeys.length];
+            values = new int[keys.length];
+            marks = new int[keys.length];
+            mark = 1;
+
+            for (int i = 0; i < oldKeys.length; i++)
+                if (oldMarks[i] == oldMark) place(oldKeys[i], oldValues[i]);
+        }
+
+        private void place(long key, int value) {
+            int mask = keys.length - 1, i = home(key, mask);
+            while (marks[i] == mark) i = (i + 1) & mask;
+
+            keys[i] = key;
+            values[i] = value;
+            marks[i] = mark;
+        }
+
+        private static int home(long key, int mask) {
+            key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+            key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+            return (int) (key ^ (key >>> 31)) & mask;
+        }
+    }
+}
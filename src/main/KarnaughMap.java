@@ -0,0 +1,291 @@
+package src.main;
+
+import java.util.Arrays;
+
+/**
+ *  The {@code KarnaughMap} class is a bit-packed Karnaugh map.
+ *  Each row is stored as one or more {@code long} words, with
+ *  column {@code c} held in bit {@code c % 64} of word {@code c / 64},
+ *  so counting and clearing the cells of a grouping is done with
+ *  popcounts and masks rather than one cell at a time.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class KarnaughMap {
+
+    private final int width;
+    private final int height;
+    private final int stride;
+    private final long[] words;
+
+    /**
+     * Initialises a new Karnaugh map containing only 0s
+     * @param width the width of the Karnaugh Map
+     * @param height the height of the Karnaugh Map
+     */
+    public KarnaughMap(int width, int height) {
+        if (width <= 0) throw new IllegalArgumentException("width was 0 or less: " + width);
+        if (height <= 0) throw new IllegalArgumentException("height was 0 or less: " + height);
+
+        this.width = width;
+        this.height = height;
+        this.stride = (width + 63) >>> 6;
+        this.words = new long[stride * height];
+    }
+
+    /**
+     * Packs a boolean Karnaugh map
+     * @param kmap the Karnaugh map
+     * @return the packed map
+     */
+    public static KarnaughMap of(boolean[][] kmap) {
+        if (kmap == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (kmap.length == 0 || kmap[0].length == 0) throw new IllegalArgumentException("Map is not of appropriate dimensions");
+
+        KarnaughMap map = new KarnaughMap(kmap[0].length, kmap.length);
+
+        for (int row = 0; row < map.height; row++)
+            for (int col = 0; col < map.width; col++)
+                if (kmap[row][col]) map.words[row * map.stride + (col >>> 6)] |= 1L << col;
+
+        return map;
+    }
+
+    /**
+     * Packs an integer Karnaugh map, where only 1s are treated as set
+     * @param kmap the Karnaugh map
+     * @return the packed map
+     */
+    public static KarnaughMap of(int[][] kmap) {
+        if (kmap == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (kmap.length == 0 || kmap[0].length == 0) throw new IllegalArgumentException("Map is not of appropriate dimensions");
+
+        KarnaughMap map = new KarnaughMap(kmap[0].length, kmap.length);
+
+        for (int row = 0; row < map.height; row++)
+            for (int col = 0; col < map.width; col++)
+                if (kmap[row][col] == 1) map.words[row * map.stride + (col >>> 6)] |= 1L << col;
+
+        return map;
+    }
+
+    /**
+     * Packs the cells of an integer Karnaugh map holding a given value,
+     * such as the don't-cares of a map
+     * @param kmap the Karnaugh map
+     * @param value the value of the cells to set
+     * @return the packed map
+     */
+    public static KarnaughMap of(int[][] kmap, int value) {
+        if (kmap == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (kmap.length == 0 || kmap[0].length == 0) throw new IllegalArgumentException("Map is not of appropriate dimensions");
+
+        KarnaughMap map = new KarnaughMap(kmap[0].length, kmap.length);
+
+        for (int row = 0; row < map.height; row++)
+            for (int col = 0; col < map.width; col++)
+                if (kmap[row][col] == value) map.words[row * map.stride + (col >>> 6)] |= 1L << col;
+
+        return map;
+    }
+
+    /**
+     * Creates an independent copy of this map
+     * @return the copy
+     */
+    public KarnaughMap copy() {
+        KarnaughMap map = new KarnaughMap(width, height);
+        System.arraycopy(words, 0, map.words, 0, words.length);
+        return map;
+    }
+
+    /**
+     * Gets the width of the Karnaugh map
+     * @return number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the Karnaugh map
+     * @return number of rows
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of {@code long} words used for each row
+     * @return words per row
+     */
+    int stride() {
+        return stride;
+    }
+
+    /**
+     * Gets the backing words, row after row, {@code stride()} words per row
+     * @return the backing array, which is not copied
+     */
+    long[] words() {
+        return words;
+    }
+
+    /**
+     * Gets the value of a single cell
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return True if the cell is a 1
+     */
+    public boolean get(int row, int col) {
+        checkCell(row, col);
+        return (words[row * stride + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    /**
+     * Sets the value of a single cell
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param value True to set the cell to 1, False to set it to 0
+     */
+    public void set(int row, int col, boolean value) {
+        checkCell(row, col);
+        if (value) words[row * stride + (col >>> 6)] |= 1L << col;
+        else words[row * stride + (col >>> 6)] &= ~(1L << col);
+    }
+
+    /**
+     * Determines if the map contains only 0s.
+     * @return True/False
+     */
+    public boolean isEmpty() {
+        for (long word : words)
+            if (word != 0) return false;
+
+        return true;
+    }
+
+    /**
+     * Counts the number of 1s in the whole map.
+     * @return the number of 1s
+     */
+    public int count() {
+        int count = 0;
+
+        for (long word : words) count += Long.bitCount(word);
+
+        return count;
+    }
+
+    /**
+     * Counts the number of 1s in the grouping.
+     * @param g the grouping, which may wrap around the edges of the map
+     * @return the number of 1s
+     */
+    public int count(Grouping g) {
+        checkFits(g);
+        return count(g.getStartRow(), g.getStartCol(), g.height(), g.width());
+    }
+
+    /**
+     * Counts the number of 1s in a region, which may wrap around the edges of the map
+     */
+    int count(int startRow, int startCol, int rows, int cols) {
+        int c0 = startCol, c1 = (startCol + cols - 1) % width;
+        int count = 0;
+
+        for (int i = 0, row = startRow; i < rows; i++, row = row + 1 == height ? 0 : row + 1) {
+            if (c0 <= c1) count += countColumns(row, c0, c1);
+            else count += countColumns(row, c0, width - 1) + countColumns(row, 0, c1);
+        }
+
+        return count;
+    }
+
+    /**
+     * Sets every cell contained within the grouping to 0.
+     * @param g the grouping, which may wrap around the edges of the map
+     */
+    public void clear(Grouping g) {
+        checkFits(g);
+
+        int r0 = g.getStartRow();
+        int c0 = g.getStartCol(), c1 = g.getEndCol();
+
+        for (int i = 0, rows = g.height(), row = r0; i < rows; i++, row = row + 1 == height ? 0 : row + 1) {
+            if (c0 <= c1) clearColumns(row, c0, c1);
+            else {
+                clearColumns(row, c0, width - 1);
+                clearColumns(row, 0, c1);
+            }
+        }
+    }
+
+    private void checkCell(int row, int col) {
+        if (row < 0 || row >= height) throw new IllegalArgumentException("row was out of range: " + row);
+        if (col < 0 || col >= width) throw new IllegalArgumentException("col was out of range: " + col);
+    }
+
+    private void checkFits(Grouping g) {
+        if (g.getMapWidth() != width || g.getMapHeight() != height)
+            throw new IllegalArgumentException("Grouping is for a map of different dimensions");
+        if (height <= g.getStartRow() || height <= g.getEndRow() || width <= g.getStartCol() || width <= g.getEndCol())
+            throw new IllegalArgumentException("Grouping goes outside argument map");
+    }
+
+    private int countColumns(int row, int from, int to) {
+        int base = row * stride, w0 = from >>> 6, w1 = to >>> 6;
+
+        if (w0 == w1) return Long.bitCount(words[base + w0] & (-1L << from) & (-1L >>> (63 - (to & 63))));
+
+        int count = Long.bitCount(words[base + w0] & (-1L << from));
+        for (int w = w0 + 1; w < w1; w++) count += Long.bitCount(words[base + w]);
+        return count + Long.bitCount(words[base + w1] & (-1L >>> (63 - (to & 63))));
+    }
+
+    private void clearColumns(int row, int from, int to) {
+        int base = row * stride, w0 = from >>> 6, w1 = to >>> 6;
+
+        if (w0 == w1) {
+            words[base + w0] &= ~((-1L << from) & (-1L >>> (63 - (to & 63))));
+            return;
+        }
+
+        words[base + w0] &= ~(-1L << from);
+        for (int w = w0 + 1; w < w1; w++) words[base + w] = 0;
+        words[base + w1] &= -1L << (to & 63) << 1;
+    }
+
+    /**
+     * Determines if two maps have the same dimensions and contents.
+     * @param o the object to compare this map to
+     * @return True if the objects are equal
+     */
+    public boolean equals(Object o) {
+        if (o instanceof KarnaughMap) {
+            KarnaughMap obj = (KarnaughMap)o;
+            return width == obj.width && height == obj.height && Arrays.equals(words, obj.words);
+        }
+        else return false;
+    }
+
+    public int hashCode() {
+        return 31 * (31 * width + height) + Arrays.hashCode(words);
+    }
+
+    /**
+     * Generates a string representation of the map, one row per line.
+     * @return The string representation
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) sb.append(get(row, col) ? '1' : '0');
+            sb.append('\n');
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,119 @@
+package src.main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ *  The {@code LargeGridSolver} class solves single large maps, such as
+ *  toroidal grids hundreds of cells on a side, using several threads.
+ *
+ *  The groupings are enumerated by stripes of rows on a {@code ForkJoinPool},
+ *  each stripe with its own buffers, and the stripes' groupings are merged
+ *  in row order. The cells of each grouping are then written into the cover
+ *  index in parallel, the index from cells to groupings is built with a
+ *  stripe of counters per thread, and the essential groupings are all selected at once,
+ *  each cell being claimed by exactly one thread, which updates the counts
+ *  of the groupings containing it. Maps of at most 4 variables are looked
+ *  up in {@code FourVariableTable} instead, as {@code GroupingSolver} does,
+ *  so the groupings found are the same as those of {@code GroupingSolver},
+ *  in the same order, for maps of every size.
+ *
+ *  The greedy selection after the essential groupings is sequential: each
+ *  choice depends on the counts left by the one before, so it runs on the
+ *  calling thread however many workers there are. It limits the speed up
+ *  from adding threads, most of all on maps where few 1s are covered by
+ *  essential groupings.
+ *
+ *  A solver is not thread safe, though it uses several threads itself.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class LargeGridSolver implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+    private final GroupingEnumerator enumerator = new GroupingEnumerator();
+    private final CoverSelector selector = new CoverSelector();
+
+    private int[] ranks = new int[16];
+
+    /**
+     * Initialises a solver using every available processor
+     */
+    public LargeGridSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Initialises a solver
+     * @param parallelism the number of worker threads
+     */
+    public LargeGridSolver(int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism was 0 or less: " + parallelism);
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Finds the simplest set of groupings for a packed Karnaugh map.
+     * The map passed in is left unchanged.
+     * @param map the Karnaugh map
+     * @return A list of Grouping objects
+     */
+    public List<Grouping> solve(KarnaughMap map) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (map.isEmpty()) return new ArrayList<>();
+        if (FourVariableTable.fits(map)) return new ArrayList<>(FourVariableTable.get().lookup(map));
+
+        // Step 1: Find every maximal grouping of 1s, by stripes of rows
+        enumerator.enumerate(map, pool);
+
+        // Step 2: Index the cells each grouping covers, largest groupings first
+        int width = map.getWidth(), height = map.getHeight(), stride = map.stride(), n = enumerator.count();
+        long[] words = map.words();
+        selector.reset(width * height);
+
+        for (int row = 0; row < height; row++)
+            for (int w = 0; w < stride; w++)
+                for (long x = words[row * stride + w]; x != 0; x &= x - 1)
+                    selector.require(row * width + (w << 6) + Long.numberOfTrailingZeros(x));
+
+        if (ranks.length < n) ranks = new int[Math.max(n, 2 * ranks.length)];
+        for (int k = 0; k < n; k++) ranks[k] = enumerator.height(k) * enumerator.width(k);
+        selector.allocate(n, ranks, ranks);
+
+        int[] elements = selector.elements();
+        CoverSelector.forRanges(pool, n, (from, to) -> {
+            for (int k = from; k < to; k++) {
+                int p = selector.start(k);
+                for (int i = 0, row = enumerator.startRow(k); i < enumerator.height(k); i++, row = row + 1 == height ? 0 : row + 1)
+                    for (int j = 0, col = enumerator.startCol(k); j < enumerator.width(k); j++, col = col + 1 == width ? 0 : col + 1)
+                        elements[p++] = row * width + col;
+            }
+        });
+
+        // Step 3: Select every essential grouping at once, then select groups until every 1 is covered
+        selector.prepare(pool);
+        selector.takeEssentials(pool);
+
+        ArrayList<Grouping> groups = new ArrayList<>();
+        for (int k = selector.next(); k >= 0; k = selector.next()) groups.add(enumerator.grouping(k));
+
+        return groups;
+    }
+
+    /**
+     * Gets the number of worker threads
+     * @return the parallelism of the pool
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Shuts down the worker threads
+     */
+    public void close() {
+        pool.shutdown();
+    }
+}
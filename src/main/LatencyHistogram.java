@@ -0,0 +1,132 @@
+package src.main;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  The {@code LatencyHistogram} class counts durations in buckets, for
+ *  reporting percentiles of latency without keeping every sample.
+ *
+ *  Durations under 8 ns have a bucket each. Above that, each power of 2 is
+ *  split into 8 buckets of equal width, so a percentile is reported to
+ *  within 12.5% of the true value whatever its size, in 488 buckets in all.
+ *  Samples are counted with atomic adds, so one histogram can be shared by
+ *  many threads.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (63 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Counts a duration
+     * @param nanos the duration in nanoseconds, taken as 0 if negative
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+
+        counts.incrementAndGet(bucket(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Gets the number of durations counted
+     * @return the number of durations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the longest duration counted
+     * @return the duration in nanoseconds, or 0 if none were counted
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets the mean of the durations counted
+     * @return the mean in nanoseconds, or 0 if none were counted
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * Gets a duration that the given fraction of the durations counted are no longer than,
+     * rounded up to the top of its bucket
+     * @param fraction the fraction, such as 0.99 for the 99th percentile
+     * @return the duration in nanoseconds, or 0 if none were counted
+     */
+    public long getPercentile(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) throw new IllegalArgumentException("fraction was out of range: " + fraction);
+
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += snapshot[i] = counts.get(i);
+        if (n == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(fraction * n)), seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(i + 1 == BUCKETS ? Long.MAX_VALUE : lowest(i + 1) - 1, getMax());
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Gets the counts of every bucket that is not empty
+     * @return pairs of the lowest duration in the bucket in nanoseconds and its count, lowest first
+     */
+    public long[][] getBuckets() {
+        int used = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            if ((snapshot[i] = counts.get(i)) != 0) used++;
+
+        long[][] buckets = new long[used][];
+        for (int i = 0, b = 0; i < BUCKETS; i++)
+            if (snapshot[i] != 0) buckets[b++] = new long[] { lowest(i), snapshot[i] };
+
+        return buckets;
+    }
+
+    /**
+     * Sets every count back to zero
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + (int) (nanos >>> (exponent - SUB_BITS)) - SUB_BUCKETS;
+    }
+
+    private static long lowest(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+    }
+}
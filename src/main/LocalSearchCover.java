@@ -0,0 +1,346 @@
+package src.main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ *  The {@code LocalSearchCover} class improves a set of candidates covering
+ *  every element by local search, for as long as it is given.
+ *
+ *  Covers are compared by their number of candidates, and then by their
+ *  total area, larger being better. The search repeats two steps:
+ *
+ *  First, each candidate outside the cover is tried in turn. It is added,
+ *  and then the candidates of the cover overlapping it are dropped, smallest
+ *  first, while every element they cover is still covered by another. If
+ *  two or more are dropped the cover has shrunk, and if one smaller than the
+ *  added candidate is dropped a larger candidate has been swapped in, so the
+ *  move is kept; otherwise it is undone. This repeats until no move helps.
+ *
+ *  Then the cover is perturbed: a few candidates are removed at random, the
+ *  elements they freed are covered again, each by the candidate covering
+ *  the most uncovered elements, and redundant candidates are dropped. The
+ *  result is searched as above, and kept if it is no worse than the best
+ *  cover, which is otherwise restored.
+ *
+ *  The search stops at the deadline, when the thread is interrupted, or when
+ *  the cover has no more candidates than a lower bound taken from a set of
+ *  elements no two of which share a candidate.
+ *
+ *  @author Morgan Jones
+ *
+ */
+class LocalSearchCover {
+
+    private final int candidates;
+    private final int elements;
+    private final int[][] candElems;
+    private final int[][] elemCands;
+    private final int[] areas;
+
+    private final long start;
+    private final long deadline;
+    private final Random random;
+    private final Consumer<AnytimeResult.Improvement> onImprovement;
+    private final ArrayList<AnytimeResult.Improvement> trajectory = new ArrayList<>();
+
+    // the current cover, and how many of its candidates cover each element
+    private final boolean[] chosen;
+    private final int[] covers;
+    private int size;
+    private long area;
+
+    private int[] best;
+    private long bestArea;
+    private boolean optimal;
+
+    /**
+     * Initialises a search
+     * @param candElems the elements covered by each candidate
+     * @param areas the area of each candidate
+     * @param elements the number of elements, all of which must be covered
+     * @param start the value of {@code System.nanoTime()} when the solve started
+     * @param deadline the value of {@code System.nanoTime()} at which to stop searching
+     * @param seed the seed of the random perturbations
+     * @param onImprovement called with each improvement as it is found, or null
+     */
+    LocalSearchCover(int[][] candElems, int[] areas, int elements, long start, long deadline, long seed, Consumer<AnytimeResult.Improvement> onImprovement) {
+        this.candidates = candElems.length;
+        this.elements = elements;
+        this.candElems = candElems;
+        this.areas = areas;
+        this.start = start;
+        this.deadline = deadline;
+        this.random = new Random(seed);
+        this.onImprovement = onImprovement;
+
+        int[] counts = new int[elements];
+        for (int[] elems : candElems)
+            for (int e : elems) counts[e]++;
+
+        elemCands = new int[elements][];
+        for (int e = 0; e < elements; e++) elemCands[e] = new int[counts[e]];
+        for (int k = 0; k < candidates; k++)
+            for (int e : candElems[k]) elemCands[e][--counts[e]] = k;
+
+        chosen = new boolean[candidates];
+        covers = new int[elements];
+    }
+
+    /**
+     * Improves a cover until the search stops.
+     * @param initial a cover to start from
+     * @return the indices of the candidates in the best cover found
+     */
+    int[] solve(int[] initial) {
+        for (int k : initial) add(k);
+        prune();
+        record();
+
+        int bound = lowerBound();
+        while (!stopped()) {
+            improve();
+            if (better()) record();
+            else if (worse()) restore();
+
+            if (size <= bound) {
+                optimal = true;
+                break;
+            }
+            if (stopped()) break;
+
+            perturb();
+        }
+
+        if (worse()) restore();
+        return best.clone();
+    }
+
+    /**
+     * Determines if the cover returned by {@code solve} has as few candidates as any cover can
+     * @return True if the cover is proven to have the fewest candidates
+     */
+    boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * Gets the best cover after the first and after each improvement
+     * @return the improvements, in the order they were found
+     */
+    List<AnytimeResult.Improvement> trajectory() {
+        return trajectory;
+    }
+
+    private boolean stopped() {
+        return System.nanoTime() - deadline > 0 || Thread.currentThread().isInterrupted();
+    }
+
+    private void add(int k) {
+        chosen[k] = true;
+        for (int e : candElems[k]) covers[e]++;
+        size++;
+        area += areas[k];
+    }
+
+    private void remove(int k) {
+        chosen[k] = false;
+        for (int e : candElems[k]) covers[e]--;
+        size--;
+        area -= areas[k];
+    }
+
+    private boolean redundant(int k) {
+        for (int e : candElems[k])
+            if (covers[e] < 2) return false;
+        return true;
+    }
+
+    /**
+     * Drops candidates of the cover that cover nothing on their own, smallest first
+     */
+    private void prune() {
+        int[] cover = cover();
+        sortByArea(cover, cover.length);
+        for (int k : cover)
+            if (redundant(k)) remove(k);
+    }
+
+    /**
+     * Tries adding each candidate outside the cover until no move shrinks the cover or swaps in a larger candidate,
+     * recording the cover after each pass that improved on the best
+     */
+    private void improve() {
+        int[] order = new int[candidates];
+        int[] overlapping = new int[candidates];
+        int[] dropped = new int[candidates];
+        boolean[] seen = new boolean[candidates];
+        boolean changed = true;
+
+        while (changed && !stopped()) {
+            changed = false;
+            for (int k = 0; k < candidates; k++) order[k] = k;
+            shuffle(order);
+
+            for (int i = 0; i < candidates && !stopped(); i++) {
+                int p = order[i];
+                if (chosen[p]) continue;
+
+                // the candidates of the cover sharing an element with p
+                int n = 0;
+                for (int e : candElems[p])
+                    for (int q : elemCands[e])
+                        if (chosen[q] && !seen[q]) {
+                            seen[q] = true;
+                            overlapping[n++] = q;
+                        }
+                for (int j = 0; j < n; j++) seen[overlapping[j]] = false;
+
+                add(p);
+                sortByArea(overlapping, n);
+                int removed = 0;
+                long freed = 0;
+                for (int j = 0; j < n; j++)
+                    if (redundant(overlapping[j])) {
+                        remove(overlapping[j]);
+                        dropped[removed++] = overlapping[j];
+                        freed += areas[overlapping[j]];
+                    }
+
+                if (removed >= 2 || (removed == 1 && freed < areas[p])) {
+                    changed = true;
+                    continue;
+                }
+
+                for (int j = 0; j < removed; j++) add(dropped[j]);
+                remove(p);
+            }
+
+            // report progress after each pass, as a pass over a large map can take a while
+            if (better()) record();
+        }
+    }
+
+    /**
+     * Removes a few candidates at random and covers the elements they freed again
+     */
+    private void perturb() {
+        int[] cover = cover();
+        int removals = Math.min(cover.length, 1 + random.nextInt(3));
+        for (int i = 0; i < removals; i++) {
+            int j = i + random.nextInt(cover.length - i);
+            int k = cover[j];
+            cover[j] = cover[i];
+            cover[i] = k;
+            remove(k);
+        }
+
+        int[] uncovered = new int[elements];
+        int n = 0;
+        for (int e = 0; e < elements; e++)
+            if (covers[e] == 0) uncovered[n++] = e;
+        shuffle(uncovered, n);
+
+        for (int i = 0; i < n; i++) {
+            int e = uncovered[i];
+            if (covers[e] > 0) continue;
+
+            // the candidate through e covering the most uncovered elements, then the largest
+            int pick = -1, pickGain = -1;
+            for (int k : elemCands[e]) {
+                int gain = 0;
+                for (int f : candElems[k])
+                    if (covers[f] == 0) gain++;
+                if (gain > pickGain || (gain == pickGain && areas[k] > areas[pick])) {
+                    pick = k;
+                    pickGain = gain;
+                }
+            }
+            add(pick);
+        }
+
+        prune();
+    }
+
+    private boolean better() {
+        return size < best.length || (size == best.length && area > bestArea);
+    }
+
+    private boolean worse() {
+        return size > best.length || (size == best.length && area < bestArea);
+    }
+
+    /**
+     * Keeps the current cover as the best, and reports it
+     */
+    private void record() {
+        best = cover();
+        bestArea = area;
+
+        AnytimeResult.Improvement improvement = new AnytimeResult.Improvement(System.nanoTime() - start, size, area);
+        trajectory.add(improvement);
+        if (onImprovement != null) onImprovement.accept(improvement);
+    }
+
+    private void restore() {
+        for (int k : cover()) remove(k);
+        for (int k : best) add(k);
+    }
+
+    private int[] cover() {
+        int[] cover = new int[size];
+        for (int k = 0, n = 0; k < candidates; k++)
+            if (chosen[k]) cover[n++] = k;
+        return cover;
+    }
+
+    /**
+     * Counts a set of elements no two of which share a candidate, each needing a candidate of its own
+     */
+    private int lowerBound() {
+        boolean[] used = new boolean[candidates];
+        Integer[] order = new Integer[elements];
+        for (int e = 0; e < elements; e++) order[e] = e;
+        java.util.Arrays.sort(order, (a, b) -> elemCands[a].length - elemCands[b].length);
+
+        int bound = 0;
+        for (int e : order) {
+            boolean free = true;
+            for (int k : elemCands[e]) free &= !used[k];
+            if (!free) continue;
+
+            bound++;
+            for (int k : elemCands[e]) used[k] = true;
+        }
+
+        return bound;
+    }
+
+    /**
+     * Sorts the first n candidates of an array from the smallest area to the largest
+     */
+    private void sortByArea(int[] cands, int n) {
+        for (int i = 1; i < n; i++) {
+            int k = cands[i], j = i - 1;
+            while (j >= 0 && areas[cands[j]] > areas[k]) {
+                cands[j + 1] = cands[j];
+                j--;
+            }
+            cands[j + 1] = k;
+        }
+    }
+
+    private void shuffle(int[] values) {
+        shuffle(values, values.length);
+    }
+
+    private void shuffle(int[] values, int n) {
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1), t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package src.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *  The {@code MultiOutputCover} class holds a solution for several maps of
+ *  the same shape, such as the output bits of one circuit. Each term is a
+ *  grouping used by one or more of the outputs, so a term shared by several
+ *  outputs is only counted once.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class MultiOutputCover {
+
+    private final int outputs;
+    private final List<Grouping> terms;
+    private final long[] usedBy;
+    private final List<List<Grouping>> groupings;
+
+    /**
+     * Initialises a new cover
+     * @param outputs the number of outputs
+     * @param terms the distinct groupings used by any output
+     * @param usedBy for each term, the outputs using it, with bit o set for output o
+     */
+    public MultiOutputCover(int outputs, List<Grouping> terms, long[] usedBy) {
+        if (outputs <= 0 || outputs > 64) throw new IllegalArgumentException("outputs was out of range: " + outputs);
+        if (terms.size() != usedBy.length) throw new IllegalArgumentException("terms and usedBy differ in length");
+
+        this.outputs = outputs;
+        this.terms = Collections.unmodifiableList(new ArrayList<>(terms));
+        this.usedBy = usedBy.clone();
+
+        ArrayList<List<Grouping>> lists = new ArrayList<>(outputs);
+        for (int o = 0; o < outputs; o++) {
+            ArrayList<Grouping> list = new ArrayList<>();
+            for (int t = 0; t < usedBy.length; t++)
+                if ((usedBy[t] >>> o & 1) != 0) list.add(terms.get(t));
+            lists.add(Collections.unmodifiableList(list));
+        }
+        this.groupings = Collections.unmodifiableList(lists);
+    }
+
+    /**
+     * Gets the number of outputs
+     * @return number of outputs
+     */
+    public int getOutputs() {
+        return outputs;
+    }
+
+    /**
+     * Gets the distinct groupings used by any output, in the order they were selected
+     * @return an unmodifiable list of groupings
+     */
+    public List<Grouping> getTerms() {
+        return terms;
+    }
+
+    /**
+     * Gets the outputs using a term
+     * @param term the index of the term
+     * @return a mask with bit o set if output o uses the term
+     */
+    public long getUsedBy(int term) {
+        return usedBy[term];
+    }
+
+    /**
+     * Gets the groupings covering one output
+     * @param output the index of the output
+     * @return an unmodifiable list of groupings, in the order they were selected
+     */
+    public List<Grouping> getGroupings(int output) {
+        return groupings.get(output);
+    }
+
+    /**
+     * The number of distinct terms
+     * @return number of terms
+     */
+    public int size() {
+        return terms.size();
+    }
+
+    /**
+     * Generates a string representation of the cover.
+     * @return The string representation
+     */
+    public String toString()
+    {return "MultiOutputCover: " + terms.size() + " terms over " + outputs + " outputs";}
+}
@@ -0,0 +1,278 @@
+package src.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *  The {@code MultiOutputSolver} class solves up to 64 maps of the same
+ *  shape together, finding product terms that several outputs can share.
+ *
+ *  Each cell is given a tag, a {@code long} with bit o set when the cell is
+ *  a 1 in map o, and the groupings are enumerated once over the tags in the
+ *  same way {@code GroupingEnumerator} works over bits: the tag of a
+ *  2^i by 2^j region is the AND of the tags of its halves, and so is the
+ *  set of outputs the region is a valid grouping for. A region is kept when
+ *  no region twice its height or width containing it has the same tag, so
+ *  each grouping kept is maximal for the set of outputs it is tagged with.
+ *
+ *  The cover is then selected over (output, cell) pairs by the same
+ *  {@code CoverSelector} as for one map, largest groupings first, so a
+ *  grouping valid for several outputs covers the 1s of all of them at once
+ *  and is only counted as one term. Each output then uses every selected
+ *  grouping that covered one of its 1s first.
+ *
+ *  Like {@code GroupingSolver}, the buffers are kept between calls, and a
+ *  solver is not thread safe.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class MultiOutputSolver {
+
+    /** The most maps that can be solved together */
+    public static final int MAX_OUTPUTS = 64;
+
+    private final CoverSelector selector = new CoverSelector();
+
+    private int width;
+    private int height;
+    private int rowLevels;
+    private int colLevels;
+
+    // the tags of the 2^i by 2^j regions starting at each cell, for the current and next i
+    private long[][] current = new long[0][];
+    private long[][] next = new long[0][];
+
+    // the groupings found, as startRow << 32 | startCol, with their tags and their level i * colLevels + j
+    private long[] starts = new long[16];
+    private long[] tags = new long[16];
+    private int[] levels = new int[16];
+    private int count;
+
+    private long[] ordered = new long[16];
+    private long[] orderedTags = new long[16];
+    private int[] orderedLevels = new int[16];
+
+    /**
+     * Finds a small set of groupings covering the 1s of every map, sharing groupings between maps where it can.
+     * The maps passed in are left unchanged.
+     * @param maps the Karnaugh maps, all of the same dimensions
+     * @return the groupings, and the outputs using each
+     */
+    public MultiOutputCover solve(List<KarnaughMap> maps) {
+        if (maps == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (maps.isEmpty() || maps.size() > MAX_OUTPUTS) throw new IllegalArgumentException("Number of maps was out of range: " + maps.size());
+        for (KarnaughMap map : maps) {
+            if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+            if (map.getWidth() != maps.get(0).getWidth() || map.getHeight() != maps.get(0).getHeight())
+                throw new IllegalArgumentException("Karnaugh maps are not of the same dimensions");
+        }
+
+        int outputs = maps.size();
+        width = maps.get(0).getWidth();
+        height = maps.get(0).getHeight();
+
+        // Step 1: Find every grouping maximal for the outputs it is valid for, from the tags of the cells
+        enumerate(maps);
+
+        // Step 2: Index the (output, cell) pairs each grouping covers, largest groupings first
+        int cells = width * height;
+        selector.reset(outputs * cells);
+
+        for (int o = 0; o < outputs; o++) {
+            long[] words = maps.get(o).words();
+            int stride = maps.get(o).stride();
+
+            for (int row = 0; row < height; row++)
+                for (int w = 0; w < stride; w++)
+                    for (long x = words[row * stride + w]; x != 0; x &= x - 1)
+                        selector.require(o * cells + row * width + (w << 6) + Long.numberOfTrailingZeros(x));
+        }
+
+        for (int k = 0; k < count; k++) {
+            int rows = 1 << levels[k] / colLevels, cols = 1 << levels[k] % colLevels;
+            selector.addCandidate(rows * cols);
+
+            for (long tag = tags[k]; tag != 0; tag &= tag - 1) {
+                int o = Long.numberOfTrailingZeros(tag);
+                for (int i = 0, row = (int) (starts[k] >>> 32); i < rows; i++, row = row + 1 == height ? 0 : row + 1)
+                    for (int j = 0, col = (int) starts[k]; j < cols; j++, col = col + 1 == width ? 0 : col + 1)
+                        selector.addElement(o * cells + row * width + col);
+            }
+        }
+
+        // Step 3: Select groups until every 1 of every output is covered, taking the group covering the most within each size
+        selector.prepare();
+
+        ArrayList<Grouping> terms = new ArrayList<>();
+        ArrayList<Long> usedBy = new ArrayList<>();
+        boolean[] covered = new boolean[outputs * cells];
+
+        for (int k = selector.next(); k >= 0; k = selector.next()) {
+            int rows = 1 << levels[k] / colLevels, cols = 1 << levels[k] % colLevels;
+            long used = 0;
+
+            // an output uses the grouping if it is the first selected to cover one of its 1s
+            for (long tag = tags[k]; tag != 0; tag &= tag - 1) {
+                int o = Long.numberOfTrailingZeros(tag);
+                for (int i = 0, row = (int) (starts[k] >>> 32); i < rows; i++, row = row + 1 == height ? 0 : row + 1)
+                    for (int j = 0, col = (int) starts[k]; j < cols; j++, col = col + 1 == width ? 0 : col + 1)
+                        if (!covered[o * cells + row * width + col]) {
+                            covered[o * cells + row * width + col] = true;
+                            used |= 1L << o;
+                        }
+            }
+
+            terms.add(Grouping.ofSpan((int) (starts[k] >>> 32), (int) starts[k], rows, cols, width, height));
+            usedBy.add(used);
+        }
+
+        long[] masks = new long[usedBy.size()];
+        for (int t = 0; t < masks.length; t++) masks[t] = usedBy.get(t);
+
+        return new MultiOutputCover(outputs, terms, masks);
+    }
+
+    /**
+     * Fills the groupings found with every region maximal for its tag, largest first
+     */
+    private void enumerate(List<KarnaughMap> maps) {
+        rowLevels = 32 - Integer.numberOfLeadingZeros(height);
+        colLevels = 32 - Integer.numberOfLeadingZeros(width);
+        count = 0;
+
+        int cells = width * height;
+        if (current.length < colLevels) {
+            current = Arrays.copyOf(current, colLevels);
+            next = Arrays.copyOf(next, colLevels);
+        }
+        for (int j = 0; j < colLevels; j++) {
+            if (current[j] == null || current[j].length < cells) current[j] = new long[cells];
+            if (next[j] == null || next[j].length < cells) next[j] = new long[cells];
+        }
+
+        // 1 by 1 regions are tagged by the maps, and wider regions by ANDing with the tags a half width across
+        long[] tag = current[0];
+        Arrays.fill(tag, 0, cells, 0);
+        for (int o = 0; o < maps.size(); o++) {
+            KarnaughMap map = maps.get(o);
+            long[] words = map.words();
+            int stride = map.stride();
+
+            for (int row = 0; row < height; row++)
+                for (int w = 0; w < stride; w++)
+                    for (long x = words[row * stride + w]; x != 0; x &= x - 1)
+                        tag[row * width + (w << 6) + Long.numberOfTrailingZeros(x)] |= 1L << o;
+        }
+
+        for (int j = 1; j < colLevels; j++) {
+            long[] src = current[j - 1], dst = current[j];
+            int shift = 1 << (j - 1);
+            for (int row = 0; row < height; row++) {
+                int base = row * width;
+                for (int col = 0, across = shift % width; col < width; col++, across = across + 1 == width ? 0 : across + 1)
+                    dst[base + col] = src[base + col] & src[base + across];
+            }
+        }
+
+        // taller regions are tagged by ANDing with the tags a half height down, one row level at a time
+        for (int i = 0; i < rowLevels; i++) {
+            if (i + 1 < rowLevels) {
+                int shift = 1 << i;
+                for (int j = 0; j < colLevels; j++)
+                    for (int row = 0; row < height; row++) {
+                        int base = row * width, below = ((row + shift) % height) * width;
+                        for (int col = 0; col < width; col++) next[j][base + col] = current[j][base + col] & current[j][below + col];
+                    }
+            }
+
+            for (int j = 0; j < colLevels; j++) collect(i, j);
+
+            long[][] swap = current;
+            current = next;
+            next = swap;
+        }
+
+        order();
+    }
+
+    /**
+     * Adds the 2^i by 2^j regions whose tag differs from that of every region twice as tall or wide containing them
+     */
+    private void collect(int i, int j) {
+        long[] plane = current[j];
+        int rows = 1 << i, cols = 1 << j;
+        boolean taller = i + 1 < rowLevels, wider = j + 1 < colLevels;
+
+        // groupings covering every row or column can start anywhere, so only the first is kept
+        int lastRow = rows == height ? 1 : height, lastCol = cols == width ? 1 : width;
+
+        for (int row = 0; row < lastRow; row++)
+            for (int col = 0; col < lastCol; col++) {
+                long tag = plane[row * width + col];
+                if (tag == 0) continue;
+
+                boolean maximal = true;
+                if (taller)
+                    for (int shift = 0, above = row; maximal && shift <= (2 * rows == height ? 0 : rows); shift++, above = above == 0 ? height - 1 : above - 1)
+                        maximal = next[j][above * width + col] != tag;
+                if (wider)
+                    for (int shift = 0, left = col; maximal && shift <= (2 * cols == width ? 0 : cols); shift++, left = left == 0 ? width - 1 : left - 1)
+                        maximal = current[j + 1][row * width + left] != tag;
+
+                if (maximal) add(row, col, tag, i * colLevels + j);
+            }
+    }
+
+    private void add(int row, int col, long tag, int level) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, 2 * count);
+            tags = Arrays.copyOf(tags, 2 * count);
+            levels = Arrays.copyOf(levels, 2 * count);
+        }
+
+        starts[count] = (long) row << 32 | col;
+        tags[count] = tag;
+        levels[count++] = level;
+    }
+
+    /**
+     * Sorts the groupings found from the largest area to the smallest, the tallest first within an area,
+     * keeping the order they were found in within a size, as {@code GroupingEnumerator} does
+     */
+    private void order() {
+        int[] place = new int[rowLevels * colLevels];
+        for (int k = 0; k < count; k++) place[levels[k]]++;
+
+        // turn the number of groupings of each size into the place the first of them goes
+        for (int area = rowLevels + colLevels - 2, n = 0; area >= 0; area--)
+            for (int i = Math.min(area, rowLevels - 1); i >= 0 && area - i < colLevels; i--) {
+                int level = i * colLevels + area - i, size = place[level];
+                place[level] = n;
+                n += size;
+            }
+
+        if (ordered.length < count) {
+            ordered = new long[starts.length];
+            orderedTags = new long[starts.length];
+            orderedLevels = new int[starts.length];
+        }
+
+        for (int k = 0; k < count; k++) {
+            int p = place[levels[k]]++;
+            ordered[p] = starts[k];
+            orderedTags[p] = tags[k];
+            orderedLevels[p] = levels[k];
+        }
+
+        long[] swapStarts = starts, swapTags = tags;
+        int[] swapLevels = levels;
+        starts = ordered;
+        tags = orderedTags;
+        levels = orderedLevels;
+        ordered = swapStarts;
+        orderedTags = swapTags;
+        orderedLevels = swapLevels;
+    }
+}
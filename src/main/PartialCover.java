@@ -0,0 +1,67 @@
+package src.main;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *  The {@code PartialCover} class holds the first groupings of a solution,
+ *  when selection was stopped after a number of groupings, together with
+ *  the number of 1s they leave uncovered.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class PartialCover {
+
+    private final List<Grouping> groupings;
+    private final int uncovered;
+
+    /**
+     * Initialises a new partial cover
+     * @param groupings the groupings selected, in the order they were selected
+     * @param uncovered the number of 1s not covered by any of them
+     */
+    public PartialCover(List<Grouping> groupings, int uncovered) {
+        this.groupings = Collections.unmodifiableList(groupings);
+        this.uncovered = uncovered;
+    }
+
+    /**
+     * Gets the groupings selected
+     * @return an unmodifiable list of groupings
+     */
+    public List<Grouping> getGroupings() {
+        return groupings;
+    }
+
+    /**
+     * Gets the number of 1s not covered by any grouping selected
+     * @return number of cells
+     */
+    public int getUncovered() {
+        return uncovered;
+    }
+
+    /**
+     * Determines if the groupings cover every 1, so they are the whole solution
+     * @return True if no 1 is left uncovered
+     */
+    public boolean isComplete() {
+        return uncovered == 0;
+    }
+
+    /**
+     * The number of groupings selected
+     * @return number of groupings
+     */
+    public int size() {
+        return groupings.size();
+    }
+
+    /**
+     * Generates a string representation of the partial cover.
+     * @return The string representation
+     */
+    public String toString()
+    {return "PartialCover: " + groupings.size() + " groupings, " + uncovered + " cells uncovered";}
+}
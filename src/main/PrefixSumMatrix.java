@@ -0,0 +1,121 @@
+package src.main;
+
+/**
+ *  The {@code PrefixSumMatrix} class counts the 1s in any region of a
+ *  Karnaugh map in constant time, including regions that wrap around the
+ *  edges.
+ *
+ *  The prefix sums are taken over the map tiled twice in each direction, so
+ *  a region starting at (row, col) that wraps past the bottom or right edge
+ *  is one plain rectangle of the doubled layout, and every query is the same
+ *  four lookups.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class PrefixSumMatrix {
+
+    private final int width;
+    private final int height;
+
+    // sums[r * (2 * width + 1) + c] holds the number of 1s in rows [0, r) and columns [0, c) of the doubled map
+    private final int[] sums;
+    private final int stride;
+
+    /**
+     * Creates a new prefix sum matrix for a Karnaugh map
+     * @param kmap the Karnaugh map
+     */
+    public PrefixSumMatrix(boolean[][] kmap) {
+        this(KarnaughMap.of(kmap));
+    }
+
+    /**
+     * Creates a new prefix sum matrix for a Karnaugh map, where only 1s are counted
+     * @param kmap the Karnaugh map
+     */
+    public PrefixSumMatrix(int[][] kmap) {
+        this(KarnaughMap.of(kmap));
+    }
+
+    /**
+     * Creates a new prefix sum matrix for a packed Karnaugh map
+     * @param map the Karnaugh map
+     */
+    public PrefixSumMatrix(KarnaughMap map) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+
+        width = map.getWidth();
+        height = map.getHeight();
+        stride = 2 * width + 1;
+        sums = new int[(2 * height + 1) * stride];
+
+        for (int r = 0; r < 2 * height; r++) {
+            int rowSum = 0;
+            for (int c = 0; c < 2 * width; c++) {
+                if (map.get(r % height, c % width)) rowSum++;
+                sums[(r + 1) * stride + c + 1] = sums[r * stride + c + 1] + rowSum;
+            }
+        }
+    }
+
+    /**
+     * Sums a region of the Karnaugh map in constant time. The region runs from the first
+     * corner to the second, wrapping around the edges when the second corner comes before
+     * the first, so the whole map is given by a row and column just before the first ones.
+     * @param row0 the row of the top left corner
+     * @param col0 the column of the top left corner
+     * @param row1 the row of the bottom right corner
+     * @param col1 the column of the bottom right corner
+     * @return the number of 1s in the region
+     */
+    public int sumRegion(int row0, int col0, int row1, int col1) {
+        checkCell(row0, col0);
+        checkCell(row1, col1);
+
+        return sum(row0, col0, (row1 - row0 + height) % height + 1, (col1 - col0 + width) % width + 1);
+    }
+
+    /**
+     * Sums the region of a given size starting at a cell, wrapping around the edges
+     * @param startRow the top row of the region
+     * @param startCol the left column of the region
+     * @param rows the height of the region, at most the height of the map
+     * @param cols the width of the region, at most the width of the map
+     * @return the number of 1s in the region
+     */
+    public int sum(int startRow, int startCol, int rows, int cols) {
+        checkCell(startRow, startCol);
+        if (rows <= 0 || rows > height || cols <= 0 || cols > width) throw new IllegalArgumentException("Region does not fit in the map");
+
+        int top = startRow * stride, bottom = (startRow + rows) * stride;
+        return sums[bottom + startCol + cols] - sums[bottom + startCol] - sums[top + startCol + cols] + sums[top + startCol];
+    }
+
+    /**
+     * Sums the cells of a grouping
+     * @param g the grouping, which may wrap around the edges of the map
+     * @return the number of 1s in the grouping
+     */
+    public int sum(Grouping g) {
+        checkFits(g);
+        return sum(g.getStartRow(), g.getStartCol(), g.height(), g.width());
+    }
+
+    /**
+     * Determines if every cell of a grouping is a 1
+     * @param g the grouping, which may wrap around the edges of the map
+     * @return True if the grouping contains only 1s
+     */
+    public boolean isAllOnes(Grouping g) {
+        return sum(g) == g.size();
+    }
+
+    private void checkCell(int row, int col) {
+        if (row < 0 || row >= height || col < 0 || col >= width) throw new IllegalArgumentException("Cell is outside the map: " + row + ", " + col);
+    }
+
+    private void checkFits(Grouping g) {
+        if (g.getMapWidth() != width || g.getMapHeight() != height) throw new IllegalArgumentException("Grouping is of a map of different dimensions");
+    }
+}
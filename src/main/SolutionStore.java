@@ -0,0 +1,509 @@
+package src.main;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ *  The {@code SolutionStore} class keeps solutions on disk, so that they
+ *  outlive the process that found them. Solutions are keyed by the bits of
+ *  the map, and each is held as its packed groupings (see
+ *  {@link Grouping#pack()}).
+ *
+ *  Solutions are appended to a data file, and found through an index in a
+ *  second file of the same name ending {@code .idx}. Both are memory mapped,
+ *  so once their pages are cached, a lookup reads the map and its groupings
+ *  straight from the page cache, and {@code getInto} allocates nothing.
+ *
+ *  The data file is mapped in segments of 16 MiB, and a record never crosses
+ *  from one segment into the next. Each record holds its length, a CRC-32 of
+ *  the rest of the record, the dimensions of the map, its words, and its
+ *  packed groupings. The index is an open addressing table of 16 byte slots,
+ *  each holding a hash of a map and the offset of its record, probed
+ *  linearly, and doubled in a new file once it is half full.
+ *
+ *  Any number of threads may look solutions up while one thread at a time
+ *  adds them. A record is written in full before the offset in its slot is
+ *  published with a release store, and lookups read the offset with an
+ *  acquire load, so a lookup either misses a solution being added or sees
+ *  all of it. Only one process may open a store at once.
+ *
+ *  The index is marked clean when the store is closed. A store that was not
+ *  closed cleanly is recovered on opening by reading the data file from the
+ *  start, checking the CRC of each record, and rebuilding the index from the
+ *  records up to the first that is torn or missing, which is where the file
+ *  is cut off. Solutions added since the last {@code sync} may be lost if
+ *  the machine fails, but those recovered are always whole.
+ *
+ *  Maps more than {@link Grouping#MAX_PACKED_SIZE} cells wide or tall, and
+ *  solutions with a record larger than a segment, are not stored.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class SolutionStore implements Closeable {
+
+    private static final int DATA_MAGIC = 0x4B4D5344;
+    private static final int INDEX_MAGIC = 0x4B4D5349;
+    private static final int VERSION = 1;
+
+    private static final int SEGMENT_BITS = 24;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final int HEADER_SIZE = 64;
+
+    // a record is its length, CRC, width, height and number of groupings, then the words and groupings
+    private static final int RECORD_HEADER = 24;
+    private static final int SKIP = -1;
+
+    // the index header holds its magic, version, capacity, count, the data length indexed, and the clean flag
+    private static final int INDEX_CAPACITY = 8;
+    private static final int INDEX_COUNT = 12;
+    private static final int INDEX_DATA_END = 16;
+    private static final int INDEX_CLEAN = 24;
+    private static final int SLOT_SIZE = 16;
+    private static final int MIN_CAPACITY = 1024;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path dataPath;
+    private final Path indexPath;
+    private final FileChannel data;
+    private final FileLock lock;
+    private final CRC32 crc = new CRC32();
+
+    private volatile MappedByteBuffer[] segments;
+    private volatile Index index;
+    private volatile boolean closed;
+
+    // the offset the next record is written at, only used by the writer
+    private long end;
+
+    /**
+     * An index file, replaced by a larger one when it fills
+     */
+    private static class Index {
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final int capacity;
+
+        Index(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+    }
+
+    private SolutionStore(Path dataPath, FileChannel data, FileLock lock) {
+        this.dataPath = dataPath;
+        this.indexPath = dataPath.resolveSibling(dataPath.getFileName() + ".idx");
+        this.data = data;
+        this.lock = lock;
+    }
+
+    /**
+     * Opens a store, creating it if the file does not exist, and recovering it if it was not closed cleanly.
+     * @param path the data file; the index is kept beside it, with {@code .idx} appended to its name
+     * @return the store
+     * @throws IOException if the files could not be opened, are not a store of this version,
+     *                     or are open in another process
+     */
+    public static SolutionStore open(Path path) throws IOException {
+        if (path == null) throw new IllegalArgumentException("path was null");
+
+        FileChannel data = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock lock;
+            try {
+                lock = data.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) throw new IOException("Solution store is already open: " + path);
+
+            SolutionStore store = new SolutionStore(path, data, lock);
+            store.load();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            data.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the files, recovering the index from the data if it was not closed cleanly
+     */
+    private void load() throws IOException {
+        long size = data.size();
+        int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+        segments = new MappedByteBuffer[0];
+        for (int s = 0; s < Math.max(count, 1); s++) mapSegment(s);
+
+        MappedByteBuffer first = segments[0];
+        // a file cut off before its header was written is empty
+        if (first.getInt(0) == 0 && first.getInt(4) == 0) {
+            first.putInt(0, DATA_MAGIC);
+            first.putInt(4, VERSION);
+        } else if (first.getInt(0) != DATA_MAGIC || first.getInt(4) != VERSION) {
+            throw new IOException("Not a solution store of this version: " + dataPath);
+        }
+
+        Index existing = Files.exists(indexPath) ? openIndex(indexPath) : null;
+        if (existing != null && existing.buffer.getInt(INDEX_CLEAN) == 1 && existing.buffer.getLong(INDEX_DATA_END) <= size) {
+            // closed cleanly, so everything up to the end it records is indexed
+            index = existing;
+            end = recover(existing.buffer.getLong(INDEX_DATA_END), false);
+        } else {
+            if (existing != null) existing.channel.close();
+            index = createIndex(indexPath, MIN_CAPACITY);
+            end = recover(HEADER_SIZE, true);
+        }
+
+        index.buffer.putLong(INDEX_DATA_END, end);
+        index.buffer.putInt(INDEX_CLEAN, 0);
+        index.buffer.force();
+    }
+
+    /**
+     * Indexes the records from an offset up to the first that is torn or missing
+     * @param clear True to clear everything after the last whole record, as after a crash
+     * @return the offset after the last whole record
+     */
+    private long recover(long from, boolean clear) throws IOException {
+        long pos = from;
+
+        while (true) {
+            int segment = (int) (pos >>> SEGMENT_BITS);
+            if (segment >= segments.length) break;
+
+            MappedByteBuffer buffer = segments[segment];
+            int at = (int) (pos & (SEGMENT_SIZE - 1));
+            int length = buffer.getInt(at);
+
+            if (length == SKIP) {
+                pos = (long) (segment + 1) << SEGMENT_BITS;
+                continue;
+            }
+            if (!valid(buffer, at, length)) break;
+
+            end = pos + length;
+            add(hash(buffer, at), pos);
+            pos += length;
+        }
+
+        // a torn record, or one left over from before, must not be taken for a record later
+        if (clear) for (int s = (int) (pos >>> SEGMENT_BITS); s < segments.length; s++) {
+            MappedByteBuffer buffer = segments[s];
+            for (int at = s == pos >>> SEGMENT_BITS ? (int) (pos & (SEGMENT_SIZE - 1)) : 0; at < SEGMENT_SIZE; at += 8)
+                if (buffer.getLong(at) != 0) buffer.putLong(at, 0);
+        }
+
+        return pos;
+    }
+
+    /**
+     * Determines if a whole record starts at an offset in a segment
+     */
+    private boolean valid(MappedByteBuffer buffer, int at, int length) {
+        if (length < RECORD_HEADER || (length & 7) != 0 || at + (long) length > SEGMENT_SIZE) return false;
+
+        int width = buffer.getInt(at + 8), height = buffer.getInt(at + 12), groups = buffer.getInt(at + 16);
+        if (width <= 0 || height <= 0 || width > Grouping.MAX_PACKED_SIZE || height > Grouping.MAX_PACKED_SIZE || groups < 0) return false;
+        if (recordLength(width, height, groups) != length) return false;
+
+        return checksum(buffer, at, length) == buffer.getInt(at + 4);
+    }
+
+    private int checksum(MappedByteBuffer buffer, int at, int length) {
+        ByteBuffer record = buffer.duplicate();
+        record.limit(at + length).position(at + 8);
+        crc.reset();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private static long recordLength(int width, int height, int groups) {
+        return RECORD_HEADER + 8L * ((long) height * ((width + 63) >>> 6) + groups);
+    }
+
+    /**
+     * Looks up the solution for a map, adding its groupings to a list.
+     * Nothing is allocated unless the list grows.
+     * @param map the Karnaugh map
+     * @param out the list to add the groupings to
+     * @return True if the solution was found
+     */
+    public boolean getInto(KarnaughMap map, GroupingList out) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (closed) throw new IllegalStateException("Solution store is closed");
+
+        long offset = find(index, hash(map), map);
+        if (offset < 0) return false;
+
+        MappedByteBuffer buffer = segments[(int) (offset >>> SEGMENT_BITS)];
+        int at = (int) (offset & (SEGMENT_SIZE - 1));
+        int groups = buffer.getInt(at + 16);
+        int start = at + RECORD_HEADER + 8 * map.words().length;
+        for (int g = 0; g < groups; g++) out.addPacked(buffer.getLong(start + 8 * g));
+
+        return true;
+    }
+
+    /**
+     * Looks up the solution for a map.
+     * @param map the Karnaugh map
+     * @return the groupings, or null if the map has not been stored
+     */
+    public List<Grouping> get(KarnaughMap map) {
+        GroupingList out = new GroupingList();
+        return getInto(map, out) ? out : null;
+    }
+
+    /**
+     * Stores the solution for a map, unless one is already stored.
+     * @param map the Karnaugh map
+     * @param groupings the groupings of its solution
+     * @return True if the solution was added
+     */
+    public synchronized boolean put(KarnaughMap map, List<Grouping> groupings) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+        if (groupings == null) throw new IllegalArgumentException("groupings was null");
+        if (closed) throw new IllegalStateException("Solution store is closed");
+
+        int width = map.getWidth(), height = map.getHeight();
+        if (width > Grouping.MAX_PACKED_SIZE || height > Grouping.MAX_PACKED_SIZE) return false;
+
+        long length = recordLength(width, height, groupings.size());
+        if (length > SEGMENT_SIZE - HEADER_SIZE) return false;
+
+        long hash = hash(map);
+        if (find(index, hash, map) >= 0) return false;
+
+        try {
+            // records never cross into the next segment, so skip to it if this one is too full
+            if ((end & (SEGMENT_SIZE - 1)) + length > SEGMENT_SIZE) {
+                segments[(int) (end >>> SEGMENT_BITS)].putInt((int) (end & (SEGMENT_SIZE - 1)), SKIP);
+                end = ((end >>> SEGMENT_BITS) + 1) << SEGMENT_BITS;
+            }
+            if (end >>> SEGMENT_BITS >= segments.length) mapSegment(segments.length);
+
+            MappedByteBuffer buffer = segments[(int) (end >>> SEGMENT_BITS)];
+            int at = (int) (end & (SEGMENT_SIZE - 1));
+            long[] words = map.words();
+
+            buffer.putInt(at + 8, width);
+            buffer.putInt(at + 12, height);
+            buffer.putInt(at + 16, groupings.size());
+            buffer.putInt(at + 20, 0);
+            int p = at + RECORD_HEADER;
+            for (long word : words) {
+                buffer.putLong(p, word);
+                p += 8;
+            }
+            for (Grouping g : groupings) {
+                buffer.putLong(p, g.pack());
+                p += 8;
+            }
+            buffer.putInt(at + 4, checksum(buffer, at, (int) length));
+            buffer.putInt(at, (int) length);
+
+            long offset = end;
+            end += length;
+            add(hash, offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return true;
+    }
+
+    /**
+     * The number of solutions stored
+     * @return number of solutions
+     */
+    public int size() {
+        return index.buffer.getInt(INDEX_COUNT);
+    }
+
+    /**
+     * Writes every solution added so far to the disk, so they survive the machine failing.
+     */
+    public synchronized void sync() {
+        if (closed) throw new IllegalStateException("Solution store is closed");
+
+        for (MappedByteBuffer segment : segments) segment.force();
+        index.buffer.force();
+    }
+
+    /**
+     * Writes the solutions to the disk and marks the store as closed cleanly.
+     * @throws IOException if the files could not be closed
+     */
+    public synchronized void close() throws IOException {
+        if (closed) return;
+
+        sync();
+        index.buffer.putInt(INDEX_CLEAN, 1);
+        index.buffer.force();
+        closed = true;
+
+        index.channel.close();
+        lock.release();
+        data.close();
+    }
+
+    /**
+     * Finds the record of a map in an index
+     * @return the offset of the record, or -1 if the map is not in the index
+     */
+    private long find(Index idx, long hash, KarnaughMap map) {
+        int mask = idx.capacity - 1;
+
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int at = HEADER_SIZE + slot * SLOT_SIZE;
+            long offset = (long) LONGS.getAcquire(idx.buffer, at + 8);
+            if (offset == 0) return -1;
+            if (idx.buffer.getLong(at) == hash && matches(offset, map)) return offset;
+        }
+    }
+
+    /**
+     * Determines if the record at an offset is of a map
+     */
+    private boolean matches(long offset, KarnaughMap map) {
+        MappedByteBuffer buffer = segments[(int) (offset >>> SEGMENT_BITS)];
+        int at = (int) (offset & (SEGMENT_SIZE - 1));
+        if (buffer.getInt(at + 8) != map.getWidth() || buffer.getInt(at + 12) != map.getHeight()) return false;
+
+        long[] words = map.words();
+        for (int w = 0; w < words.length; w++)
+            if (buffer.getLong(at + RECORD_HEADER + 8 * w) != words[w]) return false;
+
+        return true;
+    }
+
+    /**
+     * Indexes a record ending at {@code end}, growing the index first if it would be more than half full
+     */
+    private void add(long hash, long offset) throws IOException {
+        if (2 * (index.buffer.getInt(INDEX_COUNT) + 1) > index.capacity) grow();
+        insert(index, hash, offset);
+        index.buffer.putLong(INDEX_DATA_END, end);
+    }
+
+    /**
+     * Publishes the offset of a record in the first free slot for its hash
+     */
+    private static void insert(Index idx, long hash, long offset) {
+        int mask = idx.capacity - 1;
+        int slot = (int) hash & mask;
+        while ((long) LONGS.getAcquire(idx.buffer, HEADER_SIZE + slot * SLOT_SIZE + 8) != 0) slot = (slot + 1) & mask;
+
+        int at = HEADER_SIZE + slot * SLOT_SIZE;
+        idx.buffer.putLong(at, hash);
+        LONGS.setRelease(idx.buffer, at + 8, offset);
+        idx.buffer.putInt(INDEX_COUNT, idx.buffer.getInt(INDEX_COUNT) + 1);
+    }
+
+    /**
+     * Moves the index to a file twice the size, replacing the old file once the new one is complete.
+     * Lookups already reading the old index carry on reading it.
+     */
+    private void grow() throws IOException {
+        Index old = index;
+        Path temp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+
+        Index grown = createIndex(temp, 2 * old.capacity);
+        for (int slot = 0; slot < old.capacity; slot++) {
+            int at = HEADER_SIZE + slot * SLOT_SIZE;
+            long offset = old.buffer.getLong(at + 8);
+            if (offset != 0) insert(grown, old.buffer.getLong(at), offset);
+        }
+        grown.buffer.putLong(INDEX_DATA_END, end);
+        grown.buffer.force();
+
+        Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index = grown;
+        old.channel.close();
+    }
+
+    private static Index createIndex(Path path, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(0, INDEX_MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(INDEX_CAPACITY, capacity);
+        return new Index(channel, buffer, capacity);
+    }
+
+    /**
+     * Opens an existing index file
+     * @return the index, or null if the file is not an index of this version
+     */
+    private static Index openIndex(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size >= HEADER_SIZE) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            int capacity = buffer.getInt(INDEX_CAPACITY);
+            if (buffer.getInt(0) == INDEX_MAGIC && buffer.getInt(4) == VERSION && Integer.bitCount(capacity) == 1
+                    && size == HEADER_SIZE + (long) capacity * SLOT_SIZE)
+                return new Index(channel, buffer, capacity);
+        }
+
+        channel.close();
+        return null;
+    }
+
+    /**
+     * Maps a segment of the data file, growing the file if it does not reach that far yet
+     */
+    private void mapSegment(int segment) throws IOException {
+        MappedByteBuffer buffer = data.map(FileChannel.MapMode.READ_WRITE, (long) segment << SEGMENT_BITS, SEGMENT_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        MappedByteBuffer[] grown = Arrays.copyOf(segments, segment + 1);
+        grown[segment] = buffer;
+        segments = grown;
+    }
+
+    private static long hash(KarnaughMap map) {
+        long h = mix(map.getWidth() * 0x9E3779B97F4A7C15L ^ map.getHeight());
+        for (long word : map.words()) h = mix(h ^ word);
+        return h;
+    }
+
+    private static long hash(MappedByteBuffer buffer, int at) {
+        int width = buffer.getInt(at + 8), height = buffer.getInt(at + 12);
+        int words = height * ((width + 63) >>> 6);
+
+        long h = mix(width * 0x9E3779B97F4A7C15L ^ height);
+        for (int w = 0; w < words; w++) h = mix(h ^ buffer.getLong(at + RECORD_HEADER + 8 * w));
+        return h;
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
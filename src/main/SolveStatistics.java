@@ -0,0 +1,168 @@
+package src.main;
+
+/**
+ *  The {@code SolveStatistics} class holds the phase times and work counts
+ *  of one solve, as passed to a {@code SolverListener}.
+ *
+ *  A solve runs in three phases: enumeration finds every maximal grouping
+ *  from the bit planes of the map, indexing lists the 1s each grouping
+ *  covers and the groupings covering each 1, and selection picks groupings
+ *  until every 1 is covered. Maps of up to 4 variables are instead looked up
+ *  in {@code FourVariableTable}, in which case only the total time is set.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class SolveStatistics {
+
+    int width;
+    int height;
+    boolean tableLookup;
+    long enumerationNanos;
+    long indexNanos;
+    long selectionNanos;
+    long totalNanos;
+    long candidatesTested;
+    int groupingsFound;
+    long cellsScanned;
+    long comparisons;
+    int groupingsSelected;
+
+    /**
+     * Copies the statistics, to keep them after the listener returns
+     * @return a copy
+     */
+    public SolveStatistics copy() {
+        SolveStatistics copy = new SolveStatistics();
+        copy.width = width;
+        copy.height = height;
+        copy.tableLookup = tableLookup;
+        copy.enumerationNanos = enumerationNanos;
+        copy.indexNanos = indexNanos;
+        copy.selectionNanos = selectionNanos;
+        copy.totalNanos = totalNanos;
+        copy.candidatesTested = candidatesTested;
+        copy.groupingsFound = groupingsFound;
+        copy.cellsScanned = cellsScanned;
+        copy.comparisons = comparisons;
+        copy.groupingsSelected = groupingsSelected;
+
+        return copy;
+    }
+
+    /**
+     * Clears the statistics for a map of a given size
+     */
+    void clear(int width, int height) {
+        this.width = width;
+        this.height = height;
+        tableLookup = false;
+        enumerationNanos = indexNanos = selectionNanos = totalNanos = 0;
+        candidatesTested = cellsScanned = comparisons = 0;
+        groupingsFound = groupingsSelected = 0;
+    }
+
+    /**
+     * Gets the width of the map solved
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the map solved
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Determines if the solution was looked up in {@code FourVariableTable}
+     * @return True if the map was not solved by the phases
+     */
+    public boolean isTableLookup() {
+        return tableLookup;
+    }
+
+    /**
+     * Gets the time spent finding every maximal grouping
+     * @return the time in nanoseconds
+     */
+    public long getEnumerationNanos() {
+        return enumerationNanos;
+    }
+
+    /**
+     * Gets the time spent indexing the 1s covered by each grouping
+     * @return the time in nanoseconds
+     */
+    public long getIndexNanos() {
+        return indexNanos;
+    }
+
+    /**
+     * Gets the time spent selecting groupings
+     * @return the time in nanoseconds
+     */
+    public long getSelectionNanos() {
+        return selectionNanos;
+    }
+
+    /**
+     * Gets the time spent on the whole solve
+     * @return the time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Gets the number of candidate groupings tested, one for each cell and each power of two size
+     * @return the number of candidates
+     */
+    public long getCandidatesTested() {
+        return candidatesTested;
+    }
+
+    /**
+     * Gets the number of valid maximal groupings found
+     * @return the number of groupings
+     */
+    public int getGroupingsFound() {
+        return groupingsFound;
+    }
+
+    /**
+     * Gets the number of cells read while indexing, once for the map and once for each cell of each grouping
+     * @return the number of cells
+     */
+    public long getCellsScanned() {
+        return cellsScanned;
+    }
+
+    /**
+     * Gets the number of comparisons between groupings made while selecting
+     * @return the number of comparisons
+     */
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    /**
+     * Gets the number of groupings in the solution
+     * @return the number of groupings
+     */
+    public int getGroupingsSelected() {
+        return groupingsSelected;
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height + (tableLookup ? " table lookup" : "")
+                + " total=" + totalNanos + "ns enumeration=" + enumerationNanos + "ns index=" + indexNanos
+                + "ns selection=" + selectionNanos + "ns candidates=" + candidatesTested + " found=" + groupingsFound
+                + " cells=" + cellsScanned + " comparisons=" + comparisons + " selected=" + groupingsSelected;
+    }
+}
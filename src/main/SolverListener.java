@@ -0,0 +1,25 @@
+package src.main;
+
+/**
+ *  The {@code SolverListener} interface is told about every solve run by a
+ *  {@code GroupingSolver} it is set on, with the time spent in each phase
+ *  and counts of the work done. A solver with no listener does not read the
+ *  clock or count anything beyond a few increments.
+ *
+ *  A listener may be called from several threads at once when it is shared
+ *  between solvers, as it is by {@code BatchSolver} and the static methods of
+ *  {@code GroupingAlgorithm}.
+ *
+ *  @author Morgan Jones
+ *
+ */
+@FunctionalInterface
+public interface SolverListener {
+
+    /**
+     * Called when a solve has finished. The statistics object is reused by the solver,
+     * so it is only valid during the call; use {@code copy()} to keep it.
+     * @param statistics the statistics of the solve
+     */
+    void solved(SolveStatistics statistics);
+}
@@ -0,0 +1,187 @@
+package src.main;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  The {@code SolverMetrics} class is a {@code SolverListener} that adds up
+ *  the statistics of every solve it is told about. The totals are held in
+ *  {@code LongAdder}s, so one instance can be shared by solvers on many
+ *  threads without them contending.
+ *
+ *  The totals can be read one at a time, or all at once by
+ *  {@code snapshot()}, named for exporting into a metrics registry.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class SolverMetrics implements SolverListener {
+
+    private final LongAdder solves = new LongAdder();
+    private final LongAdder tableLookups = new LongAdder();
+    private final LongAdder enumerationNanos = new LongAdder();
+    private final LongAdder indexNanos = new LongAdder();
+    private final LongAdder selectionNanos = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxTotalNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder candidatesTested = new LongAdder();
+    private final LongAdder groupingsFound = new LongAdder();
+    private final LongAdder cellsScanned = new LongAdder();
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder groupingsSelected = new LongAdder();
+
+    @Override
+    public void solved(SolveStatistics statistics) {
+        solves.increment();
+        if (statistics.isTableLookup()) tableLookups.increment();
+        enumerationNanos.add(statistics.getEnumerationNanos());
+        indexNanos.add(statistics.getIndexNanos());
+        selectionNanos.add(statistics.getSelectionNanos());
+        totalNanos.add(statistics.getTotalNanos());
+        maxTotalNanos.accumulate(statistics.getTotalNanos());
+        candidatesTested.add(statistics.getCandidatesTested());
+        groupingsFound.add(statistics.getGroupingsFound());
+        cellsScanned.add(statistics.getCellsScanned());
+        comparisons.add(statistics.getComparisons());
+        groupingsSelected.add(statistics.getGroupingsSelected());
+    }
+
+    /**
+     * Gets the number of solves
+     * @return the number of solves
+     */
+    public long getSolves() {
+        return solves.sum();
+    }
+
+    /**
+     * Gets the number of solves looked up in {@code FourVariableTable}
+     * @return the number of solves
+     */
+    public long getTableLookups() {
+        return tableLookups.sum();
+    }
+
+    /**
+     * Gets the total time spent finding groupings
+     * @return the time in nanoseconds
+     */
+    public long getEnumerationNanos() {
+        return enumerationNanos.sum();
+    }
+
+    /**
+     * Gets the total time spent indexing groupings
+     * @return the time in nanoseconds
+     */
+    public long getIndexNanos() {
+        return indexNanos.sum();
+    }
+
+    /**
+     * Gets the total time spent selecting groupings
+     * @return the time in nanoseconds
+     */
+    public long getSelectionNanos() {
+        return selectionNanos.sum();
+    }
+
+    /**
+     * Gets the total time spent solving
+     * @return the time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Gets the time of the slowest solve
+     * @return the time in nanoseconds
+     */
+    public long getMaxTotalNanos() {
+        return maxTotalNanos.get();
+    }
+
+    /**
+     * Gets the total number of candidate groupings tested
+     * @return the number of candidates
+     */
+    public long getCandidatesTested() {
+        return candidatesTested.sum();
+    }
+
+    /**
+     * Gets the total number of maximal groupings found
+     * @return the number of groupings
+     */
+    public long getGroupingsFound() {
+        return groupingsFound.sum();
+    }
+
+    /**
+     * Gets the total number of cells read while indexing
+     * @return the number of cells
+     */
+    public long getCellsScanned() {
+        return cellsScanned.sum();
+    }
+
+    /**
+     * Gets the total number of comparisons made while selecting
+     * @return the number of comparisons
+     */
+    public long getComparisons() {
+        return comparisons.sum();
+    }
+
+    /**
+     * Gets the total number of groupings selected
+     * @return the number of groupings
+     */
+    public long getGroupingsSelected() {
+        return groupingsSelected.sum();
+    }
+
+    /**
+     * Reads every total, named for a metrics registry. Totals are read one after another, so a
+     * snapshot taken while solves are running may include part of a solve.
+     * @return the totals by name, in a fixed order
+     */
+    public Map<String, Long> snapshot() {
+        LinkedHashMap<String, Long> totals = new LinkedHashMap<>();
+        totals.put("solves", getSolves());
+        totals.put("table.lookups", getTableLookups());
+        totals.put("enumeration.nanos", getEnumerationNanos());
+        totals.put("index.nanos", getIndexNanos());
+        totals.put("selection.nanos", getSelectionNanos());
+        totals.put("total.nanos", getTotalNanos());
+        totals.put("total.nanos.max", getMaxTotalNanos());
+        totals.put("candidates.tested", getCandidatesTested());
+        totals.put("groupings.found", getGroupingsFound());
+        totals.put("cells.scanned", getCellsScanned());
+        totals.put("comparisons", getComparisons());
+        totals.put("groupings.selected", getGroupingsSelected());
+
+        return totals;
+    }
+
+    /**
+     * Sets every total back to 0
+     */
+    public void reset() {
+        solves.reset();
+        tableLookups.reset();
+        enumerationNanos.reset();
+        indexNanos.reset();
+        selectionNanos.reset();
+        totalNanos.reset();
+        maxTotalNanos.reset();
+        candidatesTested.reset();
+        groupingsFound.reset();
+        cellsScanned.reset();
+        comparisons.reset();
+        groupingsSelected.reset();
+    }
+}
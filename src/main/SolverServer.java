@@ -0,0 +1,542 @@
+package src.main;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  The {@code SolverServer} class runs the solver as a local HTTP service,
+ *  so that many short-lived tools can share one warm process rather than
+ *  each starting a JVM of its own.
+ *
+ *  A map is solved by {@code POST /solve}, given either as JSON, an array
+ *  of rows of 0s and 1s such as {@code [[1,0],[1,1]]} or an object with
+ *  such an array as its {@code "map"} field, or in binary, as the width and height
+ *  in 2 bytes each, big endian, and then the cells, row after row, 8 to a
+ *  byte from the lowest bit. A JSON request, sent with a content type of
+ *  {@code application/json}, is answered with the groupings as JSON, and a
+ *  binary request with the number of groupings as 4 bytes and each grouping
+ *  packed (see {@link Grouping#pack()}) as 8, big endian.
+ *
+ *  Maps are solved by {@code GroupingAlgorithm.findOptimalGroupings}, so
+ *  its {@code SolutionStore} and listener apply. A request for a map that
+ *  is already being solved for another request waits for that solve rather
+ *  than starting its own, and both are answered from it.
+ *
+ *  {@code GET /metrics} reports, as JSON, the number of requests, solves,
+ *  coalesced requests and errors, the requests per second since starting,
+ *  and histograms of the time taken to answer each request and to solve
+ *  each map.
+ *
+ *  Requests are handled on virtual threads, one per request, when the JVM
+ *  has them, and otherwise on a cached pool of threads. The server listens
+ *  on the loopback address unless given another.
+ *
+ *  The JDK's server leaves Nagle's algorithm on, so each response can wait
+ *  on a delayed acknowledgement. {@code main} turns it off by setting
+ *  {@code sun.net.httpserver.nodelay}; a program running a server of its
+ *  own should start the JVM with {@code -Dsun.net.httpserver.nodelay=true},
+ *  which applies to every HTTP server in the JVM.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class SolverServer implements AutoCloseable {
+
+    /** The largest request body accepted, in bytes */
+    public static final int MAX_REQUEST_SIZE = 1 << 24;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final long started = System.nanoTime();
+
+    private final ConcurrentHashMap<KarnaughMap, CompletableFuture<List<Grouping>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder solves = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram requestLatency = new LatencyHistogram();
+    private final LatencyHistogram solveLatency = new LatencyHistogram();
+
+    /**
+     * Initialises a server listening on a port of the loopback address. The server is not started.
+     * @param port the port, or 0 for any free port
+     * @throws IOException if the port could not be bound
+     */
+    public SolverServer(int port) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Initialises a server listening on an address. The server is not started.
+     * @param address the address to listen on
+     * @throws IOException if the address could not be bound
+     */
+    public SolverServer(InetSocketAddress address) throws IOException {
+        if (address == null) throw new IllegalArgumentException("address was null");
+
+        server = HttpServer.create(address, 0);
+        server.createContext("/solve", this::solve);
+        server.createContext("/metrics", this::metrics);
+
+        ExecutorService virtual = virtualThreadExecutor();
+        virtualThreads = virtual != null;
+        executor = virtualThreads ? virtual : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "solver-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts answering requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops answering requests, waiting up to a second for those being answered
+     */
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Gets the port the server is listening on
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Determines if requests are handled on virtual threads
+     * @return True if the JVM has virtual threads
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Gets the number of requests received, including those in error
+     * @return the number of requests
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Gets the number of maps solved
+     * @return the number of solves
+     */
+    public long getSolves() {
+        return solves.sum();
+    }
+
+    /**
+     * Gets the number of requests answered from a solve started for another request
+     * @return the number of requests
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Gets the number of requests answered with an error
+     * @return the number of requests
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Gets the histogram of the time taken to answer each request
+     * @return the histogram
+     */
+    public LatencyHistogram getRequestLatency() {
+        return requestLatency;
+    }
+
+    /**
+     * Gets the histogram of the time taken to solve each map
+     * @return the histogram
+     */
+    public LatencyHistogram getSolveLatency() {
+        return solveLatency;
+    }
+
+    /**
+     * Solves a map, or waits for the solve of an identical map already in progress
+     * @param map the Karnaugh map
+     * @return the groupings, unmodifiable as they may be shared with other callers
+     */
+    public List<Grouping> solve(KarnaughMap map) {
+        if (map == null) throw new IllegalArgumentException("Karnaugh map input was null");
+
+        CompletableFuture<List<Grouping>> future = new CompletableFuture<>();
+        CompletableFuture<List<Grouping>> existing = inFlight.putIfAbsent(map, future);
+
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for a solve", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            List<Grouping> groups = Collections.unmodifiableList((List<Grouping>) GroupingAlgorithm.findOptimalGroupings(map));
+            future.complete(groups);
+            return groups;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(map, future);
+            solves.increment();
+            solveLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    private void solve(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        requests.increment();
+
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                error(exchange, 405, "Maps are solved by POST");
+                return;
+            }
+
+            byte[] body = read(exchange.getRequestBody());
+            if (body == null) {
+                error(exchange, 413, "Request is larger than " + MAX_REQUEST_SIZE + " bytes");
+                return;
+            }
+
+            String type = exchange.getRequestHeaders().getFirst("Content-Type");
+            boolean json = type != null && type.startsWith("application/json");
+
+            List<Grouping> groups;
+            try {
+                groups = solve(json ? parseJson(body) : parseBinary(body));
+            } catch (IllegalArgumentException e) {
+                error(exchange, 400, e.getMessage());
+                return;
+            }
+
+            send(exchange, 200, json ? "application/json" : "application/octet-stream", json ? toJson(groups) : toBinary(groups));
+        } catch (RuntimeException e) {
+            error(exchange, 500, String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+            requestLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        try {
+            StringBuilder s = new StringBuilder();
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            s.append("{\"uptimeSeconds\":").append(seconds);
+            s.append(",\"requests\":").append(requests.sum());
+            s.append(",\"requestsPerSecond\":").append(requests.sum() / seconds);
+            s.append(",\"solves\":").append(solves.sum());
+            s.append(",\"coalesced\":").append(coalesced.sum());
+            s.append(",\"errors\":").append(errors.sum());
+            s.append(",\"virtualThreads\":").append(virtualThreads);
+            s.append(",\"requestLatency\":");
+            histogram(s, requestLatency);
+            s.append(",\"solveLatency\":");
+            histogram(s, solveLatency);
+            s.append('}');
+
+            send(exchange, 200, "application/json", s.toString().getBytes(StandardCharsets.UTF_8));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void histogram(StringBuilder s, LatencyHistogram histogram) {
+        s.append("{\"count\":").append(histogram.getCount());
+        s.append(",\"meanNanos\":").append((long) histogram.getMean());
+        s.append(",\"p50Nanos\":").append(histogram.getPercentile(0.5));
+        s.append(",\"p90Nanos\":").append(histogram.getPercentile(0.9));
+        s.append(",\"p99Nanos\":").append(histogram.getPercentile(0.99));
+        s.append(",\"maxNanos\":").append(histogram.getMax());
+        s.append(",\"buckets\":[");
+        long[][] buckets = histogram.getBuckets();
+        for (int i = 0; i < buckets.length; i++) {
+            if (i > 0) s.append(',');
+            s.append('[').append(buckets[i][0]).append(',').append(buckets[i][1]).append(']');
+        }
+        s.append("]}");
+    }
+
+    private void error(HttpExchange exchange, int status, String message) throws IOException {
+        errors.increment();
+        send(exchange, status, "text/plain; charset=utf-8", (message + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String type, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", type);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Reads a request body
+     * @return the body, or null if it is larger than {@code MAX_REQUEST_SIZE}
+     */
+    private static byte[] read(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_REQUEST_SIZE + 1);
+        return body.length > MAX_REQUEST_SIZE ? null : body;
+    }
+
+    /**
+     * Reads a map given as its width and height in 2 bytes each, then its cells 8 to a byte
+     */
+    static KarnaughMap parseBinary(byte[] body) {
+        if (body.length < 4) throw new IllegalArgumentException("Binary map is shorter than its header");
+
+        int width = (body[0] & 0xFF) << 8 | body[1] & 0xFF, height = (body[2] & 0xFF) << 8 | body[3] & 0xFF;
+        check(width, height);
+        if (body.length != 4 + ((width * height + 7) >>> 3)) throw new IllegalArgumentException("Binary map is not " + width + " by " + height);
+
+        KarnaughMap map = new KarnaughMap(width, height);
+        for (int i = 0; i < width * height; i++)
+            if ((body[4 + (i >>> 3)] >>> (i & 7) & 1) != 0) map.set(i / width, i % width, true);
+
+        return map;
+    }
+
+    /**
+     * Reads a map given as a JSON array of rows of 0s and 1s, or as the {@code "map"} field of an object.
+     * The other fields of an object are skipped, and only whitespace may follow the array or object.
+     */
+    static KarnaughMap parseJson(byte[] body) {
+        int[] size = new int[2];
+        int start = skip(body, 0), end;
+
+        if (start < body.length && body[start] == '{') {
+            int at = -1, q = skip(body, start + 1);
+
+            while (true) {
+                if (q >= body.length || body[q] != '"') throw new IllegalArgumentException("JSON object key is not a string");
+                int key = q;
+                q = skipString(body, q);
+                boolean isMap = q - key == 5 && matches(body, key, "\"map\"");
+
+                q = skip(body, q);
+                if (q >= body.length || body[q] != ':') throw new IllegalArgumentException("JSON object key is not followed by a colon");
+                q = skip(body, q + 1);
+
+                if (isMap) {
+                    if (at >= 0) throw new IllegalArgumentException("JSON object has more than one \"map\" field");
+                    at = q;
+                    q = rows(body, q, null, size);
+                }
+                else q = skipValue(body, q);
+
+                q = skip(body, q);
+                if (q < body.length && body[q] == ',') { q = skip(body, q + 1); continue; }
+                if (q < body.length && body[q] == '}') { q++; break; }
+                throw new IllegalArgumentException("JSON object is not closed");
+            }
+
+            if (at < 0) throw new IllegalArgumentException("JSON object has no \"map\" field");
+            start = at;
+            end = q;
+        }
+        else end = rows(body, start, null, size);
+
+        if (skip(body, end) != body.length) throw new IllegalArgumentException("JSON map is followed by more than whitespace");
+
+        // the rows were read once to find the dimensions, and are read again to set the cells
+        KarnaughMap map = new KarnaughMap(size[0], size[1]);
+        rows(body, start, map, size);
+        return map;
+    }
+
+    /**
+     * Reads an array of rows of cells, each 0, 1, true or false, with commas between the cells and between the rows
+     * @param map the map to set the cells of, or null to find the width and height of the rows into {@code size}
+     * @return the position after the array
+     */
+    private static int rows(byte[] body, int p, KarnaughMap map, int[] size) {
+        if (p >= body.length || body[p] != '[') throw new IllegalArgumentException("JSON map is not an array of rows");
+
+        int width = -1, row = 0, q = skip(body, p + 1);
+        while (true) {
+            if (q >= body.length || body[q] != '[') throw new IllegalArgumentException("JSON map is not an array of rows");
+
+            int col = 0;
+            q = skip(body, q + 1);
+            while (true) {
+                boolean one;
+                if (q < body.length && body[q] == '1') { one = true; q++; }
+                else if (q < body.length && body[q] == '0') { one = false; q++; }
+                else if (matches(body, q, "true")) { one = true; q += 4; }
+                else if (matches(body, q, "false")) { one = false; q += 5; }
+                else throw new IllegalArgumentException("JSON map cell is not 0, 1, true or false");
+
+                if (map != null && one) map.set(row, col, true);
+                col++;
+
+                q = skip(body, q);
+                if (q >= body.length) throw new IllegalArgumentException("JSON map is not closed");
+                if (body[q] == ']') break;
+                if (body[q] != ',') throw new IllegalArgumentException("JSON map cells are not separated by commas");
+                q = skip(body, q + 1);
+            }
+
+            if (width >= 0 && col != width) throw new IllegalArgumentException("JSON map rows differ in length");
+            width = col;
+            row++;
+
+            q = skip(body, q + 1);
+            if (q >= body.length) throw new IllegalArgumentException("JSON map is not closed");
+            if (body[q] == ']') break;
+            if (body[q] != ',') throw new IllegalArgumentException("JSON map rows are not separated by commas");
+            q = skip(body, q + 1);
+        }
+
+        if (map == null) {
+            check(width, row);
+            size[0] = width;
+            size[1] = row;
+        }
+        return q + 1;
+    }
+
+    /**
+     * Skips a string, from its opening quote
+     * @return the position after the closing quote
+     */
+    private static int skipString(byte[] body, int p) {
+        for (int q = p + 1; q < body.length; q++) {
+            if (body[q] == '\\') q++;
+            else if (body[q] == '"') return q + 1;
+        }
+
+        throw new IllegalArgumentException("JSON string is not closed");
+    }
+
+    /**
+     * Skips the value of a field other than the map: a string, an array or object by its brackets, or a number or literal
+     * @return the position after the value
+     */
+    private static int skipValue(byte[] body, int p) {
+        if (p < body.length && body[p] == '"') return skipString(body, p);
+
+        if (p < body.length && (body[p] == '[' || body[p] == '{')) {
+            int depth = 0;
+            for (int q = p; q < body.length; q++) {
+                if (body[q] == '"') q = skipString(body, q) - 1;
+                else if (body[q] == '[' || body[q] == '{') depth++;
+                else if ((body[q] == ']' || body[q] == '}') && --depth == 0) return q + 1;
+            }
+            throw new IllegalArgumentException("JSON object is not closed");
+        }
+
+        int q = p;
+        while (q < body.length && (Character.isLetterOrDigit(body[q]) || body[q] == '-' || body[q] == '+' || body[q] == '.')) q++;
+        if (q == p) throw new IllegalArgumentException("JSON object field has no value");
+        return q;
+    }
+
+    private static int skip(byte[] body, int p) {
+        while (p < body.length && (body[p] == ' ' || body[p] == '\n' || body[p] == '\r' || body[p] == '\t')) p++;
+        return p;
+    }
+
+    private static boolean matches(byte[] body, int p, String word) {
+        if (p + word.length() > body.length) return false;
+        for (int i = 0; i < word.length(); i++)
+            if (body[p + i] != word.charAt(i)) return false;
+        return true;
+    }
+
+    private static void check(int width, int height) {
+        if (width <= 0 || height <= 0 || width > Grouping.MAX_PACKED_SIZE || height > Grouping.MAX_PACKED_SIZE)
+            throw new IllegalArgumentException("Map is not of appropriate dimensions: " + width + " by " + height);
+    }
+
+    static byte[] toBinary(List<Grouping> groups) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 8 * groups.size());
+        buffer.putInt(groups.size());
+        for (Grouping g : groups) buffer.putLong(g.pack());
+        return buffer.array();
+    }
+
+    static byte[] toJson(List<Grouping> groups) {
+        StringBuilder s = new StringBuilder(16 + 64 * groups.size()).append("{\"groupings\":[");
+        for (int i = 0; i < groups.size(); i++) {
+            Grouping g = groups.get(i);
+            if (i > 0) s.append(',');
+            s.append("{\"startRow\":").append(g.getStartRow()).append(",\"startCol\":").append(g.getStartCol())
+                    .append(",\"endRow\":").append(g.getEndRow()).append(",\"endCol\":").append(g.getEndCol()).append('}');
+        }
+        s.append("]}");
+
+        return s.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Finds {@code Executors.newVirtualThreadPerTaskExecutor}, which only JVMs from Java 21 have
+     * @return the executor, or null if the JVM has no virtual threads
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     * @param args the port to listen on, 8080 if not given
+     * @throws IOException if the port could not be bound
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 1) throw new IllegalArgumentException("Usage: SolverServer [port]");
+
+        // the JDK's server writes headers and body separately, so without this each response waits on a delayed ack
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        SolverServer server = new SolverServer(args.length == 0 ? 8080 : Integer.parseInt(args[0]));
+        server.start();
+        System.out.println("Solving on http://localhost:" + server.getPort() + "/solve"
+                + (server.usesVirtualThreads() ? " with virtual threads" : ""));
+    }
+}
@@ -0,0 +1,739 @@
+package src.main;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ *  The {@code TruthTablePipeline} class minimises every function in a file,
+ *  reading, solving and writing at once on separate threads, for inputs too
+ *  large to hold in memory.
+ *
+ *  Two input formats are read. A PLA file, in the Berkeley format read by
+ *  Espresso, holds one function per block from {@code .i} to {@code .e},
+ *  with any number of blocks one after another. Each term line gives the
+ *  inputs, first input first, as {@code 0}, {@code 1} or {@code -}, and then
+ *  one character per output. The {@code .type} of a block decides the
+ *  meaning of an output of {@code 0} or {@code -}, as in Espresso, and
+ *  defaults to {@code fd}. A binary file starts with the bytes {@code KMTT}
+ *  and a version, and then holds one single output function per record: a
+ *  byte holding the number of inputs, with bit 7 set when a table of
+ *  don't-cares follows, and the truth table packed 8 minterms to a byte,
+ *  minterm m in bit {@code m % 8} of byte {@code m / 8}.
+ *
+ *  Each output of a function with n inputs is put on a map with the first
+ *  {@code n / 2} inputs on the rows, labelled as by {@code CubeList}, and
+ *  solved by {@code GroupingSolver}. The result for each function is written
+ *  as a PLA block of its terms, sorted, in the order the functions were read.
+ *  A term found for several outputs is written once, with a {@code 1} for
+ *  each.
+ *
+ *  The input is read through a buffer straight from the bytes, making no
+ *  {@code String} per line, into records that are reused. Records are handed
+ *  on in batches, so the threads meet once per batch rather than once per
+ *  function. There are only as many batches as the capacity of the pipeline,
+ *  so when the workers or the writer fall behind, the reader waits for a
+ *  batch to be written before reading another, and the memory used stays
+ *  the same however long the input is.
+ *
+ *  @author Morgan Jones
+ *
+ */
+public class TruthTablePipeline {
+
+    /** The most inputs a function can have, so that its map fits a packed grouping */
+    public static final int MAX_INPUTS = 20;
+
+    /** The most outputs a PLA function can have */
+    public static final int MAX_OUTPUTS = 64;
+
+    /**
+     * The formats of input that can be read
+     */
+    public enum Format { PLA, BINARY }
+
+    private static final byte[] MAGIC = { 'K', 'M', 'T', 'T' };
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // functions are handed between threads in batches of at most this many, or about this many cells
+    private static final int BATCH_SIZE = 256;
+    private static final long BATCH_CELLS = 1 << 20;
+
+    private static final Batch END = new Batch();
+
+    private final int parallelism;
+    private final int capacity;
+    private volatile SolverListener listener;
+
+    /**
+     * Initialises a pipeline using every available processor
+     */
+    public TruthTablePipeline() {
+        this(Runtime.getRuntime().availableProcessors(), 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Initialises a pipeline
+     * @param parallelism the number of worker threads
+     * @param capacity the most batches of functions held at once, read but not yet written
+     */
+    public TruthTablePipeline(int parallelism, int capacity) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism was 0 or less: " + parallelism);
+        if (capacity <= 0) throw new IllegalArgumentException("capacity was 0 or less: " + capacity);
+
+        this.parallelism = parallelism;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Minimises every function in a file, telling the format from the start of the file.
+     * @param input the file to read
+     * @param output the file to write the minimised functions to, replacing it if it exists
+     * @return the number of functions read
+     * @throws IOException if a file could not be read or written, or the input is malformed
+     */
+    public long run(Path input, Path output) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer start = ByteBuffer.allocate(MAGIC.length);
+            while (start.hasRemaining() && in.read(start) >= 0) ;
+            in.position(0);
+
+            Format format = Arrays.equals(start.array(), MAGIC) ? Format.BINARY : Format.PLA;
+            return run(in, format, out);
+        }
+    }
+
+    /**
+     * Minimises every function read from a channel. Neither channel is closed.
+     * @param input the channel to read
+     * @param format the format of the input
+     * @param output the channel to write the minimised functions to
+     * @return the number of functions read
+     * @throws IOException if a channel could not be read or written, or the input is malformed
+     */
+    public long run(ReadableByteChannel input, Format format, WritableByteChannel output) throws IOException {
+        if (input == null || output == null) throw new IllegalArgumentException("channel was null");
+        if (format == null) throw new IllegalArgumentException("format was null");
+
+        BlockingQueue<Batch> free = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Batch> work = new ArrayBlockingQueue<>(capacity + parallelism);
+        BlockingQueue<Batch> order = new ArrayBlockingQueue<>(capacity + 1);
+        for (int i = 0; i < capacity; i++) free.add(new Batch());
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[parallelism + 1];
+        for (int i = 0; i < parallelism; i++) threads[i] = new Thread(() -> work(work), "truth-table-worker-" + i);
+        threads[parallelism] = new Thread(() -> write(order, free, output, failure), "truth-table-writer");
+        for (Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        Source source = format == Format.PLA ? new PlaSource(input) : new BinarySource(input);
+        long count = 0;
+        boolean interrupted = false;
+        try {
+            for (boolean ended = false; !ended && failure.get() == null; ) {
+                Batch batch = free.take();
+                batch.size = 0;
+                for (long cells = 0; batch.size < BATCH_SIZE && cells < BATCH_CELLS; batch.size++) {
+                    Record record = batch.next();
+                    if (!source.read(record)) {
+                        ended = true;
+                        break;
+                    }
+                    cells += 1L << record.inputs;
+                }
+
+                count += batch.size;
+                order.put(batch);
+                work.put(batch);
+            }
+
+            order.put(END);
+            for (int i = 0; i < parallelism; i++) work.put(END);
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+            order.add(END);
+            for (int i = 0; i < parallelism; i++) work.add(END);
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, new InterruptedIOException("Pipeline was interrupted"));
+            interrupted = true;
+            for (Thread thread : threads) thread.interrupt();
+        }
+
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    for (Thread t : threads) t.interrupt();
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+
+        Throwable e = failure.get();
+        if (e instanceof IOException) throw (IOException) e;
+        if (e instanceof RuntimeException) throw (RuntimeException) e;
+        if (e instanceof Error) throw (Error) e;
+        return count;
+    }
+
+    /**
+     * Gets the number of worker threads
+     * @return the parallelism of the pipeline
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Gets the most functions held at once
+     * @return the capacity of the pipeline
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the listener told about every map solved, which is called from the worker threads
+     * @param listener the listener, or null for none
+     */
+    public void setListener(SolverListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Writes the start of a binary truth table file.
+     * @param out the stream to write to
+     * @throws IOException if the stream could not be written
+     */
+    public static void writeBinaryHeader(OutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.write(new byte[] { 0, 0, 0, VERSION });
+    }
+
+    /**
+     * Writes one function to a binary truth table file.
+     * @param out the stream to write to
+     * @param inputs the number of inputs of the function
+     * @param ones the minterms where the function is 1
+     * @param dontCares the minterms where the function may be either, or null for none
+     * @throws IOException if the stream could not be written
+     */
+    public static void writeBinaryRecord(OutputStream out, int inputs, BitSet ones, BitSet dontCares) throws IOException {
+        if (inputs <= 0 || inputs > MAX_INPUTS) throw new IllegalArgumentException("inputs was out of range: " + inputs);
+        if (ones == null) throw new IllegalArgumentException("Truth table input was null");
+        if (ones.length() > 1 << inputs || (dontCares != null && dontCares.length() > 1 << inputs))
+            throw new IllegalArgumentException("Truth table has minterms beyond " + inputs + " inputs");
+
+        int size = ((1 << inputs) + 7) >>> 3;
+        out.write(dontCares == null ? inputs : inputs | 0x80);
+        out.write(Arrays.copyOf(ones.toByteArray(), size));
+        if (dontCares != null) out.write(Arrays.copyOf(dontCares.toByteArray(), size));
+    }
+
+    /**
+     * Solves records until the end marker is taken
+     */
+    private void work(BlockingQueue<Batch> work) {
+        GroupingSolver solver = new GroupingSolver();
+
+        try {
+            for (Batch batch = work.take(); batch != END; batch = work.take()) {
+                try {
+                    solver.setListener(listener);
+                    batch.out.reset();
+                    for (int i = 0; i < batch.size; i++) solve(batch.records[i], solver, batch.out);
+                } catch (RuntimeException | Error e) {
+                    batch.error = e;
+                }
+                batch.done.release();
+            }
+        } catch (InterruptedException ignored) {}
+    }
+
+    /**
+     * Writes batches in the order they were read, returning each to be read into again once written.
+     * After a failure, batches are still returned but no longer written, so the reader is never left waiting.
+     */
+    private static void write(BlockingQueue<Batch> order, BlockingQueue<Batch> free, WritableByteChannel output, AtomicReference<Throwable> failure) {
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(output), 1 << 16);
+
+        try {
+            for (Batch batch = order.take(); batch != END; batch = order.take()) {
+                batch.done.acquire();
+
+                if (batch.error != null) failure.compareAndSet(null, batch.error);
+                if (failure.get() == null) {
+                    try {
+                        batch.out.writeTo(out);
+                    } catch (IOException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+
+                batch.error = null;
+                free.put(batch);
+            }
+
+            if (failure.get() == null) out.flush();
+        } catch (IOException e) {
+            failure.compareAndSet(null, e);
+        } catch (InterruptedException ignored) {}
+    }
+
+    /**
+     * Minimises each output of a record, writing its terms as a PLA block
+     */
+    private static void solve(Record record, GroupingSolver solver, ByteArrayOutputStream out) {
+        int count = 0;
+
+        for (int o = 0; o < record.outputs; o++) {
+            KarnaughMap ones = record.ones[o], dontCares = record.dontCares[o];
+            long[] dc = dontCares.words();
+
+            // unspecified minterms of a type with an off-set may be either
+            if (record.offSet) {
+                long[] on = ones.words(), off = record.offs[o].words();
+                long valid = record.width >= 64 ? -1L : (1L << record.width) - 1;
+                for (int w = 0; w < dc.length; w++) dc[w] = (dc[w] | ~(on[w] | off[w])) & valid;
+            }
+
+            boolean any = false;
+            for (long word : dc) any |= word != 0;
+
+            List<Grouping> groups = any ? solver.solve(ones, dontCares) : solver.solve(ones);
+
+            // each grouping is one cube, or several where a run crosses between halves of the Gray code, as in CubeList
+            int colVars = Integer.numberOfTrailingZeros(record.width);
+            long[] rowCubes = record.rowCubes, colCubes = record.colCubes;
+            for (Grouping g : groups) {
+                int rows = CubeList.runCubes(g.getStartRow(), g.height(), record.height, rowCubes, 0);
+                int cols = CubeList.runCubes(g.getStartCol(), g.width(), record.width, colCubes, 0);
+
+                if (record.terms.length < count + rows * cols) record.terms = Arrays.copyOf(record.terms, Math.max(2 * record.terms.length, count + rows * cols));
+                for (int r = 0; r < rows; r++)
+                    for (int c = 0; c < cols; c++) {
+                        long value = rowCubes[r] >>> 32 << colVars | colCubes[c] >>> 32;
+                        long mask = (rowCubes[r] & 0xFFFFFFFFL) << colVars | colCubes[c] & 0xFFFFFFFFL;
+                        record.terms[count++] = value << 26 | mask << 6 | o;
+                    }
+            }
+        }
+
+        // a cube may be found more than once, and for several outputs, but is written once
+        long[] terms = record.terms;
+        Arrays.sort(terms, 0, count);
+
+        int lines = 0;
+        for (int t = 0; t < count; t++)
+            if (t == 0 || terms[t] >>> 6 != terms[t - 1] >>> 6) lines++;
+
+        writeLine(out, ".i ", record.inputs);
+        writeLine(out, ".o ", record.outputs);
+        writeLine(out, ".p ", lines);
+
+        for (int t = 0; t < count; ) {
+            long cube = terms[t] >>> 6, used = 0;
+            for (; t < count && terms[t] >>> 6 == cube; t++) used |= 1L << (terms[t] & 63);
+
+            long value = cube >>> 20, mask = cube & ((1 << 20) - 1);
+            for (int v = record.inputs - 1; v >= 0; v--)
+                out.write((mask >>> v & 1) != 0 ? '-' : (value >>> v & 1) != 0 ? '1' : '0');
+            out.write(' ');
+            for (int o = 0; o < record.outputs; o++) out.write((used >>> o & 1) != 0 ? '1' : '0');
+            out.write('\n');
+        }
+
+        out.write('.');
+        out.write('e');
+        out.write('\n');
+    }
+
+    private static void writeLine(ByteArrayOutputStream out, String directive, int number) {
+        for (int i = 0; i < directive.length(); i++) out.write(directive.charAt(i));
+        writeNumber(out, number);
+        out.write('\n');
+    }
+
+    private static void writeNumber(ByteArrayOutputStream out, int number) {
+        if (number >= 10) writeNumber(out, number / 10);
+        out.write('0' + number % 10);
+    }
+
+    /**
+     * A function read from the input, with a map per output, reused from one function to the next
+     */
+    private static class Record {
+        int inputs;
+        int outputs;
+        int width;
+        int height;
+        boolean dontCareSet;
+        boolean offSet;
+
+        KarnaughMap[] ones = new KarnaughMap[1];
+        KarnaughMap[] dontCares = new KarnaughMap[1];
+        KarnaughMap[] offs = new KarnaughMap[1];
+
+        // the row and column of each Gray code
+        private int[] rowOf = new int[0];
+        private int[] colOf = new int[0];
+
+        // the cubes of the runs of rows and columns of a grouping, and the terms found, as value << 26 | mask << 6 | output
+        long[] rowCubes = new long[0];
+        long[] colCubes = new long[0];
+        long[] terms = new long[16];
+
+        /**
+         * Empties the record for a function with the given number of inputs and outputs
+         */
+        void clear(int inputs, int outputs, boolean dontCareSet, boolean offSet) {
+            this.inputs = inputs;
+            this.outputs = outputs;
+            this.dontCareSet = dontCareSet;
+            this.offSet = offSet;
+
+            int rowVars = inputs / 2;
+            if (width != 1 << (inputs - rowVars) || height != 1 << rowVars) {
+                width = 1 << (inputs - rowVars);
+                height = 1 << rowVars;
+                rowOf = positions(height);
+                colOf = positions(width);
+                rowCubes = new long[height];
+                colCubes = new long[width];
+            }
+
+            if (ones.length < outputs) {
+                ones = Arrays.copyOf(ones, outputs);
+                dontCares = Arrays.copyOf(dontCares, outputs);
+                offs = Arrays.copyOf(offs, outputs);
+            }
+            for (int o = 0; o < outputs; o++) {
+                ones[o] = clear(ones[o]);
+                dontCares[o] = clear(dontCares[o]);
+                if (offSet) offs[o] = clear(offs[o]);
+            }
+        }
+
+        private KarnaughMap clear(KarnaughMap map) {
+            if (map == null || map.getWidth() != width || map.getHeight() != height) return new KarnaughMap(width, height);
+
+            Arrays.fill(map.words(), 0);
+            return map;
+        }
+
+        private static int[] positions(int size) {
+            int[] positions = new int[size];
+            for (int i = 0; i < size; i++) positions[i ^ (i >>> 1)] = i;
+            return positions;
+        }
+
+        /**
+         * Sets the cell of a minterm on a map
+         */
+        void set(KarnaughMap map, long minterm) {
+            int colVars = inputs - inputs / 2;
+            int row = rowOf[(int) (minterm >>> colVars)], col = colOf[(int) minterm & (width - 1)];
+            map.words()[row * map.stride() + (col >>> 6)] |= 1L << col;
+        }
+
+        /**
+         * Sets the cells of every minterm of a cube on a map
+         */
+        void set(KarnaughMap map, long value, long dashes) {
+            for (long s = 0; ; s = (s - dashes) & dashes) {
+                set(map, value | s);
+                if (s == dashes) break;
+            }
+        }
+    }
+
+    /**
+     * Functions handed from the reader to a worker and on to the writer together, with their output
+     */
+    private static class Batch {
+        Record[] records = new Record[0];
+        int size;
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Semaphore done = new Semaphore(0);
+        Throwable error;
+
+        /**
+         * Gets the record after the last in the batch, to be read into
+         */
+        Record next() {
+            if (size == records.length) records = Arrays.copyOf(records, Math.max(16, 2 * size));
+            if (records[size] == null) records[size] = new Record();
+            return records[size];
+        }
+    }
+
+    /**
+     * Reads records of one format
+     */
+    private interface Source {
+        /**
+         * Reads the next function into a record
+         * @return False if the input has ended
+         */
+        boolean read(Record record) throws IOException;
+    }
+
+    /**
+     * A buffer over a channel, read through directly as bytes
+     */
+    private static class Input {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        final byte[] bytes = buffer.array();
+        int pos;
+        int limit;
+        private boolean eof;
+
+        Input(ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Makes sure the next n bytes are in the buffer
+         * @return False if the input ends first
+         */
+        boolean require(int n) throws IOException {
+            while (limit - pos < n) {
+                if (eof) return false;
+                if (n > bytes.length) throw new IOException("Record is longer than the buffer of " + bytes.length + " bytes");
+
+                if (pos > 0) {
+                    System.arraycopy(bytes, pos, bytes, 0, limit - pos);
+                    limit -= pos;
+                    pos = 0;
+                }
+
+                buffer.clear().position(limit);
+                int read = channel.read(buffer);
+                if (read < 0) eof = true;
+                else limit += read;
+            }
+
+            return true;
+        }
+
+        /**
+         * Finds the end of the line starting at {@code pos}
+         * @return the index of its newline, or of the end of the input, or -1 if there are no more lines
+         */
+        int line() throws IOException {
+            int scanned = 0;
+
+            while (true) {
+                for (int i = pos + scanned; i < limit; i++)
+                    if (bytes[i] == '\n') return i;
+
+                scanned = limit - pos;
+                if (!require(scanned + 1)) return pos < limit ? limit : -1;
+            }
+        }
+    }
+
+    /**
+     * Reads blocks of a Berkeley PLA file
+     */
+    private static class PlaSource implements Source {
+        private final Input input;
+        private long line;
+
+        PlaSource(ReadableByteChannel channel) {
+            this.input = new Input(channel);
+        }
+
+        public boolean read(Record record) throws IOException {
+            int inputs = -1, outputs = 1;
+            boolean started = false, cleared = false, dontCareSet = true, offSet = false;
+
+            for (int end; (end = input.line()) >= 0; input.pos = Math.min(end + 1, input.limit)) {
+                line++;
+                byte[] bytes = input.bytes;
+                int p = skip(bytes, input.pos, end);
+                if (p == end || bytes[p] == '#') continue;
+
+                if (bytes[p] != '.') {
+                    if (inputs < 0) throw error(".i must come before the first term");
+                    if (!cleared) {
+                        record.clear(inputs, outputs, dontCareSet, offSet);
+                        cleared = true;
+                    }
+                    term(record, bytes, p, end);
+                    continue;
+                }
+
+                int word = p;
+                while (p < end && bytes[p] > ' ') p++;
+                int length = p - word;
+                p = skip(bytes, p, end);
+
+                if (is(bytes, word, length, ".i") || is(bytes, word, length, ".o")) {
+                    if (cleared) throw error("missing .e before " + (char) bytes[word + 1]);
+                    int value = number(bytes, p, end);
+                    if (bytes[word + 1] == 'i') {
+                        if (value <= 0 || value > MAX_INPUTS) throw error("number of inputs was out of range: " + value);
+                        inputs = value;
+                    } else {
+                        if (value <= 0 || value > MAX_OUTPUTS) throw error("number of outputs was out of range: " + value);
+                        outputs = value;
+                    }
+                    started = true;
+                } else if (is(bytes, word, length, ".type")) {
+                    if (cleared) throw error(".type must come before the first term");
+                    int q = p;
+                    while (q < end && bytes[q] > ' ') q++;
+                    if (is(bytes, p, q - p, "f") || is(bytes, p, q - p, "fd") || is(bytes, p, q - p, "fr") || is(bytes, p, q - p, "fdr")) {
+                        dontCareSet = contains(bytes, p, q, 'd');
+                        offSet = contains(bytes, p, q, 'r');
+                    } else throw error("unknown .type");
+                } else if (is(bytes, word, length, ".e") || is(bytes, word, length, ".end")) {
+                    if (!started) continue;
+                    input.pos = Math.min(end + 1, input.limit);
+                    break;
+                }
+                // other directives, such as .p, .ilb and .ob, do not change the function
+            }
+
+            if (!started && !cleared) return false;
+            if (inputs < 0) throw error("block has no .i");
+            if (!cleared) record.clear(inputs, outputs, dontCareSet, offSet);
+            return true;
+        }
+
+        /**
+         * Reads a term line, setting the cells of its cube on the maps of each output
+         */
+        private void term(Record record, byte[] bytes, int p, int end) throws IOException {
+            long value = 0, dashes = 0;
+
+            for (int v = record.inputs - 1; v >= 0; v--) {
+                p = skip(bytes, p, end);
+                if (p == end) throw error("term has fewer than " + record.inputs + " inputs");
+
+                byte c = bytes[p++];
+                if (c == '1') value |= 1L << v;
+                else if (c == '-' || c == '2') dashes |= 1L << v;
+                else if (c != '0') throw error("input was not 0, 1 or -");
+            }
+
+            for (int o = 0; o < record.outputs; o++) {
+                p = skip(bytes, p, end);
+                if (p == end) throw error("term has fewer than " + record.outputs + " outputs");
+
+                byte c = bytes[p++];
+                if (c == '1') record.set(record.ones[o], value, dashes);
+                else if (c == '0') { if (record.offSet) record.set(record.offs[o], value, dashes); }
+                else if (c == '-' || c == '2') { if (record.dontCareSet || record.offSet) record.set(record.dontCares[o], value, dashes); }
+                else if (c != '~') throw error("output was not 0, 1, - or ~");
+            }
+        }
+
+        private static int skip(byte[] bytes, int p, int end) {
+            while (p < end && (bytes[p] == ' ' || bytes[p] == '\t' || bytes[p] == '\r' || bytes[p] == '|')) p++;
+            return p;
+        }
+
+        private int number(byte[] bytes, int p, int end) throws IOException {
+            int value = 0, digits = 0;
+            for (; p < end && bytes[p] >= '0' && bytes[p] <= '9' && digits < 9; p++, digits++) value = 10 * value + bytes[p] - '0';
+            if (digits == 0) throw error("expected a number");
+            return value;
+        }
+
+        private static boolean is(byte[] bytes, int p, int length, String word) {
+            if (length != word.length()) return false;
+            for (int i = 0; i < length; i++)
+                if (bytes[p + i] != word.charAt(i)) return false;
+            return true;
+        }
+
+        private static boolean contains(byte[] bytes, int p, int end, char c) {
+            for (; p < end; p++)
+                if (bytes[p] == c) return true;
+            return false;
+        }
+
+        private IOException error(String message) {
+            return new IOException("Malformed PLA at line " + line + ": " + message);
+        }
+    }
+
+    /**
+     * Reads records of a binary truth table file
+     */
+    private static class BinarySource implements Source {
+        private final Input input;
+        private boolean started;
+        private long number;
+
+        BinarySource(ReadableByteChannel channel) {
+            this.input = new Input(channel);
+        }
+
+        public boolean read(Record record) throws IOException {
+            byte[] bytes = input.bytes;
+
+            if (!started) {
+                if (!input.require(8) || !Arrays.equals(Arrays.copyOfRange(bytes, input.pos, input.pos + 4), MAGIC)
+                        || bytes[input.pos + 4] != 0 || bytes[input.pos + 5] != 0 || bytes[input.pos + 6] != 0 || bytes[input.pos + 7] != VERSION)
+                    throw new IOException("Not a truth table file of this version");
+                input.pos += 8;
+                started = true;
+            }
+
+            if (!input.require(1)) return false;
+
+            int flags = bytes[input.pos] & 0xFF, inputs = flags & 0x7F;
+            boolean hasDontCares = (flags & 0x80) != 0;
+            if (inputs <= 0 || inputs > MAX_INPUTS) throw new IOException("Malformed truth table at record " + number + ": number of inputs was out of range: " + inputs);
+
+            int size = ((1 << inputs) + 7) >>> 3;
+            if (!input.require(1 + (hasDontCares ? 2 : 1) * size)) throw new IOException("Truth table file ends part way through record " + number);
+
+            record.clear(inputs, 1, hasDontCares, false);
+            fill(record, record.ones[0], bytes, input.pos + 1, inputs);
+            if (hasDontCares) fill(record, record.dontCares[0], bytes, input.pos + 1 + size, inputs);
+
+            input.pos += 1 + (hasDontCares ? 2 : 1) * size;
+            number++;
+            return true;
+        }
+
+        private static void fill(Record record, KarnaughMap map, byte[] bytes, int from, int inputs) {
+            int minterms = 1 << inputs;
+
+            for (int i = 0; i < (minterms + 7) >>> 3; i++)
+                for (int b = bytes[from + i] & 0xFF; b != 0; b &= b - 1) {
+                    int m = i << 3 | Integer.numberOfTrailingZeros(b);
+                    if (m < minterms) record.set(map, m);
+                }
+        }
+    }
+}
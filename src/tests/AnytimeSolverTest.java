@@ -0,0 +1,82 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.AnytimeResult;
+import src.main.GroupingAlgorithm;
+import src.main.GroupingSolver;
+import src.main.KarnaughMap;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AnytimeSolverTest {
+
+    @Test
+    public void neverWorseThanGreedy() {
+        Random random = new Random(21);
+        GroupingSolver solver = new GroupingSolver();
+
+        for (int trial = 0; trial < 20; trial++) {
+            KarnaughMap map = TestMaps.random(random, 16, 16, 2 / 3.0);
+            int greedy = solver.solve(map).size();
+
+            AnytimeResult result = solver.solveAnytime(map, Duration.ofMillis(20));
+            TestMaps.assertCovers(map, result.getGroupings());
+            assertTrue(result.size() <= greedy);
+        }
+    }
+
+    @Test
+    public void trajectoryOnlyImproves() {
+        KarnaughMap map = TestMaps.random(new Random(7), 32, 32, 2 / 3.0);
+        ArrayList<AnytimeResult.Improvement> reported = new ArrayList<>();
+
+        AnytimeResult result = new GroupingSolver().solveAnytime(map, Duration.ofMillis(50), reported::add);
+        List<AnytimeResult.Improvement> trajectory = result.getTrajectory();
+
+        assertEquals(reported.size(), trajectory.size());
+        assertFalse(trajectory.isEmpty());
+        for (int i = 1; i < trajectory.size(); i++) {
+            AnytimeResult.Improvement last = trajectory.get(i - 1), next = trajectory.get(i);
+            assertTrue(next.getElapsedNanos() >= last.getElapsedNanos());
+            assertTrue(next.getSize() < last.getSize() || (next.getSize() == last.getSize() && next.getArea() > last.getArea()));
+        }
+        assertEquals(result.size(), trajectory.get(trajectory.size() - 1).getSize());
+    }
+
+    @Test
+    public void provesOptimalWhenBoundIsMet() {
+        int[][] kmap = {{1, 0, 1, 1},
+                        {1, 1, 1, 0},
+                        {0, 0, 0, 0},
+                        {0, 0, 0, 0}};
+
+        AnytimeResult result = GroupingAlgorithm.findImprovedGroupings(KarnaughMap.of(kmap), Duration.ofSeconds(10));
+
+        assertTrue(result.isOptimal());
+        assertEquals(3, result.size());
+    }
+
+    @Test
+    public void stopsWhenInterrupted() {
+        KarnaughMap map = TestMaps.random(new Random(3), 64, 64, 2 / 3.0);
+
+        Thread.currentThread().interrupt();
+        try {
+            long start = System.nanoTime();
+            AnytimeResult result = new GroupingSolver().solveAnytime(map, Duration.ofSeconds(60));
+
+            assertTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos());
+            TestMaps.assertCovers(map, result.getGroupings());
+            assertEquals(1, result.getTrajectory().size());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.BatchSolver;
+import src.main.Grouping;
+import src.main.GroupingAlgorithm;
+import src.main.KarnaughMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class BatchSolverTest {
+
+    @Test
+    public void matchesSingleSolves() {
+        List<boolean[][]> maps = TestMaps.random(new Random(7), 200, 8, 8, 0.5).stream()
+                .map(TestMaps::toArray).collect(Collectors.toCollection(ArrayList::new));
+
+        try (BatchSolver batch = new BatchSolver(3, 16)) {
+            List<List<Grouping>> results = batch.solveAll(maps);
+
+            assertEquals(maps.size(), results.size());
+            for (int i = 0; i < maps.size(); i++)
+                assertEquals(GroupingAlgorithm.findOptimalGroupings(maps.get(i)), results.get(i));
+        }
+    }
+
+    @Test
+    public void duplicatesShareResult() {
+        List<boolean[][]> maps = TestMaps.random(new Random(7), 3, 8, 4, 0.5).stream()
+                .map(TestMaps::toArray).collect(Collectors.toCollection(ArrayList::new));
+        maps.add(maps.get(0));
+        maps.add(maps.get(1));
+
+        try (BatchSolver batch = new BatchSolver(2, 1)) {
+            List<List<Grouping>> results = batch.solveAll(maps);
+
+            assertSame(results.get(0), results.get(3));
+            assertSame(results.get(1), results.get(4));
+        }
+    }
+
+    @Test
+    public void streamKeepsOrder() {
+        List<boolean[][]> maps = TestMaps.random(new Random(7), 500, 4, 8, 0.5).stream()
+                .map(TestMaps::toArray).collect(Collectors.toCollection(ArrayList::new));
+
+        try (BatchSolver batch = new BatchSolver(2, 8)) {
+            List<List<Grouping>> results = batch.solve(maps.stream().map(KarnaughMap::of)).collect(Collectors.toList());
+
+            assertEquals(maps.size(), results.size());
+            for (int i = 0; i < maps.size(); i++)
+                assertEquals(GroupingAlgorithm.findOptimalGroupings(maps.get(i)), results.get(i));
+        }
+    }
+}
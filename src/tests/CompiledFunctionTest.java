@@ -0,0 +1,87 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.CompiledFunction;
+import src.main.CubeList;
+import src.main.Grouping;
+import src.main.GroupingAlgorithm;
+import src.main.KarnaughMap;
+
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompiledFunctionTest {
+
+    private static int gray(int i) {
+        return i ^ (i >>> 1);
+    }
+
+    @Test
+    public void matchesMap() {
+        Random random = new Random(19);
+        int[][] sizes = {{2, 1}, {2, 2}, {4, 4}, {8, 2}, {8, 8}, {16, 8}, {32, 16}};
+
+        for (int[] size : sizes)
+            for (int i = 0; i < 20; i++) {
+                int width = size[0], height = size[1], colVars = Integer.numberOfTrailingZeros(width);
+                KarnaughMap map = new KarnaughMap(width, height);
+                for (int row = 0; row < height; row++)
+                    for (int col = 0; col < width; col++) map.set(row, col, random.nextInt(4) > 0);
+
+                Iterable<Grouping> groups = GroupingAlgorithm.findOptimalGroupings(map);
+                CompiledFunction f = new CompiledFunction(groups, width, height);
+
+                long[] inputs = new long[width * height];
+                long[] results = new long[(inputs.length + 63) >>> 6];
+                for (int row = 0; row < height; row++)
+                    for (int col = 0; col < width; col++) {
+                        long minterm = (long) gray(row) << colVars | gray(col);
+                        inputs[row * width + col] = minterm;
+                        assertEquals(map.get(row, col), f.evaluate(minterm));
+                    }
+
+                f.evaluateAll(inputs, results);
+                for (int k = 0; k < inputs.length; k++)
+                    assertEquals(map.get(k / width, k % width), (results[k >>> 6] >>> k & 1) != 0);
+            }
+    }
+
+    @Test
+    public void groupingsCrossingGrayHalves() throws Exception {
+        // rows 1 to 4 of 8 are Gray codes 001, 011, 010 and 110, which need two cubes
+        CubeList cubes = CubeList.fromGroupings(Collections.singletonList(new Grouping(1, 0, 4, 0, 1, 8)), 1, 8);
+
+        assertEquals(2, cubes.size());
+        assertEquals("A'C + BC'", cubes.toString());
+    }
+
+    @Test
+    public void slicesTranspose() {
+        Random random = new Random(20);
+        long[] inputs = new long[100];
+        for (int i = 0; i < inputs.length; i++) inputs[i] = random.nextLong();
+
+        long[] slices = new long[64];
+        CompiledFunction.slice(inputs, 40, 60, slices);
+
+        for (int v = 0; v < 64; v++)
+            for (int j = 0; j < 64; j++)
+                assertEquals(j < 60 && (inputs[40 + j] >>> v & 1) != 0, (slices[v] >>> j & 1) != 0);
+    }
+
+    @Test
+    public void constantFunctions() {
+        CompiledFunction zero = new CompiledFunction(new CubeList(3, new long[0], new long[0]));
+        CompiledFunction one = new CompiledFunction(new CubeList(3, new long[] {0}, new long[] {7}));
+
+        long[] results = new long[1];
+        one.evaluateAll(new long[] {0, 1, 2, 3, 4}, results);
+        assertEquals(31, results[0]);
+
+        zero.evaluateAll(new long[] {0, 1, 2, 3, 4}, results);
+        assertEquals(0, results[0]);
+        assertEquals(false, zero.evaluate(5));
+    }
+}
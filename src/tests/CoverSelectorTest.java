@@ -0,0 +1,108 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.CoverSelector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CoverSelectorTest {
+
+    /**
+     * Adds candidates and requires every element, then selects until done
+     * @param candidates pairs of a rank and the elements of a candidate, in non-increasing rank
+     * @return the candidates selected, in order
+     */
+    private static List<Integer> select(CoverSelector selector, int elements, int[][][] candidates) {
+        selector.reset(elements);
+        for (int e = 0; e < elements; e++) selector.require(e);
+        for (int[][] candidate : candidates) {
+            selector.addCandidate(candidate[0][0]);
+            for (int e : candidate[1]) selector.addElement(e);
+        }
+        selector.prepare();
+
+        List<Integer> selected = new ArrayList<>();
+        for (int k = selector.next(); k >= 0; k = selector.next()) selected.add(k);
+        assertEquals(0, selector.remaining());
+        return selected;
+    }
+
+    // every element also has a candidate of its own at rank 0, so none is essential
+    private static final int[][][] STALE = {
+            {{1}, {0, 1, 2, 3, 4}},
+            {{1}, {0, 1, 2, 5}},
+            {{1}, {5, 6, 7}},
+            {{0}, {8, 0}},
+            {{0}, {8, 1}},
+            {{0}, {0}}, {{0}, {1}}, {{0}, {2}}, {{0}, {3}}, {{0}, {4}}, {{0}, {5}}, {{0}, {6}}, {{0}, {7}},
+    };
+
+    @Test
+    public void staleTopIsRequeued() {
+        CoverSelector selector = new CoverSelector();
+
+        // once 0 is taken, 1 still sits on the heap at 4 but covers only 5, so 2 is taken next;
+        // 3 and 4 then tie on the last element and the lower index wins
+        assertEquals(List.of(0, 2, 3), select(selector, 9, STALE));
+        assertEquals(0, selector.essentials());
+    }
+
+    @Test
+    public void higherRankComesFirst() {
+        int[][][] candidates = {
+                {{2}, {0, 1}},
+                {{1}, {1, 2, 3, 4}},
+                {{1}, {0, 2, 3, 4}},
+                {{0}, {0}}, {{0}, {1}}, {{0}, {2}}, {{0}, {3}}, {{0}, {4}},
+        };
+
+        assertEquals(List.of(0, 1), select(new CoverSelector(), 5, candidates));
+    }
+
+    @Test
+    public void tiesGoToLowerIndex() {
+        int[][][] candidates = {
+                {{1}, {0, 1}},
+                {{1}, {2, 3}},
+                {{1}, {1, 2}},
+                {{1}, {3, 0}},
+        };
+
+        assertEquals(List.of(0, 1), select(new CoverSelector(), 4, candidates));
+    }
+
+    @Test
+    public void essentialsAreTakenFirst() {
+        // 4 is only in candidate 2, and 0 only in candidate 0
+        int[][][] candidates = {
+                {{2}, {0, 1}},
+                {{2}, {1, 2, 3}},
+                {{1}, {3, 4}},
+                {{1}, {1, 2}},
+                {{0}, {2}},
+        };
+        CoverSelector selector = new CoverSelector();
+
+        assertEquals(List.of(0, 2, 1), select(selector, 5, candidates).subList(0, 3));
+        assertEquals(2, selector.essentials());
+    }
+
+    @Test
+    public void reuseMatchesFreshSelector() {
+        CoverSelector reused = new CoverSelector();
+        int[][][] small = {{{1}, {0, 1}}, {{1}, {1, 2}}, {{0}, {2}}};
+
+        // a large problem first, so the buffers are bigger than the small ones need
+        int[][][] large = new int[200][][];
+        for (int k = 0; k < large.length; k++) large[k] = new int[][]{{(large.length - k) / 10}, {k, (k * 7) % 150, (k * 13) % 150}};
+        List<Integer> expected = select(new CoverSelector(), 200, large);
+
+        assertEquals(expected, select(reused, 200, large));
+        assertEquals(select(new CoverSelector(), 3, small), select(reused, 3, small));
+        assertEquals(select(new CoverSelector(), 9, STALE), select(reused, 9, STALE));
+        assertEquals(expected, select(reused, 200, large));
+    }
+}
@@ -0,0 +1,88 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.CubeList;
+import src.main.CubeMinimizer;
+import src.main.Grouping;
+import src.main.GroupingAlgorithm;
+import src.main.KarnaughMap;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CubeMinimizerTest {
+
+    private static int gray(int i) {
+        return i ^ (i >>> 1);
+    }
+
+    private static BitSet covered(CubeList cubes, int variables) {
+        BitSet covered = new BitSet();
+        for (int i = 0; i < cubes.size(); i++)
+            for (int m = 0; m < 1 << variables; m++)
+                if (cubes.covers(i, m)) covered.set(m);
+
+        return covered;
+    }
+
+    @Test
+    public void fourVariableExample() {
+        CubeList cubes = GroupingAlgorithm.findOptimalCubes(4, new int[]{0, 1, 2, 5, 6, 7, 8, 9, 10, 14});
+        assertEquals("B'C' + CD' + A'BD", cubes.toString());
+    }
+
+    @Test
+    public void constantFunctions() {
+        assertEquals("0", GroupingAlgorithm.findOptimalCubes(3, new int[0]).toString());
+        assertEquals("1", GroupingAlgorithm.findOptimalCubes(3, new int[]{0, 1, 2, 3, 4, 5, 6, 7}).toString());
+    }
+
+    @Test
+    public void coversExactlyTheMinterms() {
+        Random random = new Random(11);
+        CubeMinimizer minimizer = new CubeMinimizer();
+
+        for (int variables = 5; variables <= 12; variables++) {
+            BitSet function = new BitSet();
+            for (int m = 0; m < 1 << variables; m++)
+                if (random.nextInt(3) > 0) function.set(m);
+
+            CubeList cubes = minimizer.minimize(variables, function);
+            assertEquals(function, covered(cubes, variables));
+        }
+    }
+
+    @Test
+    public void groupingsOnGrayCodeMap() {
+        // rows are AB and columns are CD, each in Gray code order
+        int[] minterms = {0, 2, 5, 7, 8, 10, 13, 15};
+        List<Grouping> groups = GroupingAlgorithm.findOptimalCubes(4, minterms).toGroupings();
+
+        KarnaughMap map = new KarnaughMap(4, 4);
+        for (int m : minterms)
+            for (int row = 0; row < 4; row++)
+                for (int col = 0; col < 4; col++)
+                    if ((gray(row) << 2 | gray(col)) == m) map.set(row, col, true);
+
+        assertEquals(2, groups.size());
+        for (Grouping g : groups) {
+            assertEquals(4, g.size());
+            assertEquals(4, map.count(g));
+            map.clear(g);
+        }
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void dontCaresWidenCubes() {
+        // a BCD digit is at least 5, with the unused codes 10 to 15 as don't-cares
+        int[] minterms = {5, 6, 7, 8, 9};
+        int[] dontCares = {10, 11, 12, 13, 14, 15};
+
+        assertEquals("A + BC + BD", GroupingAlgorithm.findOptimalCubes(4, minterms, dontCares).toString());
+    }
+}
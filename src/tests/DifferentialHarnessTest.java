@@ -0,0 +1,63 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.DifferentialHarness;
+import src.main.DifferentialReport;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DifferentialHarnessTest {
+
+    @Test
+    public void everySmallMapIsCoveredValidly() {
+        DifferentialHarness harness = new DifferentialHarness(Duration.ofSeconds(5));
+        harness.runExhaustive(4, 4);
+        DifferentialReport report = harness.getReport();
+
+        assertEquals(18, report.getRows().size());
+        assertEquals(0, report.getInvalid());
+
+        for (DifferentialReport.Row row : report.getRows()) {
+            assertEquals(1L << (row.getWidth() * row.getHeight()), row.getMaps());
+            assertEquals(0, row.getUnresolved());
+
+            if (row.getMode() == DifferentialHarness.Mode.MINIMUM) assertEquals(0, row.getSuboptimal());
+
+            // the greedy cover is one grouping too many for 2252 of the 65536 maps of 4 by 4, and never worse than 2
+            if (row.getMode() == DifferentialHarness.Mode.GREEDY && row.getWidth() == 4 && row.getHeight() == 4) {
+                assertTrue(row.toString(), row.getSuboptimal() <= 2252);
+                assertTrue(row.getMaxExcess() <= 2);
+            }
+        }
+    }
+
+    @Test
+    public void sampledMapsAgreeWithMinimum() {
+        DifferentialHarness harness = new DifferentialHarness(Duration.ofSeconds(5));
+        harness.runSampled(8, 8, 0.75, 30, 25);
+        DifferentialReport report = harness.getReport();
+
+        assertEquals(2, report.getRows().size());
+        assertEquals(0, report.getInvalid());
+        for (DifferentialReport.Row row : report.getRows()) {
+            assertEquals(30, row.getMaps());
+            assertEquals(30, row.getTime().getCount());
+            assertEquals(0, row.getUnresolved());
+        }
+        assertEquals(0, report.getRows().get(1).getSuboptimal());
+        assertTrue(report.toString().contains("8x8     0.75    greedy"));
+    }
+
+    @Test
+    public void mapsTooLargeForOracle() {
+        DifferentialHarness harness = new DifferentialHarness(Duration.ofSeconds(1), DifferentialHarness.Mode.GREEDY);
+
+        assertThrows(IllegalArgumentException.class, () -> harness.runSampled(16, 8, 0.5, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> harness.runExhaustive(8, 4));
+        assertThrows(IllegalArgumentException.class, () -> harness.runSampled(4, 4, 1.5, 1, 0));
+    }
+}
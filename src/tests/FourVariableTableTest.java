@@ -0,0 +1,100 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.FourVariableTable;
+import src.main.Grouping;
+import src.main.GroupingSolver;
+import src.main.KarnaughMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FourVariableTableTest {
+
+    @Test
+    public void everyMapIsCovered() {
+        FourVariableTable table = FourVariableTable.get();
+
+        for (int bits = 0; bits < 1 << 16; bits++) {
+            KarnaughMap map = new KarnaughMap(4, 4);
+            for (int cell = 0; cell < 16; cell++)
+                if ((bits >>> cell & 1) != 0) map.set(cell / 4, cell % 4, true);
+
+            assertEquals(bits, FourVariableTable.truthTable(map));
+
+            KarnaughMap left = map.copy();
+            for (Grouping g : table.lookup(map)) {
+                assertEquals(g.size(), map.count(g));
+                left.clear(g);
+            }
+            assertTrue(left.isEmpty());
+        }
+    }
+
+    @Test
+    public void smallShapes() {
+        int[][] map = {{1, 1, 0, 1},
+                       {0, 0, 0, 1}};
+
+        KarnaughMap k = KarnaughMap.of(map);
+        FourVariableTable table = FourVariableTable.get();
+
+        assertTrue(FourVariableTable.fits(k));
+        assertEquals(2, table.count(4, 2, FourVariableTable.truthTable(k)));
+        for (Grouping g : table.lookup(k)) {
+            assertEquals(4, g.dimension().width);
+            assertEquals(2, g.dimension().height);
+        }
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        FourVariableTable table = FourVariableTable.get();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.write(out);
+
+        FourVariableTable copy = FourVariableTable.read(new ByteArrayInputStream(out.toByteArray()));
+
+        for (int bits = 0; bits < 1 << 16; bits++) {
+            assertEquals(table.code(4, 4, bits), copy.code(4, 4, bits));
+            assertEquals(table.count(4, 4, bits), copy.count(4, 4, bits));
+        }
+    }
+
+    @Test
+    public void resourceHoldsMinimumCovers() throws IOException {
+        FourVariableTable resource;
+        try (InputStream in = FourVariableTable.class.getResourceAsStream("FourVariableTable.bin")) {
+            assertNotNull("FourVariableTable.bin is not on the classpath", in);
+            resource = FourVariableTable.read(in);
+        }
+
+        GroupingSolver solver = new GroupingSolver();
+        FourVariableTable table = FourVariableTable.get();
+
+        for (int width = 1; width <= 4; width <<= 1)
+            for (int height = 1; height <= 4; height <<= 1)
+                for (int bits = 0; bits < 1 << (width * height); bits++) {
+                    KarnaughMap map = new KarnaughMap(width, height);
+                    for (int cell = 0; cell < width * height; cell++)
+                        if ((bits >>> cell & 1) != 0) map.set(cell / width, cell % width, true);
+
+                    // a resource left over from an older solver would differ here
+                    assertEquals(map.toString(), solver.solveMinimum(map, Duration.ofSeconds(10)).size(), resource.count(width, height, bits));
+                    assertEquals(resource.code(width, height, bits), table.code(width, height, bits));
+                }
+    }
+
+    @Test
+    public void rejectsOtherData() {
+        assertThrows(IOException.class, () -> FourVariableTable.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4})));
+    }
+}
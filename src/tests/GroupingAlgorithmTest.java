@@ -3,9 +3,11 @@ package src.tests;
 import org.junit.Assert;
 import org.junit.jupiter.api.Test;
 import src.common.IllegalGroupingSizeException;
+import src.main.CoverResult;
 import src.main.Grouping;
 import src.main.GroupingAlgorithm;
 
+import java.time.Duration;
 import java.util.ArrayList;
 
 import static org.junit.Assert.assertEquals;
@@ -155,4 +157,79 @@ public class GroupingAlgorithmTest {
         for (Grouping g : GroupingAlgorithm.findOptimalGroupings(map))
             Assert.assertTrue(expected.contains(g));
     }
+
+    @Test
+    public void essentialPrimes4x4() throws IllegalGroupingSizeException {
+        int[][] map = {{0, 1, 0, 0},
+                       {0, 1, 1, 0},
+                       {0, 0, 1, 0},
+                       {0, 0, 0, 0}};
+
+        ArrayList<Grouping> expected = new ArrayList<>();
+        expected.add(new Grouping(0, 1, 1, 1, 4, 4));
+        expected.add(new Grouping(1, 2, 2, 2, 4, 4));
+
+        int count = 0;
+        for (Grouping g : GroupingAlgorithm.findOptimalGroupings(map)) {
+            Assert.assertTrue(expected.contains(g));
+            count++;
+        }
+        assertEquals(2, count);
+    }
+
+    @Test
+    public void minimumBeatsGreedy4x4() throws IllegalGroupingSizeException {
+        int[][] map = {{1, 0, 1, 1},
+                       {1, 1, 1, 0},
+                       {0, 0, 0, 0},
+                       {0, 0, 0, 0}};
+
+        ArrayList<Grouping> expected = new ArrayList<>();
+        expected.add(new Grouping(0, 0, 1, 0, 4, 4));
+        expected.add(new Grouping(0, 2, 0, 3, 4, 4));
+        expected.add(new Grouping(1, 1, 1, 2, 4, 4));
+
+        CoverResult result = GroupingAlgorithm.findMinimumGroupings(map, Duration.ofSeconds(10));
+
+        Assert.assertTrue(result.isOptimal());
+        assertEquals(3, result.size());
+        for (Grouping g : result.getGroupings())
+            Assert.assertTrue(expected.contains(g));
+    }
+
+    @Test
+    public void minimumWithoutBudget() {
+        int[][] map = {{1, 0, 1, 1},
+                       {1, 1, 1, 0},
+                       {0, 0, 0, 0},
+                       {0, 0, 0, 0}};
+
+        CoverResult result = GroupingAlgorithm.findMinimumGroupings(map, Duration.ZERO);
+
+        Assert.assertFalse(result.isOptimal());
+        assertEquals(4, result.size());
+    }
+
+    @Test
+    public void dontCares4x4() throws IllegalGroupingSizeException {
+        int[][] map = {{1, 2, 0, 0},
+                       {1, 2, 0, 0},
+                       {1, 1, 0, 2},
+                       {2, 1, 0, 0}};
+
+        ArrayList<Grouping> groups = new ArrayList<>();
+        for (Grouping g : GroupingAlgorithm.findOptimalGroupings(map, 2)) groups.add(g);
+
+        assertEquals(1, groups.size());
+        assertEquals(new Grouping(0, 0, 3, 1, 4, 4), groups.get(0));
+    }
+
+    @Test
+    public void onlyDontCares() {
+        int[][] map = {{2, 2},
+                       {2, 0}};
+
+        for (Grouping g : GroupingAlgorithm.findOptimalGroupings(map, 2))
+            fail();
+    }
 }
@@ -0,0 +1,81 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.Grouping;
+import src.main.GroupingCache;
+import src.main.KarnaughMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GroupingCacheTest {
+
+    private static int checkCover(int[][] map, Iterable<Grouping> groupings) {
+        KarnaughMap k = KarnaughMap.of(map), left = k.copy();
+        int count = 0;
+
+        for (Grouping g : groupings) {
+            assertEquals(g.size(), k.count(g));
+            left.clear(g);
+            count++;
+        }
+
+        assertTrue(left.isEmpty());
+        return count;
+    }
+
+    @Test
+    public void shiftedMapIsHit() {
+        int[][] map = {{1, 1, 0, 0, 0, 0, 0, 0},
+                       {1, 1, 1, 0, 0, 0, 0, 0},
+                       {0, 0, 0, 0, 0, 0, 0, 0},
+                       {0, 0, 0, 0, 0, 0, 0, 1}};
+
+        int[][] shifted = new int[4][8];
+        for (int row = 0; row < 4; row++)
+            for (int col = 0; col < 8; col++)
+                shifted[(row + 1) % 4][(col + 3) % 8] = map[row][col];
+
+        GroupingCache cache = new GroupingCache(16);
+
+        int first = checkCover(map, cache.findOptimalGroupings(map));
+        int second = checkCover(shifted, cache.findOptimalGroupings(shifted));
+
+        assertEquals(first, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void reflectedMapIsHit() {
+        int[][] map = {{1, 1, 1, 0, 0, 0, 0, 0},
+                       {0, 0, 1, 0, 0, 0, 0, 1}};
+
+        int[][] reflected = {{1, 0, 0, 0, 0, 1, 0, 0},
+                             {0, 0, 0, 0, 0, 1, 1, 1}};
+
+        GroupingCache cache = new GroupingCache(16);
+
+        checkCover(map, cache.findOptimalGroupings(map));
+        checkCover(reflected, cache.findOptimalGroupings(reflected));
+
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        int[][] a = {{1, 0, 0}, {0, 0, 0}, {0, 0, 0}};
+        int[][] b = {{1, 1, 0}, {0, 0, 0}, {0, 0, 0}};
+
+        GroupingCache cache = new GroupingCache(1);
+
+        cache.findOptimalGroupings(a);
+        cache.findOptimalGroupings(b);
+        cache.findOptimalGroupings(a);
+
+        assertEquals(3, cache.getMisses());
+        assertEquals(2, cache.getEvictions());
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,155 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.common.IllegalGroupingSizeException;
+import src.main.Grouping;
+import src.main.GroupingEnumerator;
+import src.main.KarnaughMap;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GroupingEnumeratorTest {
+
+    private static final int[][] SHAPES = {{4, 4}, {8, 8}, {6, 3}, {5, 7}, {3, 5}, {1, 9}, {16, 1}, {70, 3}, {130, 2}};
+
+    /**
+     * Lists every 2^m by 2^n region of 1s cell by cell, as {start row, start column, height, width}
+     */
+    private static Set<List<Integer>> bruteForce(KarnaughMap map, boolean primesOnly) {
+        int width = map.getWidth(), height = map.getHeight();
+        List<List<Integer>> valid = new ArrayList<>();
+        List<BitSet> cells = new ArrayList<>();
+
+        for (int h = 1; h <= height; h <<= 1)
+            for (int w = 1; w <= width; w <<= 1)
+                for (int r = 0; r < (h == height ? 1 : height); r++)
+                    for (int c = 0; c < (w == width ? 1 : width); c++) {
+                        BitSet set = new BitSet();
+                        boolean ones = true;
+                        for (int i = 0; i < h && ones; i++)
+                            for (int j = 0; j < w && ones; j++) {
+                                int row = (r + i) % height, col = (c + j) % width;
+                                ones = map.get(row, col);
+                                set.set(row * width + col);
+                            }
+
+                        if (ones) {
+                            valid.add(List.of(r, c, h, w));
+                            cells.add(set);
+                        }
+                    }
+
+        Set<List<Integer>> result = new HashSet<>();
+        for (int a = 0; a < valid.size(); a++) {
+            boolean inside = false;
+            for (int b = 0; b < valid.size() && primesOnly && !inside; b++) {
+                if (cells.get(b).cardinality() <= cells.get(a).cardinality()) continue;
+                BitSet outside = (BitSet) cells.get(a).clone();
+                outside.andNot(cells.get(b));
+                inside = outside.isEmpty();
+            }
+            if (!inside) result.add(valid.get(a));
+        }
+
+        return result;
+    }
+
+    private static List<List<Integer>> found(GroupingEnumerator enumerator) {
+        List<List<Integer>> found = new ArrayList<>();
+        for (int k = 0; k < enumerator.count(); k++)
+            found.add(List.of(enumerator.startRow(k), enumerator.startCol(k), enumerator.height(k), enumerator.width(k)));
+
+        return found;
+    }
+
+    private static void assertMatches(Set<List<Integer>> expected, GroupingEnumerator enumerator, KarnaughMap map) {
+        List<List<Integer>> found = found(enumerator);
+
+        assertEquals(map.toString(), expected, new HashSet<>(found));
+        assertEquals("duplicate groupings", expected.size(), found.size());
+        for (int k = 1; k < found.size(); k++)
+            assertTrue("not largest first", found.get(k - 1).get(2) * found.get(k - 1).get(3) >= found.get(k).get(2) * found.get(k).get(3));
+    }
+
+    @Test
+    public void matchesBruteForce() {
+        Random random = new Random(2);
+        GroupingEnumerator primes = new GroupingEnumerator(), all = new GroupingEnumerator(false);
+
+        // one enumerator of each kind is reused, so buffers sized for earlier maps are also exercised
+        for (int[] shape : SHAPES)
+            for (double density : new double[]{0.3, 0.7, 0.9, 1})
+                for (int trial = 0; trial < 3; trial++) {
+                    KarnaughMap map = TestMaps.random(random, shape[0], shape[1], density);
+
+                    primes.enumerate(map);
+                    assertMatches(bruteForce(map, true), primes, map);
+                    all.enumerate(map);
+                    assertMatches(bruteForce(map, false), all, map);
+                }
+    }
+
+    @Test
+    public void stripesMatchOneThread() {
+        Random random = new Random(3);
+        GroupingEnumerator sequential = new GroupingEnumerator(), striped = new GroupingEnumerator();
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        try {
+            for (int[] shape : SHAPES)
+                for (double density : new double[]{0.5, 0.9}) {
+                    KarnaughMap map = TestMaps.random(random, shape[0], shape[1], density);
+
+                    sequential.enumerate(map);
+                    striped.enumerate(map, pool);
+                    assertEquals(found(sequential), found(striped));
+                }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void wrapsAroundEdges() throws IllegalGroupingSizeException {
+        // the last column wraps onto the first, and the last row onto the first
+        KarnaughMap map = KarnaughMap.of(new int[][]{{1, 0, 0, 1},
+                                                     {0, 0, 0, 0},
+                                                     {1, 0, 0, 1},
+                                                     {1, 0, 0, 1}});
+        GroupingEnumerator enumerator = new GroupingEnumerator();
+        enumerator.enumerate(map);
+
+        assertEquals(2, enumerator.count());
+        assertEquals(Set.of(new Grouping(2, 3, 3, 0, 4, 4), new Grouping(3, 3, 0, 0, 4, 4)),
+                Set.of(enumerator.grouping(0), enumerator.grouping(1)));
+
+        // on a width that is not a power of two, a grouping of 4 columns can wrap from column 4 to column 1
+        KarnaughMap odd = KarnaughMap.of(new int[][]{{1, 1, 0, 0, 1, 1}});
+        enumerator.enumerate(odd);
+
+        assertEquals(1, enumerator.count());
+        assertEquals(new Grouping(0, 4, 0, 1, 6, 1), enumerator.grouping(0));
+    }
+
+    @Test
+    public void countsCandidatesTested() {
+        GroupingEnumerator enumerator = new GroupingEnumerator();
+
+        // one candidate per cell for each power of two height and width up to the side
+        int[][] expected = {{4, 4, 3 * 3 * 16}, {6, 3, 3 * 2 * 18}, {70, 3, 7 * 2 * 210}, {1, 1, 1}};
+        for (int[] e : expected) {
+            enumerator.enumerate(new KarnaughMap(e[0], e[1]));
+            assertEquals(e[2], enumerator.candidatesTested());
+            assertEquals(0, enumerator.count());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.Grouping;
+import src.main.GroupingList;
+import src.main.GroupingSolver;
+import src.main.KarnaughMap;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class GroupingSolverTest {
+
+    @Test
+    public void solveIntoMatchesSolve() {
+        int[][][] maps = {
+                {{1, 1, 0, 1, 0, 0, 0, 1},
+                 {1, 1, 0, 1, 0, 1, 1, 1},
+                 {0, 1, 1, 0, 0, 0, 0, 0}},
+                {{1, 0},
+                 {1, 1}},
+                {{0, 1, 1, 0, 1},
+                 {1, 1, 1, 1, 0},
+                 {0, 0, 1, 1, 1},
+                 {1, 0, 0, 0, 1},
+                 {1, 1, 0, 1, 1}}
+        };
+
+        GroupingSolver solver = new GroupingSolver();
+        int[] out = new int[64];
+
+        for (int[][] map : maps) {
+            List<Grouping> expected = solver.solve(map);
+            int count = solver.solveInto(KarnaughMap.of(map), out);
+
+            assertEquals(expected.size(), count);
+            for (int i = 0; i < count; i++) {
+                Grouping g = expected.get(i);
+                assertEquals(g.getStartRow(), out[4 * i]);
+                assertEquals(g.getStartCol(), out[4 * i + 1]);
+                assertEquals(g.getEndRow(), out[4 * i + 2]);
+                assertEquals(g.getEndCol(), out[4 * i + 3]);
+            }
+        }
+    }
+
+    @Test
+    public void shortOutputBuffer() {
+        int[][] map = {{1, 0, 1, 0, 1, 0, 1, 0},
+                       {0, 1, 0, 1, 0, 1, 0, 1}};
+
+        GroupingSolver solver = new GroupingSolver();
+        int[] out = new int[4];
+
+        assertEquals(8, solver.solveInto(KarnaughMap.of(map), out));
+    }
+
+    @Test
+    public void solveIntoGroupingList() {
+        int[][] map = {{1, 1, 0, 1, 0, 0, 0, 1},
+                       {1, 1, 0, 1, 0, 1, 1, 1},
+                       {0, 1, 1, 0, 0, 0, 0, 0}};
+
+        GroupingSolver solver = new GroupingSolver();
+        GroupingList out = new GroupingList();
+
+        List<Grouping> expected = solver.solve(map);
+        assertEquals(expected.size(), solver.solveInto(KarnaughMap.of(map), out));
+        assertEquals(expected, out);
+
+        for (int i = 0; i < out.size(); i++) {
+            Grouping g = expected.get(i);
+            assertEquals(g.getEndCol(), out.getEndCol(i));
+            assertEquals(g.pack(), out.getPacked(i));
+            assertEquals(g.cellMask(), out.cellMask(i));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.common.IllegalGroupingSizeException;
+import src.main.Grouping;
+import src.main.IncrementalKarnaughSolver;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class IncrementalKarnaughSolverTest {
+
+    @Test
+    public void growsAndShrinksGrouping() throws IllegalGroupingSizeException {
+        IncrementalKarnaughSolver solver = new IncrementalKarnaughSolver(4, 4);
+
+        solver.set(0, 0, true);
+        solver.set(0, 3, true);
+        List<Grouping> groups = solver.getGroupings();
+        assertEquals(1, groups.size());
+        assertEquals(new Grouping(0, 3, 0, 0, 4, 4), groups.get(0));
+
+        solver.set(3, 0, true);
+        solver.set(3, 3, true);
+        groups = solver.getGroupings();
+        assertEquals(1, groups.size());
+        assertEquals(new Grouping(3, 3, 0, 0, 4, 4), groups.get(0));
+
+        solver.set(0, 0, false);
+        assertEquals(2, solver.getGroupings().size());
+        TestMaps.assertCovers(solver.getMap(), solver.getGroupings());
+    }
+
+    @Test
+    public void randomEditsKeepCandidatesAndCover() {
+        Random random = new Random(5);
+        int[][] dimensions = {{8, 8}, {3, 5}, {16, 4}, {12, 10}};
+
+        for (int[] d : dimensions) {
+            IncrementalKarnaughSolver solver = new IncrementalKarnaughSolver(d[0], d[1]);
+
+            for (int i = 0; i < 500; i++) {
+                solver.set(random.nextInt(d[1]), random.nextInt(d[0]), random.nextInt(3) > 0);
+                TestMaps.assertCovers(solver.getMap(), solver.getGroupings());
+
+                if (i % 50 == 0) assertEquals(new IncrementalKarnaughSolver(solver.getMap()).getCandidateCount(), solver.getCandidateCount());
+            }
+
+            // the candidates kept up to date must match those found from scratch
+            int candidates = solver.getCandidateCount();
+            solver.resolve();
+            assertEquals(candidates, solver.getCandidateCount());
+            TestMaps.assertCovers(solver.getMap(), solver.getGroupings());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.common.IllegalGroupingSizeException;
+import src.main.Grouping;
+import src.main.FenwickSumMatrix;
+import src.main.GroupingAlgorithm;
+import src.main.IncrementalKarnaughSolver;
+import src.main.KarnaughMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class KarnaughMapTest {
+
+    @Test
+    public void packsIntMap() {
+        int[][] map = {{1, 0, 2, 1},
+                       {0, 1, 0, 0}};
+
+        KarnaughMap k = KarnaughMap.of(map);
+
+        assertEquals(4, k.getWidth());
+        assertEquals(2, k.getHeight());
+        assertEquals(3, k.count());
+        assertTrue(k.get(0, 3));
+        assertFalse(k.get(0, 2));
+    }
+
+    @Test
+    public void countWrappedGrouping() throws IllegalGroupingSizeException {
+        int[][] map = {{1, 0, 0, 1},
+                       {0, 0, 0, 0},
+                       {0, 0, 0, 0},
+                       {1, 0, 0, 1}};
+
+        KarnaughMap k = KarnaughMap.of(map);
+        Grouping corners = new Grouping(3, 3, 0, 0, 4, 4);
+
+        assertEquals(4, corners.mapSection(k));
+        k.clear(corners);
+        assertTrue(k.isEmpty());
+    }
+
+    @Test
+    public void wideRowsSpanWords() throws IllegalGroupingSizeException {
+        KarnaughMap k = new KarnaughMap(128, 2);
+
+        for (int col = 0; col < 128; col++) k.set(1, col, true);
+
+        Grouping g = new Grouping(1, 96, 1, 31, 128, 2);
+
+        assertEquals(64, k.count(g));
+        k.clear(g);
+        assertEquals(64, k.count());
+        assertFalse(k.get(1, 0));
+        assertTrue(k.get(1, 32));
+        assertTrue(k.get(1, 95));
+    }
+
+    @Test
+    public void solveLeavesInputUnchanged() {
+        boolean[][] map = {{true, true},
+                           {false, true}};
+
+        GroupingAlgorithm.findOptimalGroupings(map);
+
+        assertTrue(map[0][0] && map[0][1] && map[1][1]);
+    }
+
+    @Test
+    public void groupingCells() throws IllegalGroupingSizeException {
+        Grouping g = new Grouping(3, 3, 0, 0, 4, 4);
+
+        long[] mask = new long[1];
+        g.forEachCell(cell -> mask[0] |= 1L << cell);
+
+        assertEquals(1L | 1L << 3 | 1L << 12 | 1L << 15, mask[0]);
+        assertEquals(mask[0], g.cellMask());
+        assertEquals(g, Grouping.unpack(g.pack()));
+        assertEquals(g.hashCode(), Grouping.unpack(g.pack()).hashCode());
+    }
+
+    @Test
+    public void cellsOutsideMapAreRejected() throws IllegalGroupingSizeException {
+        KarnaughMap map = new KarnaughMap(6, 3);
+
+        // column 6 is a padding bit of the first word, so it must not be settable
+        assertThrows(IllegalArgumentException.class, () -> map.set(0, 6, true));
+        assertThrows(IllegalArgumentException.class, () -> map.set(3, 0, true));
+        assertThrows(IllegalArgumentException.class, () -> map.set(-1, 0, true));
+        assertThrows(IllegalArgumentException.class, () -> map.get(0, -1));
+        assertThrows(IllegalArgumentException.class, () -> map.get(0, 6));
+        assertTrue(map.isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> new IncrementalKarnaughSolver(5, 5).set(0, 7, true));
+        assertThrows(IllegalArgumentException.class, () -> new FenwickSumMatrix(new KarnaughMap(4, 4)).set(4, 0, true));
+
+        // a grouping of a map of another size does not fit, even when its cells would
+        Grouping other = new Grouping(0, 0, 0, 1, 8, 4);
+        assertThrows(IllegalArgumentException.class, () -> new KarnaughMap(4, 4).count(other));
+        assertThrows(IllegalArgumentException.class, () -> new KarnaughMap(4, 4).clear(other));
+    }
+}
@@ -0,0 +1,54 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.GroupingAlgorithm;
+import src.main.KarnaughMap;
+import src.main.LargeGridSolver;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LargeGridSolverTest {
+
+    @Test
+    public void matchesSequentialSolver() {
+        Random random = new Random(15);
+
+        try (LargeGridSolver solver = new LargeGridSolver(3)) {
+            for (int i = 0; i < 60; i++) {
+                int width = 1 + random.nextInt(40), height = 1 + random.nextInt(40);
+                KarnaughMap map = TestMaps.random(random, width, height, 0.3 + 0.65 * random.nextDouble());
+
+                assertEquals(GroupingAlgorithm.findOptimalGroupings(map), solver.solve(map));
+            }
+        }
+    }
+
+    @Test
+    public void smallMapsMatchTable() {
+        Random random = new Random(16);
+        int[] sides = {1, 2, 4};
+
+        try (LargeGridSolver solver = new LargeGridSolver(2)) {
+            for (int width : sides)
+                for (int height : sides)
+                    for (int i = 0; i < 50; i++) {
+                        KarnaughMap map = TestMaps.random(random, width, height, 0.6);
+                        assertEquals(GroupingAlgorithm.findOptimalGroupings(map), solver.solve(map));
+                    }
+        }
+    }
+
+    @Test
+    public void emptyAndFullMaps() {
+        try (LargeGridSolver solver = new LargeGridSolver(2)) {
+            assertTrue(solver.solve(new KarnaughMap(64, 64)).isEmpty());
+
+            KarnaughMap full = TestMaps.random(new Random(1), 64, 64, 2);
+            assertEquals(1, solver.solve(full).size());
+            assertEquals(64 * 64, solver.solve(full).get(0).size());
+        }
+    }
+}
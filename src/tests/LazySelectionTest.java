@@ -0,0 +1,183 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.Grouping;
+import src.main.GroupingAlgorithm;
+import src.main.GroupingSolver;
+import src.main.KarnaughMap;
+import src.main.PartialCover;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LazySelectionTest {
+
+    @Test
+    public void iterateMatchesSolve() {
+        Random random = new Random(18);
+        GroupingSolver solver = new GroupingSolver();
+
+        for (int i = 0; i < 100; i++) {
+            KarnaughMap map = TestMaps.random(random, 1 + random.nextInt(16), 1 + random.nextInt(16), 2 / 3.0);
+            List<Grouping> expected = solver.solve(map);
+
+            List<Grouping> lazy = new ArrayList<>();
+            solver.iterate(map).forEachRemaining(lazy::add);
+            assertEquals(expected, lazy);
+            assertEquals(expected, solver.stream(map).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void stopsAfterMaxGroups() {
+        Random random = new Random(19);
+        GroupingSolver solver = new GroupingSolver();
+
+        for (int i = 0; i < 100; i++) {
+            KarnaughMap map = TestMaps.random(random, 1 + random.nextInt(12), 1 + random.nextInt(12), 2 / 3.0);
+            List<Grouping> expected = solver.solve(map);
+            int k = random.nextInt(expected.size() + 2);
+
+            PartialCover partial = solver.solve(map, k);
+            assertEquals(expected.subList(0, Math.min(k, expected.size())), partial.getGroupings());
+
+            // count the 1s the first k groupings leave uncovered
+            KarnaughMap uncovered = map.copy();
+            for (Grouping g : partial.getGroupings())
+                g.forEachCell(cell -> uncovered.set(cell / map.getWidth(), cell % map.getWidth(), false));
+            int left = 0;
+            for (int row = 0; row < map.getHeight(); row++)
+                for (int col = 0; col < map.getWidth(); col++)
+                    if (uncovered.get(row, col)) left++;
+
+            assertEquals(left, partial.getUncovered());
+            assertEquals(k >= expected.size(), partial.isComplete());
+        }
+    }
+
+    /**
+     * Lists the cells of every 2^m by 2^n region of 1s of a 4 by 4 map not inside another, as bits {@code row * 4 + col}
+     */
+    private static List<Integer> primes(int ones) {
+        List<Integer> valid = new ArrayList<>();
+        for (int h = 1; h <= 4; h <<= 1)
+            for (int w = 1; w <= 4; w <<= 1)
+                for (int r = 0; r < (h == 4 ? 1 : 4); r++)
+                    for (int c = 0; c < (w == 4 ? 1 : 4); c++) {
+                        int mask = 0;
+                        for (int i = 0; i < h; i++)
+                            for (int j = 0; j < w; j++) mask |= 1 << ((r + i) % 4 * 4 + (c + j) % 4);
+                        if ((mask & ~ones) == 0) valid.add(mask);
+                    }
+
+        List<Integer> primes = new ArrayList<>();
+        for (int a : valid)
+            if (valid.stream().noneMatch(b -> b != a && (a & ~b) == 0)) primes.add(a);
+
+        return primes;
+    }
+
+    @Test
+    public void smallMapsComeEssentialsThenLargestFirst() {
+        GroupingSolver solver = new GroupingSolver();
+
+        // maps of 4 by 4 are answered from FourVariableTable, so its order must match the greedy selection's
+        for (int ones = 0; ones < 1 << 16; ones++) {
+            KarnaughMap map = new KarnaughMap(4, 4);
+            for (int cell = 0; cell < 16; cell++)
+                if ((ones >>> cell & 1) != 0) map.set(cell / 4, cell % 4, true);
+
+            int once = 0, twice = 0;
+            for (int prime : primes(ones)) {
+                twice |= once & prime;
+                once |= prime;
+            }
+            int unique = once & ~twice;
+
+            List<Grouping> groups = new ArrayList<>();
+            solver.iterate(map).forEachRemaining(groups::add);
+
+            boolean rest = false;
+            for (int i = 0; i < groups.size(); i++) {
+                boolean essential = (groups.get(i).cellMask() & unique) != 0;
+                assertTrue(map.toString(), !rest || !essential);
+                rest |= !essential;
+
+                if (i > 0 && !essential) assertTrue(map.toString(), (groups.get(i - 1).cellMask() & unique) != 0 || groups.get(i - 1).size() >= groups.get(i).size());
+            }
+        }
+
+        // a non-essential pair was once listed before a non-essential quad
+        KarnaughMap map = KarnaughMap.of(new int[][]{{1, 0, 1, 1}, {1, 1, 1, 0}, {1, 1, 1, 1}, {0, 0, 0, 0}});
+        List<Grouping> groups = solver.solve(map);
+        for (int i = 1; i < groups.size(); i++)
+            assertTrue(groups.toString(), groups.get(i - 1).size() >= groups.get(i).size());
+    }
+
+    @Test
+    public void smallMapsStopAfterLargestGroupings() {
+        GroupingSolver solver = new GroupingSolver();
+
+        for (int ones = 0; ones < 1 << 16; ones += 7) {
+            KarnaughMap map = new KarnaughMap(4, 4);
+            for (int cell = 0; cell < 16; cell++)
+                if ((ones >>> cell & 1) != 0) map.set(cell / 4, cell % 4, true);
+
+            int once = 0, twice = 0;
+            for (int prime : primes(ones)) {
+                twice |= once & prime;
+                once |= prime;
+            }
+            int unique = once & ~twice;
+            List<Grouping> expected = solver.solve(map);
+
+            for (int k = 0; k <= expected.size(); k++) {
+                List<Grouping> kept = solver.solve(map, k).getGroupings();
+                assertEquals(expected.subList(0, k), kept);
+
+                // once past the essential groupings, none left out is larger than one kept
+                for (Grouping g : kept)
+                    if ((g.cellMask() & unique) == 0)
+                        for (Grouping left : expected.subList(k, expected.size())) assertTrue(map.toString(), g.size() >= left.size());
+            }
+        }
+    }
+
+    @Test
+    public void solvingAgainEndsSelection() {
+        GroupingSolver solver = new GroupingSolver();
+        KarnaughMap map = TestMaps.random(new Random(20), 16, 8, 2 / 3.0);
+
+        Iterator<Grouping> groups = solver.iterate(map);
+        assertTrue(groups.hasNext());
+        groups.next();
+
+        solver.solve(map);
+        assertThrows(ConcurrentModificationException.class, groups::hasNext);
+    }
+
+    @Test
+    public void staticStreamIsIndependent() {
+        KarnaughMap map = TestMaps.random(new Random(21), 16, 16, 2 / 3.0);
+        List<Grouping> expected = new ArrayList<>();
+        GroupingAlgorithm.findOptimalGroupings(map).forEach(expected::add);
+
+        Iterator<Grouping> groups = GroupingAlgorithm.streamOptimalGroupings(map).iterator();
+        GroupingAlgorithm.findOptimalGroupings(TestMaps.random(new Random(22), 16, 16, 2 / 3.0));
+
+        List<Grouping> lazy = new ArrayList<>();
+        groups.forEachRemaining(lazy::add);
+        assertEquals(expected, lazy);
+
+        assertFalse(GroupingAlgorithm.streamOptimalGroupings(new KarnaughMap(8, 8)).findFirst().isPresent());
+    }
+}
@@ -0,0 +1,96 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.Grouping;
+import src.main.GroupingAlgorithm;
+import src.main.KarnaughMap;
+import src.main.MultiOutputCover;
+import src.main.MultiOutputSolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MultiOutputSolverTest {
+
+    private static List<KarnaughMap> correlatedMaps(Random random, int outputs, int width, int height) {
+        KarnaughMap base = new KarnaughMap(width, height);
+        for (int row = 0; row < height; row++)
+            for (int col = 0; col < width; col++) base.set(row, col, random.nextDouble() < 0.6);
+
+        List<KarnaughMap> maps = new ArrayList<>();
+        for (int o = 0; o < outputs; o++) {
+            KarnaughMap map = base.copy();
+            for (int row = 0; row < height; row++)
+                for (int col = 0; col < width; col++)
+                    if (random.nextDouble() < 0.2) map.set(row, col, random.nextBoolean());
+            maps.add(map);
+        }
+
+        return maps;
+    }
+
+    @Test
+    public void coversEachOutputExactly() {
+        Random random = new Random(20);
+        MultiOutputSolver solver = new MultiOutputSolver();
+
+        for (int i = 0; i < 50; i++) {
+            int width = 1 + random.nextInt(16), height = 1 + random.nextInt(16);
+            List<KarnaughMap> maps = correlatedMaps(random, 1 + random.nextInt(6), width, height);
+            MultiOutputCover cover = solver.solve(maps);
+
+            for (int o = 0; o < maps.size(); o++) {
+                KarnaughMap covered = new KarnaughMap(width, height);
+                for (Grouping g : cover.getGroupings(o)) {
+                    assertEquals(g.size(), maps.get(o).count(g));
+                    g.forEachCell(cell -> covered.set(cell / width, cell % width, true));
+                }
+                assertEquals(maps.get(o), covered);
+            }
+        }
+    }
+
+    @Test
+    public void oneOutputMatchesSingleSolve() {
+        Random random = new Random(21);
+        MultiOutputSolver solver = new MultiOutputSolver();
+
+        for (int i = 0; i < 50; i++) {
+            // maps of more than 4 variables, which are not looked up in the table
+            KarnaughMap map = correlatedMaps(random, 1, 8 + random.nextInt(10), 5 + random.nextInt(10)).get(0);
+
+            List<Grouping> expected = new ArrayList<>();
+            GroupingAlgorithm.findOptimalGroupings(map).forEach(expected::add);
+            assertEquals(expected, solver.solve(Collections.singletonList(map)).getGroupings(0));
+        }
+    }
+
+    @Test
+    public void sharesTerms() {
+        KarnaughMap a = KarnaughMap.of(new boolean[][] {
+                {true, true, false, false},
+                {true, true, false, true},
+                {false, false, false, false},
+                {false, false, false, false}});
+        KarnaughMap b = KarnaughMap.of(new boolean[][] {
+                {true, true, false, false},
+                {true, true, false, false},
+                {false, false, false, false},
+                {false, false, true, false}});
+
+        MultiOutputCover cover = GroupingAlgorithm.findSharedGroupings(Arrays.asList(a, b));
+
+        // the 2 by 2 square is used by both outputs, and each single cell by one
+        assertEquals(3, cover.size());
+        assertEquals(3L, cover.getUsedBy(0));
+        assertEquals(2, cover.getGroupings(0).size());
+        assertEquals(2, cover.getGroupings(1).size());
+        assertTrue(cover.getGroupings(0).contains(cover.getTerms().get(0)));
+    }
+}
@@ -0,0 +1,129 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.common.IllegalGroupingSizeException;
+import src.main.FenwickSumMatrix;
+import src.main.Grouping;
+import src.main.KarnaughMap;
+import src.main.PrefixSumMatrix;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrefixSumMatrixTest {
+
+    private static final int[][] MAP = {{1, 0, 0, 1},
+                                        {0, 0, 0, 0},
+                                        {1, 1, 0, 1},
+                                        {1, 0, 0, 1}};
+
+    // wide and tall maps, so that swapping rows for columns cannot go unnoticed
+    private static final int[][] SHAPES = {{5, 12}, {12, 5}, {16, 3}, {3, 16}, {7, 1}, {1, 9}};
+
+    /**
+     * Counts the 1s of a region cell by cell, wrapping around the edges
+     */
+    private static int count(boolean[][] cells, int startRow, int startCol, int rows, int cols) {
+        int height = cells.length, width = cells[0].length, count = 0;
+        for (int i = 0; i < rows; i++)
+            for (int j = 0; j < cols; j++)
+                if (cells[(startRow + i) % height][(startCol + j) % width]) count++;
+
+        return count;
+    }
+
+    /**
+     * Picks a grouping of 2^m by 2^n cells anywhere in a map, wrapping around the edges
+     */
+    private static Grouping randomGrouping(Random random, int width, int height) throws IllegalGroupingSizeException {
+        int rows = Integer.highestOneBit(1 + random.nextInt(height)), cols = Integer.highestOneBit(1 + random.nextInt(width));
+        int startRow = rows == height ? 0 : random.nextInt(height), startCol = cols == width ? 0 : random.nextInt(width);
+
+        return new Grouping(startRow, startCol, (startRow + rows - 1) % height, (startCol + cols - 1) % width, width, height);
+    }
+
+    @Test
+    public void wrappedRegions() throws IllegalGroupingSizeException {
+        PrefixSumMatrix sums = new PrefixSumMatrix(MAP);
+
+        assertEquals(7, sums.sumRegion(0, 0, 3, 3));
+        assertEquals(7, sums.sumRegion(2, 1, 1, 0));
+        assertEquals(4, sums.sumRegion(2, 3, 3, 0));
+        assertEquals(4, sums.sumRegion(3, 3, 0, 0));
+        assertEquals(0, sums.sumRegion(0, 1, 1, 2));
+
+        assertTrue(sums.isAllOnes(new Grouping(2, 3, 3, 0, 4, 4)));
+        assertFalse(sums.isAllOnes(new Grouping(1, 3, 2, 0, 4, 4)));
+    }
+
+    @Test
+    public void fenwickMatchesAfterEdits() {
+        Random random = new Random(9);
+        KarnaughMap map = KarnaughMap.of(MAP);
+        FenwickSumMatrix sums = new FenwickSumMatrix(map);
+
+        for (int i = 0; i < 500; i++) {
+            int row = random.nextInt(4), col = random.nextInt(4);
+            boolean value = random.nextBoolean();
+            map.set(row, col, value);
+            sums.set(row, col, value);
+
+            int r0 = random.nextInt(4), c0 = random.nextInt(4), r1 = random.nextInt(4), c1 = random.nextInt(4);
+            assertEquals(new PrefixSumMatrix(map).sumRegion(r0, c0, r1, c1), sums.sumRegion(r0, c0, r1, c1));
+        }
+    }
+
+    @Test
+    public void nonSquareMapsMatchBruteForce() throws IllegalGroupingSizeException {
+        Random random = new Random(14);
+
+        for (int[] shape : SHAPES) {
+            int width = shape[0], height = shape[1];
+            KarnaughMap map = TestMaps.random(random, width, height, 0.7);
+            boolean[][] cells = TestMaps.toArray(map);
+            PrefixSumMatrix sums = new PrefixSumMatrix(map);
+
+            for (int i = 0; i < 300; i++) {
+                int r0 = random.nextInt(height), c0 = random.nextInt(width), r1 = random.nextInt(height), c1 = random.nextInt(width);
+                int rows = (r1 - r0 + height) % height + 1, cols = (c1 - c0 + width) % width + 1;
+                int expected = count(cells, r0, c0, rows, cols);
+
+                assertEquals(width + "x" + height, expected, sums.sumRegion(r0, c0, r1, c1));
+                assertEquals(expected, sums.sum(r0, c0, rows, cols));
+
+                Grouping g = randomGrouping(random, width, height);
+                assertEquals(g.toString(), count(cells, g.getStartRow(), g.getStartCol(), g.height(), g.width()) == g.size(), sums.isAllOnes(g));
+            }
+        }
+    }
+
+    @Test
+    public void nonSquareFenwickMatchesBruteForceAfterEdits() throws IllegalGroupingSizeException {
+        Random random = new Random(15);
+
+        for (int[] shape : SHAPES) {
+            int width = shape[0], height = shape[1];
+            KarnaughMap map = TestMaps.random(random, width, height, 0.7);
+            boolean[][] cells = TestMaps.toArray(map);
+            FenwickSumMatrix sums = new FenwickSumMatrix(map);
+
+            for (int i = 0; i < 500; i++) {
+                int row = random.nextInt(height), col = random.nextInt(width);
+                boolean value = random.nextInt(4) > 0;
+                cells[row][col] = value;
+                sums.set(row, col, value);
+                assertEquals(value, sums.get(row, col));
+
+                int r0 = random.nextInt(height), c0 = random.nextInt(width), r1 = random.nextInt(height), c1 = random.nextInt(width);
+                int expected = count(cells, r0, c0, (r1 - r0 + height) % height + 1, (c1 - c0 + width) % width + 1);
+                assertEquals(width + "x" + height, expected, sums.sumRegion(r0, c0, r1, c1));
+
+                Grouping g = randomGrouping(random, width, height);
+                assertEquals(g.toString(), count(cells, g.getStartRow(), g.getStartCol(), g.height(), g.width()) == g.size(), sums.isAllOnes(g));
+            }
+        }
+    }
+}
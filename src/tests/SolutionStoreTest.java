@@ -0,0 +1,158 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import src.main.Grouping;
+import src.main.GroupingAlgorithm;
+import src.main.GroupingList;
+import src.main.GroupingSolver;
+import src.main.KarnaughMap;
+import src.main.SolutionStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SolutionStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void solutionsSurviveReopening() throws IOException {
+        Path path = dir.resolve("solutions");
+        List<KarnaughMap> maps = TestMaps.random(new Random(1), 50, 16, 8, 0.5);
+        GroupingSolver solver = new GroupingSolver();
+
+        try (SolutionStore store = SolutionStore.open(path)) {
+            for (KarnaughMap map : maps) assertTrue(store.put(map, solver.solve(map)));
+            assertFalse(store.put(maps.get(0), solver.solve(maps.get(0))));
+            assertThrows(IOException.class, () -> SolutionStore.open(path));
+        }
+
+        try (SolutionStore store = SolutionStore.open(path)) {
+            assertEquals(50, store.size());
+            GroupingList out = new GroupingList();
+            for (KarnaughMap map : maps) {
+                out.clear();
+                assertTrue(store.getInto(map, out));
+                assertEquals(solver.solve(map), new ArrayList<>(out));
+            }
+            assertNull(store.get(new KarnaughMap(16, 8)));
+        }
+    }
+
+    @Test
+    public void recoversFromTornTail() throws IOException {
+        Path path = dir.resolve("solutions");
+        List<KarnaughMap> maps = TestMaps.random(new Random(2), 3, 32, 32, 0.5);
+        GroupingSolver solver = new GroupingSolver();
+
+        try (SolutionStore store = SolutionStore.open(path)) {
+            for (KarnaughMap map : maps) store.put(map, solver.solve(map));
+        }
+
+        // tear the last record, and lose the index as if the process died before closing
+        long last;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            long pos = 64;
+            for (int i = 0; i < 2; i++) {
+                length.clear();
+                channel.read(length, pos);
+                pos += length.getInt(0);
+            }
+            last = pos;
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), last + 40);
+        }
+        Files.delete(dir.resolve("solutions.idx"));
+
+        try (SolutionStore store = SolutionStore.open(path)) {
+            assertEquals(2, store.size());
+            assertEquals(solver.solve(maps.get(1)), store.get(maps.get(1)));
+            assertNull(store.get(maps.get(2)));
+            assertTrue(store.put(maps.get(2), solver.solve(maps.get(2))));
+        }
+
+        try (SolutionStore store = SolutionStore.open(path)) {
+            assertEquals(3, store.size());
+            assertEquals(solver.solve(maps.get(2)), store.get(maps.get(2)));
+        }
+    }
+
+    @Test
+    public void readersRunAlongsideWriter() throws Exception {
+        List<KarnaughMap> maps = TestMaps.random(new Random(3), 3000, 8, 8, 0.5);
+        GroupingSolver solver = new GroupingSolver();
+        List<List<Grouping>> solutions = new ArrayList<>();
+        for (KarnaughMap map : maps) solutions.add(solver.solve(map));
+
+        try (SolutionStore store = SolutionStore.open(dir.resolve("solutions"))) {
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+
+            Thread[] readers = new Thread[2];
+            for (int t = 0; t < readers.length; t++) {
+                int seed = t;
+                readers[t] = new Thread(() -> {
+                    Random random = new Random(seed);
+                    try {
+                        while (!done.get()) {
+                            int i = random.nextInt(maps.size());
+                            List<Grouping> found = store.get(maps.get(i));
+                            if (found != null && !found.equals(solutions.get(i))) throw new AssertionError("map " + i);
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                });
+                readers[t].start();
+            }
+
+            for (int i = 0; i < maps.size(); i++) store.put(maps.get(i), solutions.get(i));
+            done.set(true);
+            for (Thread reader : readers) reader.join();
+
+            assertNull(failure.get());
+            assertEquals(maps.size(), store.size());
+            for (int i = 0; i < maps.size(); i++) assertEquals(solutions.get(i), store.get(maps.get(i)));
+        }
+    }
+
+    @Test
+    public void algorithmLooksUpStoreFirst() throws IOException {
+        KarnaughMap map = TestMaps.random(new Random(4), 16, 16, 0.5);
+
+        try (SolutionStore store = SolutionStore.open(dir.resolve("solutions"))) {
+            GroupingAlgorithm.setSolutionStore(store);
+            try {
+                List<Grouping> expected = new GroupingSolver().solve(map);
+                assertEquals(expected, GroupingAlgorithm.findOptimalGroupings(map));
+                assertEquals(1, store.size());
+                assertEquals(expected, GroupingAlgorithm.findOptimalGroupings(map));
+                assertEquals(1, store.size());
+
+                // maps the four variable table covers are not stored
+                GroupingAlgorithm.findOptimalGroupings(new int[][]{{1, 1}, {0, 1}});
+                assertEquals(1, store.size());
+            } finally {
+                GroupingAlgorithm.setSolutionStore(null);
+            }
+        }
+    }
+}
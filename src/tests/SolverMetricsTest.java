@@ -0,0 +1,92 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.BatchSolver;
+import src.main.GroupingSolver;
+import src.main.KarnaughMap;
+import src.main.SolveStatistics;
+import src.main.SolverMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SolverMetricsTest {
+
+    @Test
+    public void statisticsOfOneSolve() {
+        boolean[][] kmap = {
+                {true, true, false, false, false, false, false, true},
+                {true, true, false, true, false, true, true, true},
+                {false, true, true, false, false, false, false, false},
+                {false, false, false, false, false, false, false, true}
+        };
+
+        List<SolveStatistics> seen = new ArrayList<>();
+        GroupingSolver solver = new GroupingSolver();
+        solver.setListener(statistics -> seen.add(statistics.copy()));
+        int groups = solver.solve(kmap).size();
+
+        assertEquals(1, seen.size());
+        SolveStatistics statistics = seen.get(0);
+
+        assertFalse(statistics.isTableLookup());
+        assertEquals(8, statistics.getWidth());
+        assertEquals(4, statistics.getHeight());
+        assertEquals(groups, statistics.getGroupingsSelected());
+        // 3 row levels and 4 column levels of sizes, from every cell
+        assertEquals(3 * 4 * 32, statistics.getCandidatesTested());
+        assertTrue(statistics.getGroupingsFound() >= groups);
+        assertTrue(statistics.getCellsScanned() > 32);
+        assertEquals(statistics.getTotalNanos(), statistics.getEnumerationNanos() + statistics.getIndexNanos() + statistics.getSelectionNanos());
+    }
+
+    @Test
+    public void tableLookupsAreCounted() {
+        SolverMetrics metrics = new SolverMetrics();
+        GroupingSolver solver = new GroupingSolver();
+        solver.setListener(metrics);
+
+        solver.solve(new boolean[][] {{true, false}, {true, true}});
+        solver.solve(KarnaughMap.of(new boolean[][] {{true, true, true, true, true, true, true, true, false}}));
+
+        assertEquals(2, metrics.getSolves());
+        assertEquals(1, metrics.getTableLookups());
+        assertEquals(3, metrics.getGroupingsSelected());
+
+        solver.setListener(null);
+        solver.solve(new boolean[][] {{true}});
+        assertEquals(2, metrics.getSolves());
+    }
+
+    @Test
+    public void sharedAcrossBatchThreads() {
+        Random random = new Random(17);
+        List<KarnaughMap> maps = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            KarnaughMap map = new KarnaughMap(16, 8);
+            for (int row = 0; row < 8; row++)
+                for (int col = 0; col < 16; col++) map.set(row, col, random.nextBoolean());
+            maps.add(map);
+        }
+
+        SolverMetrics metrics = new SolverMetrics();
+        try (BatchSolver batch = new BatchSolver(3, 8)) {
+            batch.setListener(metrics);
+            long selected = batch.solveAllMaps(maps).stream().mapToLong(List::size).sum();
+
+            Map<String, Long> snapshot = metrics.snapshot();
+            assertEquals(300L, (long) snapshot.get("solves"));
+            assertEquals(selected, (long) snapshot.get("groupings.selected"));
+            assertTrue(snapshot.get("total.nanos.max") <= snapshot.get("total.nanos"));
+        }
+
+        metrics.reset();
+        assertEquals(0, metrics.getSolves());
+    }
+}
@@ -0,0 +1,220 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.Grouping;
+import src.main.GroupingAlgorithm;
+import src.main.GroupingSolver;
+import src.main.KarnaughMap;
+import src.main.SolverServer;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SolverServerTest {
+
+    private static HttpURLConnection post(SolverServer server, String type, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + "/solve").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", type);
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        return connection;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] binary(KarnaughMap map) {
+        int width = map.getWidth(), height = map.getHeight();
+        byte[] body = new byte[4 + (width * height + 7) / 8];
+        body[0] = (byte) (width >>> 8);
+        body[1] = (byte) width;
+        body[2] = (byte) (height >>> 8);
+        body[3] = (byte) height;
+        for (int i = 0; i < width * height; i++)
+            if (map.get(i / width, i % width)) body[4 + i / 8] |= 1 << (i % 8);
+        return body;
+    }
+
+    private static String json(Iterable<Grouping> groups) {
+        StringBuilder s = new StringBuilder("{\"groupings\":[");
+        for (Grouping g : groups) {
+            if (s.length() > 14) s.append(',');
+            s.append("{\"startRow\":").append(g.getStartRow()).append(",\"startCol\":").append(g.getStartCol())
+                    .append(",\"endRow\":").append(g.getEndRow()).append(",\"endCol\":").append(g.getEndCol()).append('}');
+        }
+        return s.append("]}").toString();
+    }
+
+    private static HttpURLConnection postJson(SolverServer server, String body) throws IOException {
+        return post(server, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Grouping> solveBinary(SolverServer server, KarnaughMap map) throws IOException {
+        HttpURLConnection connection = post(server, "application/octet-stream", binary(map));
+        assertEquals(200, connection.getResponseCode());
+
+        List<Grouping> groups = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(connection.getInputStream())) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) groups.add(Grouping.unpack(in.readLong()));
+        }
+        return groups;
+    }
+
+    @Test
+    public void jsonRoundTrip() throws IOException {
+        try (SolverServer server = new SolverServer(0)) {
+            server.start();
+
+            HttpURLConnection connection = postJson(server, "{\"map\": [[1, 1, 0, 0], [1, 1, 0, true]]}");
+            assertEquals(200, connection.getResponseCode());
+            assertEquals(json(GroupingAlgorithm.findOptimalGroupings(new int[][]{{1, 1, 0, 0}, {1, 1, 0, 1}})), read(connection.getInputStream()));
+
+            HttpURLConnection ragged = postJson(server, "[[1,0],[1]]");
+            assertEquals(400, ragged.getResponseCode());
+            assertEquals(1, server.getErrors());
+        }
+    }
+
+    @Test
+    public void jsonMapIsFoundByItsKey() throws IOException {
+        String expected = json(GroupingAlgorithm.findOptimalGroupings(new int[][]{{1, 0}, {0, 1}}));
+
+        try (SolverServer server = new SolverServer(0)) {
+            server.start();
+
+            // arrays in other fields, before the map or inside strings, are not the map
+            for (String body : new String[]{"{\"id\":[7],\"map\":[[1,0],[0,1]]}", "{\"name\":\"[x]\",\"map\":[[1,0],[0,1]]}",
+                    "{\"map\":[[1,0],[0,1]],\"id\":{\"seen\":[[1]]},\"ok\":true}", " [ [1, 0] , [0, 1] ] \n"}) {
+                HttpURLConnection connection = postJson(server, body);
+                assertEquals(body, 200, connection.getResponseCode());
+                assertEquals(body, expected, read(connection.getInputStream()));
+            }
+            assertEquals(0, server.getErrors());
+        }
+    }
+
+    @Test
+    public void malformedJsonIsRejected() throws IOException {
+        String[] bodies = {"[[10],[01]]", "[[1 0],[0 1]]", "[[1,0] [0,1]]", "[[1,0],[0,1]]x", "[[1,0],[0,1]][[1]]",
+                "{\"map\":[[1,0],[0,1]]} junk", "{\"id\":[[1]]}", "{\"map\":[[1]],\"map\":[[0]]}", "[[1,0],[0,1],]", "[[1,0],[0,1]"};
+
+        try (SolverServer server = new SolverServer(0)) {
+            server.start();
+
+            for (String body : bodies) assertEquals(body, 400, postJson(server, body).getResponseCode());
+            assertEquals(bodies.length, server.getErrors());
+        }
+    }
+
+    @Test
+    public void solvedGroupingsCannotBeModified() throws IOException {
+        try (SolverServer server = new SolverServer(0)) {
+            List<Grouping> groups = server.solve(KarnaughMap.of(new int[][]{{1, 1}, {0, 0}}));
+
+            assertEquals(1, groups.size());
+            assertThrows(UnsupportedOperationException.class, groups::clear);
+        }
+    }
+
+    @Test
+    public void binaryRoundTrip() throws IOException {
+        Random random = new Random(24);
+        GroupingSolver solver = new GroupingSolver();
+
+        try (SolverServer server = new SolverServer(0)) {
+            server.start();
+            for (int i = 0; i < 20; i++) {
+                KarnaughMap map = TestMaps.random(random, 1 + random.nextInt(40), 1 + random.nextInt(40), 0.5);
+                assertEquals(solver.solve(map), solveBinary(server, map));
+            }
+
+            HttpURLConnection truncated = post(server, "application/octet-stream", new byte[]{0, 8, 0, 8, 1});
+            assertEquals(400, truncated.getResponseCode());
+        }
+    }
+
+    @Test
+    public void identicalRequestsShareOneSolve() throws Exception {
+        KarnaughMap map = TestMaps.random(new Random(25), 8, 8, 0.5);
+        CountDownLatch solving = new CountDownLatch(1), release = new CountDownLatch(1);
+
+        GroupingAlgorithm.setListener(statistics -> {
+            solving.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try (SolverServer server = new SolverServer(0)) {
+            server.start();
+
+            Future<List<Grouping>> first = clients.submit(() -> solveBinary(server, map));
+            assertTrue(solving.await(10, TimeUnit.SECONDS));
+            Future<List<Grouping>> second = clients.submit(() -> solveBinary(server, map));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (server.getCoalesced() == 0 && System.nanoTime() < deadline) Thread.sleep(5);
+            release.countDown();
+
+            assertEquals(new GroupingSolver().solve(map), first.get(10, TimeUnit.SECONDS));
+            assertEquals(first.get(), second.get(10, TimeUnit.SECONDS));
+            assertEquals(1, server.getCoalesced());
+            assertEquals(1, server.getSolves());
+        } finally {
+            release.countDown();
+            GroupingAlgorithm.setListener(null);
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    public void metricsReportLatency() throws Exception {
+        try (SolverServer server = new SolverServer(0)) {
+            server.start();
+            Random random = new Random(26);
+            for (int i = 0; i < 10; i++) solveBinary(server, TestMaps.random(random, 16, 16, 0.5));
+
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + "/metrics").openConnection();
+            assertEquals(200, connection.getResponseCode());
+            String body = read(connection.getInputStream());
+
+            assertTrue(body, body.contains("\"requests\":10,"));
+            assertTrue(body, body.contains("\"solves\":10,"));
+            assertEquals(10, server.getSolveLatency().getCount());
+
+            // a request is timed once its response is sent, so the last may not be counted yet
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (server.getRequestLatency().getCount() < 10 && System.nanoTime() < deadline) Thread.sleep(5);
+            assertEquals(10, server.getRequestLatency().getCount());
+            assertTrue(server.getRequestLatency().getPercentile(0.5) <= server.getRequestLatency().getMax());
+            assertTrue(server.getRequestLatency().getMax() >= server.getSolveLatency().getMax());
+        }
+    }
+}
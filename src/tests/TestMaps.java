@@ -0,0 +1,85 @@
+package src.tests;
+
+import src.main.Grouping;
+import src.main.KarnaughMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *  Random Karnaugh maps and cover checks shared by the tests.
+ *
+ *  @author Morgan Jones
+ *
+ */
+final class TestMaps {
+
+    private TestMaps() {}
+
+    /**
+     * Creates a map with each cell 1 at random
+     * @param random the source of the cells
+     * @param width the width of the map
+     * @param height the height of the map
+     * @param density the chance of each cell being 1
+     * @return the map
+     */
+    static KarnaughMap random(Random random, int width, int height, double density) {
+        KarnaughMap map = new KarnaughMap(width, height);
+        for (int row = 0; row < height; row++)
+            for (int col = 0; col < width; col++) map.set(row, col, random.nextDouble() < density);
+
+        return map;
+    }
+
+    /**
+     * Creates several maps of one size with each cell 1 at random
+     * @param random the source of the cells
+     * @param count the number of maps
+     * @param width the width of the maps
+     * @param height the height of the maps
+     * @param density the chance of each cell being 1
+     * @return the maps
+     */
+    static List<KarnaughMap> random(Random random, int count, int width, int height, double density) {
+        ArrayList<KarnaughMap> maps = new ArrayList<>();
+        for (int i = 0; i < count; i++) maps.add(random(random, width, height, density));
+
+        return maps;
+    }
+
+    /**
+     * Unpacks a map into rows of cells
+     * @param map the map
+     * @return the cells, indexed by row then column
+     */
+    static boolean[][] toArray(KarnaughMap map) {
+        boolean[][] cells = new boolean[map.getHeight()][map.getWidth()];
+        for (int row = 0; row < map.getHeight(); row++)
+            for (int col = 0; col < map.getWidth(); col++) cells[row][col] = map.get(row, col);
+
+        return cells;
+    }
+
+    /**
+     * Asserts that groupings cover every 1 of a map and nothing else
+     * @param map the map
+     * @param groupings the groupings
+     */
+    static void assertCovers(KarnaughMap map, Iterable<Grouping> groupings) {
+        KarnaughMap left = map.copy();
+
+        for (Grouping g : groupings) {
+            assertEquals(map.getWidth(), g.getMapWidth());
+            assertEquals(map.getHeight(), g.getMapHeight());
+            assertEquals("grouping " + g + " covers a 0", g.size(), map.count(g));
+            left.clear(g);
+        }
+
+        assertTrue("a 1 is left uncovered", left.isEmpty());
+    }
+}
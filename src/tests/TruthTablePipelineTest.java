@@ -0,0 +1,116 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import src.main.TruthTablePipeline;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TruthTablePipelineTest {
+
+    private static String run(TruthTablePipeline pipeline, byte[] input, TruthTablePipeline.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pipeline.run(Channels.newChannel(new ByteArrayInputStream(input)), format, Channels.newChannel(out));
+        return out.toString(StandardCharsets.US_ASCII.name());
+    }
+
+    /**
+     * Reads the blocks of a minimised PLA, giving for each block and output the minterms its terms cover
+     */
+    private static List<List<BitSet>> covered(String pla) {
+        List<List<BitSet>> blocks = new ArrayList<>();
+        int inputs = 0;
+        List<BitSet> block = null;
+
+        for (String line : pla.split("\n")) {
+            String[] parts = line.split(" ");
+            if (parts[0].equals(".i")) inputs = Integer.parseInt(parts[1]);
+            else if (parts[0].equals(".o")) {
+                block = new ArrayList<>();
+                for (int o = 0; o < Integer.parseInt(parts[1]); o++) block.add(new BitSet());
+                blocks.add(block);
+            } else if (!parts[0].startsWith(".")) {
+                for (int m = 0; m < 1 << inputs; m++) {
+                    boolean matches = true;
+                    for (int p = 0; p < inputs; p++) {
+                        char c = parts[0].charAt(p);
+                        int bit = m >>> (inputs - 1 - p) & 1;
+                        matches &= c == '-' || c - '0' == bit;
+                    }
+                    for (int o = 0; matches && o < parts[1].length(); o++)
+                        if (parts[1].charAt(o) == '1') block.get(o).set(m);
+                }
+            }
+        }
+
+        return blocks;
+    }
+
+    @Test
+    public void plaBlocksWithDontCares() throws IOException {
+        String pla = "# two functions\n"
+                + ".i 3\n.o 2\n.ilb a b c\n.p 4\n"
+                + "000 10\n001 11\n011 -1\r\n1-1 01\n.e\n"
+                + "\n.i 4\n.o 1\n.type fr\n.p 2\n"
+                + "0000 1\n1111 0\n.e\n";
+
+        List<List<BitSet>> blocks = covered(run(new TruthTablePipeline(2, 2), pla.getBytes(StandardCharsets.US_ASCII), TruthTablePipeline.Format.PLA));
+        assertEquals(2, blocks.size());
+
+        // output 0 covers 000 and 001, and may cover the don't-care 011
+        BitSet first = blocks.get(0).get(0);
+        assertTrue(first.get(0) && first.get(1));
+        assertEquals(0, first.get(2, 8).cardinality() - (first.get(3) ? 1 : 0));
+        BitSet second = blocks.get(0).get(1);
+        for (int m : new int[] {1, 3, 5, 7}) assertTrue(second.get(m));
+        assertEquals(4, second.cardinality());
+
+        // with an off-set, everything but 1111 is free to cover
+        BitSet third = blocks.get(1).get(0);
+        assertTrue(third.get(0));
+        assertFalse(third.get(15));
+    }
+
+    @Test
+    public void binaryRecordsComeOutInOrder() throws IOException {
+        Random random = new Random(23);
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        TruthTablePipeline.writeBinaryHeader(file);
+
+        List<BitSet> tables = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            int inputs = 1 + random.nextInt(10);
+            BitSet ones = new BitSet();
+            for (int m = 0; m < 1 << inputs; m++) if (random.nextInt(3) == 0) ones.set(m);
+            tables.add(ones);
+            TruthTablePipeline.writeBinaryRecord(file, inputs, ones, null);
+        }
+
+        List<List<BitSet>> blocks = covered(run(new TruthTablePipeline(3, 4), file.toByteArray(), TruthTablePipeline.Format.BINARY));
+
+        assertEquals(tables.size(), blocks.size());
+        for (int i = 0; i < tables.size(); i++) assertEquals(tables.get(i), blocks.get(i).get(0));
+    }
+
+    @Test
+    public void malformedInputIsReported() {
+        TruthTablePipeline pipeline = new TruthTablePipeline(2, 2);
+        byte[] pla = ".i 2\n.o 1\n0x 1\n.e\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] binary = { 'K', 'M', 'T', 'T', 0, 0, 0, 1, 5, 0 };
+
+        assertThrows(IOException.class, () -> run(pipeline, pla, TruthTablePipeline.Format.PLA));
+        assertThrows(IOException.class, () -> run(pipeline, binary, TruthTablePipeline.Format.BINARY));
+    }
+}